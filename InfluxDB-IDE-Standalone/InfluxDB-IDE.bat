@@ -46,7 +46,9 @@ exit /b 1
 echo Starting InfluxDB IDE with JavaFX...
 echo.
 
-java --module-path "%modulePath%" --add-modules javafx.controls,javafx.fxml,javafx.graphics --add-opens javafx.graphics/javafx.scene=ALL-UNNAMED -cp "influx-simple-1.0.0.jar" com.influxdata.demo.InfluxDBJavaFXIDE
+REM Class-data-sharing archive of the JDK and JavaFX classes the IDE loads at startup; the package ships one,
+REM and the JVM recreates it on exit when it is missing or was made by a different Java version
+java -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=influx-ide.jsa --module-path "%modulePath%" --add-modules javafx.controls,javafx.fxml,javafx.graphics --add-opens javafx.graphics/javafx.scene=ALL-UNNAMED --add-opens java.base/java.nio=ALL-UNNAMED -cp "influx-simple-1.0.0.jar" com.influxdata.demo.InfluxDBJavaFXIDE
 
 if %errorlevel% equ 0 (
     echo.
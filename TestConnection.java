@@ -1,9 +1,4 @@
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import com.influxdata.demo.InfluxHttpClient;
 
 public class TestConnection {
     public static void main(String[] args) {
@@ -19,55 +14,20 @@ public class TestConnection {
             System.out.println("Query: " + query);
             System.out.println();
             
-            String urlString = "http://" + host + "/query";
-            
-            // Build query parameters
-            String params = String.format("p=%s&db=%s&q=%s",
-                URLEncoder.encode(token, StandardCharsets.UTF_8),
-                URLEncoder.encode(database, StandardCharsets.UTF_8),
-                URLEncoder.encode(query, StandardCharsets.UTF_8)
-            );
-            
-            URL url = new URL(urlString + "?" + params);
-            System.out.println("Full URL: " + url);
-            System.out.println();
-            
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            
-            // Set request method and headers
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
+            // Use the same shared keep-alive client as the application
+            InfluxHttpClient client = InfluxHttpClient.forProfile("http", host, false);
             
             System.out.println("Connecting...");
-            int responseCode = connection.getResponseCode();
-            System.out.println("Response Code: " + responseCode);
+            long start = System.currentTimeMillis();
+            String response = client.query(token, database, query);
+            System.out.println("Elapsed: " + (System.currentTimeMillis() - start) + " ms");
             
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                // Read successful response
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-                
+            if (!response.startsWith("ERROR")) {
                 System.out.println("SUCCESS! Response:");
-                System.out.println(response.toString());
+                System.out.println(response);
             } else {
-                // Read error response
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-                
                 System.out.println("ERROR! Response:");
-                System.out.println(response.toString());
+                System.out.println(response);
             }
             
         } catch (Exception e) {
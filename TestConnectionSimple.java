@@ -1,9 +1,4 @@
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import com.influxdata.demo.InfluxHttpClient;
 
 public class TestConnectionSimple {
     public static void main(String[] args) {
@@ -23,51 +18,20 @@ public class TestConnectionSimple {
         System.out.println();
         
         try {
-            // Build URL exactly like the application does
-            String urlString = "http://" + host + "/query";
-            String params = String.format("p=%s&db=%s&q=%s",
-                URLEncoder.encode(token, StandardCharsets.UTF_8),
-                URLEncoder.encode(database, StandardCharsets.UTF_8),
-                URLEncoder.encode(query, StandardCharsets.UTF_8)
-            );
-            
-            URL url = new URL(urlString + "?" + params);
-            System.out.println("Full URL: " + url);
-            System.out.println();
-            
-            // Test connection
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
+            // Use the same shared keep-alive client as the application
+            InfluxHttpClient client = InfluxHttpClient.forProfile("http", host, false);
             
             System.out.println("Attempting connection...");
-            int responseCode = connection.getResponseCode();
-            System.out.println("Response Code: " + responseCode);
+            long start = System.currentTimeMillis();
+            String response = client.query(token, database, query);
+            System.out.println("Elapsed: " + (System.currentTimeMillis() - start) + " ms");
             
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-                
+            if (!response.startsWith("ERROR")) {
                 System.out.println("SUCCESS! Response:");
-                System.out.println(response.toString());
+                System.out.println(response);
             } else {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-                
                 System.out.println("ERROR! Response:");
-                System.out.println(response.toString());
+                System.out.println(response);
             }
             
         } catch (Exception e) {
@@ -0,0 +1,230 @@
+import com.influxdata.demo.ColumnarResult;
+import com.influxdata.demo.InfluxHttpClient;
+import com.influxdata.demo.InfluxResponseParser;
+import com.influxdata.demo.InfluxStandInServer;
+import com.influxdata.demo.QueryCancellation;
+import com.influxdata.demo.QueryPaginator;
+import com.influxdata.demo.TimeWindowFanOut;
+import com.influxdata.demo.TransferStats;
+import org.json.JSONObject;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end throughput and latency check against the embedded InfluxDB stand-in, no live server needed
+ * Runs the IDE's query paths (plain HTTP, chunked streaming, pagination with and without GROUP BY or several measurements, time-window fan-out) from the request
+ * to a populated result table and fails with exit code 1 when rows are missing or a budget is exceeded
+ *
+ * Build the jar first, then:
+ *   javac -cp target/influx-simple-1.0.0.jar TestEndToEnd.java
+ *   java -cp target/influx-simple-1.0.0.jar:. TestEndToEnd
+ * Shape and budgets are system properties: -De2e.rows=200000 -De2e.series=10 -De2e.fields=10
+ * -De2e.fieldType=mixed -De2e.latencyMs=20 -De2e.minRowsPerSecond=10000 -De2e.maxFirstChunkMs=1000
+ * The default throughput floor only catches order-of-magnitude regressions on a shared CI core, raise it on real hardware
+ */
+public class TestEndToEnd {
+
+    private static final long ROWS = Long.getLong("e2e.rows", 200_000);
+    private static final int SERIES = Integer.getInteger("e2e.series", 10);
+    private static final int FIELDS = Integer.getInteger("e2e.fields", 10);
+    private static final String FIELD_TYPE = System.getProperty("e2e.fieldType", InfluxStandInServer.MIXED);
+    private static final long LATENCY_MS = Long.getLong("e2e.latencyMs", 20);
+    private static final long MIN_ROWS_PER_SECOND = Long.getLong("e2e.minRowsPerSecond", 10_000);
+    private static final long MAX_FIRST_CHUNK_MS = Long.getLong("e2e.maxFirstChunkMs", 1000);
+
+    private static final String TOKEN = "stand-in-token";
+    private static final String DATABASE = "test";
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(120);
+
+    private static final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        try (InfluxStandInServer server = new InfluxStandInServer()
+                .rows(ROWS).series(SERIES).fields(FIELDS).fieldType(FIELD_TYPE)
+                .latencyMillis(LATENCY_MS).token(TOKEN).start(0)) {
+            System.out.println("Stand-in on " + server.getAddress() + ": " + ROWS + " rows, " + SERIES + " series, "
+                + FIELDS + " " + FIELD_TYPE + " fields, " + LATENCY_MS + " ms latency");
+            InfluxHttpClient client = InfluxHttpClient.forProfile("http", server.getAddress(), false);
+            long end = InfluxStandInServer.START_NANOS + (ROWS / SERIES + 1) * InfluxStandInServer.INTERVAL_NANOS;
+            String query = "SELECT * FROM cpu WHERE time >= " + InfluxStandInServer.START_NANOS + " AND time < " + end;
+
+            // Warm up the connection and the JIT so the budgets measure steady state
+            fetch(client, "SELECT * FROM cpu LIMIT " + Math.max(1000, ROWS / 4));
+
+            // Plain query: whole JSON response, parsed into the table's columns
+            long start = System.nanoTime();
+            TransferStats stats = new TransferStats();
+            ColumnarResult plain = fetch(client, query, stats);
+            report("Plain HTTP", plain.getRowCount(), System.nanoTime() - start, stats.describe());
+            checkRows("Plain HTTP", plain.getRowCount(), ROWS);
+            checkThroughput("Plain HTTP", plain.getRowCount(), System.nanoTime() - start);
+
+            // Chunked streaming: rows appended chunk by chunk, first chunk within the latency budget
+            start = System.nanoTime();
+            AtomicLong firstChunkNanos = new AtomicLong();
+            ColumnarResult[] streamed = new ColumnarResult[1];
+            long streamStart = start;
+            int chunks = client.queryChunked(TOKEN, DATABASE, query, 10000, READ_TIMEOUT, new QueryCancellation(), new TransferStats(), chunk -> {
+                ColumnarResult part = InfluxResponseParser.parse(chunk).getResult();
+                if (streamed[0] == null) {
+                    firstChunkNanos.set(System.nanoTime() - streamStart);
+                    streamed[0] = part;
+                } else {
+                    streamed[0].appendAll(part);
+                }
+            });
+            long streamedRows = streamed[0] != null ? streamed[0].getRowCount() : 0;
+            report("Chunked streaming", streamedRows, System.nanoTime() - start,
+                chunks + " chunks, first after " + firstChunkNanos.get() / 1_000_000 + " ms");
+            checkRows("Chunked streaming", streamedRows, ROWS);
+            checkThroughput("Chunked streaming", streamedRows, System.nanoTime() - start);
+            if (firstChunkNanos.get() / 1_000_000 > LATENCY_MS + MAX_FIRST_CHUNK_MS) {
+                failures.add("Chunked streaming: first chunk after " + firstChunkNanos.get() / 1_000_000 + " ms, budget "
+                    + (LATENCY_MS + MAX_FIRST_CHUNK_MS) + " ms");
+            }
+
+            // Pagination: time-keyset pages must add up to exactly the plain result
+            start = System.nanoTime();
+            QueryPaginator paginator = QueryPaginator.create(query, 25000);
+            ColumnarResult paged = null;
+            while (paginator.hasMore()) {
+                ColumnarResult page = fetch(client, paginator.nextPageQuery());
+                paginator.onPageLoaded(page);
+                if (page == null) {
+                    continue;
+                }
+                if (paged == null) {
+                    paged = page;
+                } else {
+                    paged.appendAll(page);
+                }
+            }
+            long pagedRows = paged != null ? paged.getRowCount() : 0;
+            report("Paginated", pagedRows, System.nanoTime() - start, paginator.getPagesLoaded() + " pages");
+            checkRows("Paginated", pagedRows, ROWS);
+            checkSameRows("Paginated", plain, paged);
+
+            // Pagination under GROUP BY: LIMIT and OFFSET apply per series, every series must still be paged in full
+            start = System.nanoTime();
+            QueryPaginator groupedPaginator = QueryPaginator.create(query + " GROUP BY host", 500);
+            long groupedRows = 0;
+            while (groupedPaginator.hasMore()) {
+                InfluxResponseParser.ParsedResponse page = fetchParsed(client, groupedPaginator.nextPageQuery(), new TransferStats());
+                groupedPaginator.onPageLoaded(page.getResult(), page.getLargestSeriesRows());
+                groupedRows += page.getResult() != null ? page.getResult().getRowCount() : 0;
+            }
+            report("Paginated GROUP BY", groupedRows, System.nanoTime() - start, groupedPaginator.getPagesLoaded() + " pages");
+            checkRows("Paginated GROUP BY", groupedRows, ROWS);
+
+            // Pagination over several measurements: one series each, so LIMIT and OFFSET apply per series as well
+            String multiQuery = query.replace("FROM cpu", "FROM cpu, mem");
+            long multiExpected = fetch(client, multiQuery).getRowCount();
+            start = System.nanoTime();
+            QueryPaginator multiPaginator = QueryPaginator.create(multiQuery, (int) Math.max(100, ROWS / 8));
+            long multiRows = 0;
+            while (multiPaginator.hasMore()) {
+                InfluxResponseParser.ParsedResponse page = fetchParsed(client, multiPaginator.nextPageQuery(), new TransferStats());
+                multiPaginator.onPageLoaded(page.getResult(), page.getLargestSeriesRows());
+                multiRows += page.getResult() != null ? page.getResult().getRowCount() : 0;
+            }
+            report("Paginated 2 series", multiRows, System.nanoTime() - start, multiPaginator.getPagesLoaded() + " pages");
+            checkRows("Paginated 2 series", multiRows, multiExpected);
+
+            // Time-window fan-out: parallel windows merged in time order
+            start = System.nanoTime();
+            TimeWindowFanOut fanOut = TimeWindowFanOut.create(query, 8, end);
+            ColumnarResult[] merged = new ColumnarResult[1];
+            long windowRows = fanOut.execute(windowQuery -> fetch(client, windowQuery), 4, new QueryCancellation(),
+                new TimeWindowFanOut.Listener() {
+                    @Override
+                    public void onWindowFinished(int window, long rows, int windowsDone, int windowsRunning) {
+                    }
+
+                    @Override
+                    public void onWindowResult(int window, ColumnarResult result) {
+                        if (merged[0] == null) {
+                            merged[0] = result;
+                        } else {
+                            merged[0].appendAll(result);
+                        }
+                    }
+                });
+            report("Time windows", windowRows, System.nanoTime() - start, fanOut.getWindowCount() + " windows");
+            checkRows("Time windows", windowRows, ROWS);
+            checkSameRows("Time windows", plain, merged[0]);
+
+            System.out.println("=".repeat(80));
+            System.out.println(server.getRequestCount() + " requests, " + server.getBytesSent() + " bytes sent");
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("PASSED");
+            return;
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        System.exit(1);
+    }
+
+    private static ColumnarResult fetch(InfluxHttpClient client, String query) throws Exception {
+        return fetch(client, query, new TransferStats());
+    }
+
+    private static ColumnarResult fetch(InfluxHttpClient client, String query, TransferStats stats) throws Exception {
+        ColumnarResult result = fetchParsed(client, query, stats).getResult();
+        if (result != null) {
+            // Format the first screen of cells, as the table does when it shows the result
+            for (int row = 0; row < Math.min(50, result.getRowCount()); row++) {
+                for (int column = 0; column < result.getColumnCount(); column++) {
+                    result.getDisplayValue(row, column);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static InfluxResponseParser.ParsedResponse fetchParsed(InfluxHttpClient client, String query, TransferStats stats)
+            throws Exception {
+        String response = client.query(TOKEN, DATABASE, query, READ_TIMEOUT, new QueryCancellation(), stats);
+        if (response.startsWith("ERROR")) {
+            throw new IllegalStateException(response);
+        }
+        return InfluxResponseParser.parse(new JSONObject(response));
+    }
+
+    private static void report(String name, long rows, long nanos, String details) {
+        System.out.println(String.format("%-18s %9d rows %7d ms %10.0f rows/s  %s", name, rows, nanos / 1_000_000,
+            rows * 1e9 / Math.max(1, nanos), details));
+    }
+
+    private static void checkRows(String name, long rows, long expected) {
+        if (rows != expected) {
+            failures.add(name + ": " + rows + " rows, expected " + expected);
+        }
+    }
+
+    private static void checkThroughput(String name, long rows, long nanos) {
+        double rowsPerSecond = rows * 1e9 / Math.max(1, nanos);
+        if (rowsPerSecond < MIN_ROWS_PER_SECOND) {
+            failures.add(name + ": " + Math.round(rowsPerSecond) + " rows/s, budget " + MIN_ROWS_PER_SECOND + " rows/s");
+        }
+    }
+
+    private static void checkSameRows(String name, ColumnarResult expected, ColumnarResult actual) {
+        if (actual == null || actual.getRowCount() != expected.getRowCount()) {
+            return;
+        }
+        for (int row = 0; row < expected.getRowCount(); row++) {
+            for (int column = 0; column < expected.getColumnCount(); column++) {
+                String columnName = expected.getColumnNames().get(column);
+                int actualColumn = actual.indexOfColumn(columnName);
+                if (actualColumn < 0 || !expected.getDisplayValue(row, column).equals(actual.getDisplayValue(row, actualColumn))) {
+                    failures.add(name + ": row " + row + " column " + columnName + " differs from the plain result");
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,4 @@
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import com.influxdata.demo.InfluxHttpClient;
 
 public class TestMoreQueries {
     public static void main(String[] args) {
@@ -31,51 +26,22 @@ public class TestMoreQueries {
         try {
             System.out.println("Testing Query: " + query);
             
-            String urlString = "http://" + host + "/query";
+            // All queries share one keep-alive client, so only the first one pays for connection setup
+            InfluxHttpClient client = InfluxHttpClient.forProfile("http", host, false);
             
-            // Build query parameters
-            String params = String.format("p=%s&db=%s&q=%s",
-                URLEncoder.encode(token, StandardCharsets.UTF_8),
-                URLEncoder.encode(database, StandardCharsets.UTF_8),
-                URLEncoder.encode(query, StandardCharsets.UTF_8)
-            );
+            long start = System.currentTimeMillis();
+            String response = client.query(token, database, query);
+            System.out.println("Elapsed: " + (System.currentTimeMillis() - start) + " ms");
             
-            URL url = new URL(urlString + "?" + params);
-            
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
-            
-            int responseCode = connection.getResponseCode();
-            System.out.println("Response Code: " + responseCode);
-            
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-                
+            if (!response.startsWith("ERROR")) {
                 System.out.println("SUCCESS! Response length: " + response.length() + " characters");
                 if (response.length() < 500) {
-                    System.out.println("Full response: " + response.toString());
+                    System.out.println("Full response: " + response);
                 } else {
                     System.out.println("First 500 chars: " + response.substring(0, 500) + "...");
                 }
             } else {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-                
-                System.out.println("ERROR! Response: " + response.toString());
+                System.out.println("ERROR! Response: " + response);
             }
             
         } catch (Exception e) {
@@ -46,6 +46,13 @@ echo echo Starting InfluxDB IDE as Administrator... >> "%DIST_DIR%\Run-IDE-Admin
 echo echo. >> "%DIST_DIR%\Run-IDE-Admin.bat"
 echo powershell -Command "Start-Process 'InfluxDB-IDE.bat' -Verb RunAs" >> "%DIST_DIR%\Run-IDE-Admin.bat"
 
+REM Training run: opens the main window once and exits, leaving the class-data-sharing archive the launcher uses
+echo Creating class-data-sharing archive...
+pushd "%DIST_DIR%"
+java -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=influx-ide.jsa --module-path javafx-sdk\lib --add-modules javafx.controls,javafx.fxml,javafx.graphics --add-opens javafx.graphics/javafx.scene=ALL-UNNAMED --add-opens java.base/java.nio=ALL-UNNAMED -cp influx-simple-1.0.0.jar com.influxdata.demo.InfluxDBJavaFXIDE --cds-training
+popd
+if not exist "%DIST_DIR%\influx-ide.jsa" echo Warning: no class-data-sharing archive created, the first launch will create it
+
 echo Creating README for distribution...
 echo # InfluxDB IDE v%VERSION% - Standalone Package > "%DIST_DIR%\README-STANDALONE.md"
 echo. >> "%DIST_DIR%\README-STANDALONE.md"
@@ -68,6 +75,7 @@ echo - `InfluxDB-IDE.bat` - Main launcher script >> "%DIST_DIR%\README-STANDALON
 echo - `Run-IDE.bat` - Simple launcher (recommended) >> "%DIST_DIR%\README-STANDALONE.md"
 echo - `Run-IDE-Admin.bat` - Launcher with admin privileges >> "%DIST_DIR%\README-STANDALONE.md"
 echo - `influx-simple-1.0.0.jar` - Application JAR file >> "%DIST_DIR%\README-STANDALONE.md"
+echo - `influx-ide.jsa` - Class-data-sharing archive for faster startup >> "%DIST_DIR%\README-STANDALONE.md"
 echo - `javafx-sdk/` - JavaFX runtime (included) >> "%DIST_DIR%\README-STANDALONE.md"
 echo - `README.md` - Full documentation >> "%DIST_DIR%\README-STANDALONE.md"
 echo - `LICENSE` - MIT License >> "%DIST_DIR%\README-STANDALONE.md"
@@ -66,6 +66,15 @@ echo.
 powershell -Command "Start-Process 'InfluxDB-IDE.bat' -Verb RunAs"
 "@ | Out-File -FilePath "$DIST_DIR\Run-IDE-Admin.bat" -Encoding ASCII
 
+# Training run: opens the main window once and exits, leaving the class-data-sharing archive the launcher uses
+Write-Host "Creating class-data-sharing archive..." -ForegroundColor Cyan
+Push-Location $DIST_DIR
+& java -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=influx-ide.jsa --module-path javafx-sdk\lib --add-modules javafx.controls,javafx.fxml,javafx.graphics --add-opens javafx.graphics/javafx.scene=ALL-UNNAMED --add-opens java.base/java.nio=ALL-UNNAMED -cp influx-simple-1.0.0.jar com.influxdata.demo.InfluxDBJavaFXIDE --cds-training
+Pop-Location
+if (-not (Test-Path "$DIST_DIR\influx-ide.jsa")) {
+    Write-Host "Warning: no class-data-sharing archive created, the first launch will create it" -ForegroundColor Yellow
+}
+
 Write-Host "Creating README for distribution..." -ForegroundColor Cyan
 
 # Create comprehensive README
@@ -91,6 +100,7 @@ Write-Host "Creating README for distribution..." -ForegroundColor Cyan
 - `Run-IDE.bat` - Simple launcher (recommended)
 - `Run-IDE-Admin.bat` - Launcher with admin privileges
 - `influx-simple-1.0.0.jar` - Application JAR file
+- `influx-ide.jsa` - Class-data-sharing archive for faster startup (recreated automatically for other Java versions)
 - `javafx-sdk/` - JavaFX runtime (included)
 - `README.md` - Full documentation
 - `LICENSE` - MIT License
@@ -18,7 +18,8 @@ echo
 echo "Build successful! Running the application..."
 echo
 
-java -jar target/influx-simple-1.0.0.jar
+# Class-data-sharing archive of the startup classes, created on the first run and reused afterwards
+java -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=target/influx-ide.jsa -jar target/influx-simple-1.0.0.jar
 
 echo
 echo "Application finished." 
\ No newline at end of file
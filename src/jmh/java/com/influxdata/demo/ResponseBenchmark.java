@@ -0,0 +1,77 @@
+package com.influxdata.demo;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response handling of the HTTP backend: reading the (gzipped) body into text and parsing the
+ * v1 JSON into a ColumnarResult, as done before a result reaches the table
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ResponseBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"10"})
+    public int fields;
+
+    @Param({"1", "50"})
+    public int series;
+
+    @Param({SyntheticResponses.NUMERIC, SyntheticResponses.STRING, SyntheticResponses.MIXED})
+    public String fieldType;
+
+    private byte[] body;
+    private byte[] gzippedBody;
+    private String text;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = SyntheticResponses.response(rows, fields, series, fieldType);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(body);
+        }
+        gzippedBody = gzipped.toByteArray();
+        text = new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String readResponse() throws IOException {
+        return InfluxHttpClient.readText(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public String readGzipResponse() throws IOException {
+        return InfluxHttpClient.readText(new GZIPInputStream(new ByteArrayInputStream(gzippedBody), 64 * 1024));
+    }
+
+    @Benchmark
+    public ColumnarResult parseResponse() {
+        return InfluxResponseParser.parse(new JSONObject(text)).getResult();
+    }
+}
@@ -0,0 +1,106 @@
+package com.influxdata.demo;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work done on a loaded result: the global filter, a column filter, typed column sorts and CSV export
+ * The result is parsed once per trial; filters and sorters are created per call so no cached
+ * permutation or match list carries over between invocations
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ResultBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"10"})
+    public int fields;
+
+    @Param({"10"})
+    public int series;
+
+    @Param({SyntheticResponses.NUMERIC, SyntheticResponses.STRING, SyntheticResponses.MIXED})
+    public String fieldType;
+
+    @Param({"12"})
+    public String filterText;
+
+    private ColumnarResult result;
+    private int fieldColumn;
+    private int[] allRows;
+    private File exportFile;
+    private File gzipExportFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String text = new String(SyntheticResponses.response(rows, fields, series, fieldType), StandardCharsets.UTF_8);
+        result = InfluxResponseParser.parse(new JSONObject(text)).getResult();
+        fieldColumn = Math.max(0, result.indexOfColumn("field_0"));
+        allRows = new int[result.getRowCount()];
+        for (int row = 0; row < allRows.length; row++) {
+            allRows[row] = row;
+        }
+        exportFile = File.createTempFile("bench-export", ".csv");
+        gzipExportFile = File.createTempFile("bench-export", ".csv.gz");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(exportFile.toPath());
+        Files.deleteIfExists(gzipExportFile.toPath());
+    }
+
+    @Benchmark
+    public int[] globalFilter() {
+        return new GlobalFilter(result).filter(filterText, () -> false);
+    }
+
+    @Benchmark
+    public RowBitmap columnFilter() {
+        return ResultFilters.evaluate(result, fieldColumn, ResultFilters.CONTAINS, filterText);
+    }
+
+    @Benchmark
+    public int[] sortTime() {
+        return new ColumnSorter(result).sort(result.indexOfColumn("time"), false);
+    }
+
+    @Benchmark
+    public int[] sortField() {
+        return new ColumnSorter(result).sort(fieldColumn, true);
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        return new CsvExporter(result, allRows, false).export(exportFile, null);
+    }
+
+    @Benchmark
+    public long exportCsvGzip() throws IOException {
+        return new CsvExporter(result, allRows, true).export(gzipExportFile, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.influxdata.demo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Deterministic InfluxDB v1 /query JSON responses for the benchmarks, rendered by the InfluxStandInServer
+ * Rows are spread evenly over series tagged host=host-N, one RFC3339 time column plus field_0..field_N
+ * columns that are numeric, strings drawn from a fixed set of values, or alternating between the two
+ */
+final class SyntheticResponses {
+
+    static final String NUMERIC = InfluxStandInServer.NUMERIC;
+    static final String STRING = InfluxStandInServer.STRING;
+    static final String MIXED = InfluxStandInServer.MIXED;
+
+    private SyntheticResponses() {
+    }
+
+    /**
+     * Builds a single-statement response as UTF-8 bytes
+     */
+    static byte[] response(int rows, int fields, int series, String fieldType) {
+        try {
+            return new InfluxStandInServer().measurement("bench").rows(rows).fields(fields).series(series).fieldType(fieldType)
+                .render("SELECT * FROM bench GROUP BY *", false, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
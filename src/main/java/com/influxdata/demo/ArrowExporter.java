@@ -0,0 +1,215 @@
+package com.influxdata.demo;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampNanoTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes result rows as an Arrow IPC file (Feather v2), readable by pyarrow, pandas, Polars and Spark
+ * Columns keep their types: time as a UTC nanosecond timestamp, integers as int64, floats as
+ * float64, booleans as bool. String columns with few distinct values (tags) are dictionary-encoded
+ * with int32 indices; the rest are written as plain UTF-8. Rows are written in record batches
+ */
+public class ArrowExporter implements ResultExporter {
+
+    // Rows per record batch
+    private static final int BATCH_ROWS = 65536;
+
+    // String columns with at most this many distinct values are dictionary-encoded
+    static final int MAX_DICTIONARY_SIZE = 65536;
+
+    private final ColumnarResult result;
+    private final int[] rows;
+
+    /**
+     * Creates an exporter for the given rows of a result, in the given order
+     */
+    public ArrowExporter(ColumnarResult result, int[] rows) {
+        this.result = result;
+        this.rows = rows;
+    }
+
+    @Override
+    public String getFormatName() {
+        return "Arrow IPC";
+    }
+
+    @Override
+    public long export(File file, ProgressListener listener) throws IOException {
+        int columnCount = result.getColumnCount();
+        byte[][][] dictionaries = encodeDictionaries(columnCount);
+
+        try (BufferAllocator allocator = new RootAllocator();
+             FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+            List<FieldVector> dictionaryVectors = new ArrayList<>();
+            try {
+                List<Field> fields = new ArrayList<>();
+                for (int c = 0; c < columnCount; c++) {
+                    fields.add(createField(c, dictionaries[c], allocator, provider, dictionaryVectors));
+                }
+
+                try (VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+                     ArrowFileWriter writer = new ArrowFileWriter(root, provider, channel)) {
+                    writer.start();
+                    for (int from = 0; from < rows.length; from += BATCH_ROWS) {
+                        int to = Math.min(rows.length, from + BATCH_ROWS);
+                        root.allocateNew();
+                        for (int c = 0; c < columnCount; c++) {
+                            fillVector(root.getVector(c), result.getColumn(c), dictionaries[c], from, to);
+                        }
+                        root.setRowCount(to - from);
+                        writer.writeBatch();
+                        if (listener != null) {
+                            listener.onProgress(to, channel.position());
+                        }
+                    }
+                    writer.end();
+                }
+                return channel.position();
+            } finally {
+                for (FieldVector vector : dictionaryVectors) {
+                    vector.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the dictionary of every STRING column as UTF-8 once; other columns get null
+     */
+    private byte[][][] encodeDictionaries(int columnCount) {
+        byte[][][] dictionaries = new byte[columnCount][][];
+        for (int c = 0; c < columnCount; c++) {
+            ColumnarResult.Column column = result.getColumn(c);
+            if (column.getType() == ColumnarResult.ColumnType.STRING) {
+                List<String> dictionary = column.getDictionary();
+                byte[][] encoded = new byte[dictionary.size()][];
+                for (int code = 0; code < encoded.length; code++) {
+                    encoded[code] = dictionary.get(code).getBytes(StandardCharsets.UTF_8);
+                }
+                dictionaries[c] = encoded;
+            }
+        }
+        return dictionaries;
+    }
+
+    /**
+     * Builds the Arrow field of a column; a dictionary-encoded column also registers its dictionary
+     */
+    private Field createField(int columnIndex, byte[][] dictionary, BufferAllocator allocator,
+                              DictionaryProvider.MapDictionaryProvider provider, List<FieldVector> dictionaryVectors) {
+        ColumnarResult.Column column = result.getColumn(columnIndex);
+        String name = column.getName();
+        switch (column.getType()) {
+            case TIME:
+                return new Field(name, new FieldType(true, new ArrowType.Timestamp(TimeUnit.NANOSECOND, "UTC"), null), null);
+            case LONG:
+                return new Field(name, new FieldType(true, new ArrowType.Int(64, true), null), null);
+            case DOUBLE:
+                return new Field(name, new FieldType(true, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE), null), null);
+            case BOOLEAN:
+                return new Field(name, new FieldType(true, ArrowType.Bool.INSTANCE, null), null);
+            default:
+                if (dictionary.length > MAX_DICTIONARY_SIZE) {
+                    return new Field(name, new FieldType(true, ArrowType.Utf8.INSTANCE, null), null);
+                }
+                // The field carries the index type; the writer stores the dictionary values once per file
+                VarCharVector values = new VarCharVector(name + "_dictionary", allocator);
+                dictionaryVectors.add(values);
+                values.allocateNew(dictionary.length);
+                for (int code = 0; code < dictionary.length; code++) {
+                    values.setSafe(code, dictionary[code]);
+                }
+                values.setValueCount(dictionary.length);
+                DictionaryEncoding encoding = new DictionaryEncoding(columnIndex, false, new ArrowType.Int(32, true));
+                provider.put(new Dictionary(values, encoding));
+                return new Field(name, new FieldType(true, new ArrowType.Int(32, true), encoding), null);
+        }
+    }
+
+    private void fillVector(FieldVector vector, ColumnarResult.Column column, byte[][] dictionary, int from, int to) {
+        if (vector instanceof TimeStampNanoTZVector) {
+            TimeStampNanoTZVector times = (TimeStampNanoTZVector) vector;
+            for (int i = from; i < to; i++) {
+                if (column.isNull(rows[i])) {
+                    times.setNull(i - from);
+                } else {
+                    times.setSafe(i - from, column.getLong(rows[i]));
+                }
+            }
+        } else if (vector instanceof BigIntVector) {
+            BigIntVector longs = (BigIntVector) vector;
+            for (int i = from; i < to; i++) {
+                if (column.isNull(rows[i])) {
+                    longs.setNull(i - from);
+                } else {
+                    longs.setSafe(i - from, column.getLong(rows[i]));
+                }
+            }
+        } else if (vector instanceof Float8Vector) {
+            Float8Vector doubles = (Float8Vector) vector;
+            for (int i = from; i < to; i++) {
+                if (column.isNull(rows[i])) {
+                    doubles.setNull(i - from);
+                } else {
+                    doubles.setSafe(i - from, column.getDouble(rows[i]));
+                }
+            }
+        } else if (vector instanceof BitVector) {
+            BitVector booleans = (BitVector) vector;
+            for (int i = from; i < to; i++) {
+                if (column.isNull(rows[i])) {
+                    booleans.setNull(i - from);
+                } else {
+                    booleans.setSafe(i - from, column.getBoolean(rows[i]) ? 1 : 0);
+                }
+            }
+        } else if (vector instanceof IntVector) {
+            // Dictionary indices are the column's own dictionary codes
+            IntVector indices = (IntVector) vector;
+            for (int i = from; i < to; i++) {
+                if (column.isNull(rows[i])) {
+                    indices.setNull(i - from);
+                } else {
+                    indices.setSafe(i - from, column.getStringCode(rows[i]));
+                }
+            }
+        } else {
+            VarCharVector strings = (VarCharVector) vector;
+            for (int i = from; i < to; i++) {
+                if (column.isNull(rows[i])) {
+                    strings.setNull(i - from);
+                } else {
+                    strings.setSafe(i - from, dictionary[column.getStringCode(rows[i])]);
+                }
+            }
+        }
+    }
+}
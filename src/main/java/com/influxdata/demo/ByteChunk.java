@@ -0,0 +1,132 @@
+package com.influxdata.demo;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that is reused from chunk to chunk by the exporters
+ * Binary numbers are written little-endian, the byte order of Parquet pages
+ */
+final class ByteChunk extends OutputStream {
+    byte[] data;
+    int length;
+
+    ByteChunk() {
+        this(1024 * 1024);
+    }
+
+    ByteChunk(int initialCapacity) {
+        data = new byte[initialCapacity];
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        data[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) {
+        ensureCapacity(count);
+        System.arraycopy(bytes, offset, data, length, count);
+        length += count;
+    }
+
+    void writeAscii(String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            data[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Writes a little-endian int
+     */
+    void writeIntLE(int value) {
+        ensureCapacity(4);
+        data[length++] = (byte) value;
+        data[length++] = (byte) (value >>> 8);
+        data[length++] = (byte) (value >>> 16);
+        data[length++] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Writes a little-endian long
+     */
+    void writeLongLE(long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            data[length++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint
+     */
+    void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Writes fractional seconds the way Instant.toString does: none, or 3, 6 or 9 digits
+     */
+    void writeFraction(int nanos) {
+        if (nanos == 0) {
+            return;
+        }
+        int digits = nanos % 1_000_000 == 0 ? 3 : nanos % 1000 == 0 ? 6 : 9;
+        int value = digits == 3 ? nanos / 1_000_000 : digits == 6 ? nanos / 1000 : nanos;
+        ensureCapacity(digits + 1);
+        data[length++] = '.';
+        for (int pos = length + digits - 1; pos >= length; pos--) {
+            data[pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    /**
+     * Writes the decimal digits of a long without creating a String
+     */
+    void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            data[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int pos = length + digits;
+        do {
+            data[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        length += digits;
+    }
+}
@@ -0,0 +1,129 @@
+package com.influxdata.demo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Formats rows of a text export in parallel chunks and writes the chunks in order to a channel (a file or stdout)
+ * At most a few chunks per core are formatted ahead of the writer and their buffers are reused, so
+ * memory stays constant however many rows are written. With gzip, every chunk is compressed in
+ * parallel as its own gzip member; concatenated members form a standard .gz file that gunzip and
+ * GZIPInputStream read whole
+ */
+final class ChunkPipeline {
+
+    // Rows formatted per task
+    static final int CHUNK_ROWS = 65536;
+
+    /**
+     * Formats the rows [from, to) of the export into the buffer
+     */
+    interface Formatter {
+        void format(int from, int to, ByteChunk out);
+    }
+
+    private final boolean gzip;
+    private final int maxInFlight = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+    private final ArrayDeque<ChunkBuffers> freeBuffers = new ArrayDeque<>();
+
+    ChunkPipeline(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /**
+     * Writes text formatted by the caller, such as a header, and returns the bytes written
+     */
+    long writeText(WritableByteChannel channel, ByteChunk text) throws IOException {
+        ChunkBuffers buffers = new ChunkBuffers();
+        buffers.text.write(text.data, 0, text.length);
+        return write(channel, gzip ? buffers.compress() : buffers.text);
+    }
+
+    /**
+     * Formats the rows [from, to) in parallel chunks and writes them in order
+     * The listener gets the end row of every written chunk and the bytes written by this call so far
+     */
+    long writeRows(WritableByteChannel channel, int from, int to, Formatter formatter,
+                   ResultExporter.ProgressListener listener) throws IOException {
+        ArrayDeque<CompletableFuture<ChunkBuffers>> inFlight = new ArrayDeque<>();
+        ArrayDeque<Integer> chunkEnds = new ArrayDeque<>();
+        int next = from;
+        long bytesWritten = 0;
+        while (next < to || !inFlight.isEmpty()) {
+            while (next < to && inFlight.size() < maxInFlight) {
+                int chunkFrom = next;
+                int chunkTo = Math.min(to, chunkFrom + CHUNK_ROWS);
+                ChunkBuffers buffers = freeBuffers.isEmpty() ? new ChunkBuffers() : freeBuffers.poll();
+                inFlight.add(CompletableFuture.supplyAsync(() -> {
+                    buffers.text.reset();
+                    formatter.format(chunkFrom, chunkTo, buffers.text);
+                    if (gzip) {
+                        buffers.compress();
+                    }
+                    return buffers;
+                }));
+                chunkEnds.add(chunkTo);
+                next = chunkTo;
+            }
+
+            ChunkBuffers buffers = join(inFlight.poll());
+            bytesWritten += write(channel, gzip ? buffers.compressed : buffers.text);
+            freeBuffers.add(buffers);
+            int chunkEnd = chunkEnds.poll();
+            if (listener != null) {
+                listener.onProgress(chunkEnd, bytesWritten);
+            }
+        }
+        return bytesWritten;
+    }
+
+    private static long write(WritableByteChannel channel, ByteChunk chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.data, 0, chunk.length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return chunk.length;
+    }
+
+    private static ChunkBuffers join(CompletableFuture<ChunkBuffers> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Formatted text of one chunk and, for gzip output, its compressed form
+     */
+    private static final class ChunkBuffers {
+        final ByteChunk text = new ByteChunk();
+        final ByteChunk compressed = new ByteChunk();
+
+        /**
+         * Compresses the text into a complete gzip member
+         */
+        ByteChunk compress() {
+            compressed.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 65536)) {
+                gzip.write(text.data, 0, text.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return compressed;
+        }
+    }
+}
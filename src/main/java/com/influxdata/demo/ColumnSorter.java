@@ -0,0 +1,191 @@
+package com.influxdata.demo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts the rows of one result by a column, meant to run off the JavaFX thread
+ * Each cell is turned into a primitive rank that follows the column type (numbers and times by value,
+ * strings case-insensitively, false before true); ranks and row numbers are packed into one long per
+ * row and sorted with Arrays.parallelSort, so neither rows nor boxed values are ever created.
+ * Nulls sort last in both directions and equal values keep their row order. The ascending permutation
+ * of each column is cached, and the descending one is derived from it without sorting again
+ * The result must not be appended to while a sort runs
+ */
+public class ColumnSorter {
+
+    // Below this many rows the key computation is not worth splitting across threads
+    private static final int PARALLEL_ROW_THRESHOLD = 100000;
+
+    private final ColumnarResult result;
+    private final Map<Integer, SortedColumn> cache = new HashMap<>();
+
+    public ColumnSorter(ColumnarResult result) {
+        this.result = result;
+    }
+
+    public ColumnarResult getResult() {
+        return result;
+    }
+
+    /**
+     * Ascending permutation and ranks of one column, valid while the result has rowCount rows
+     */
+    private static final class SortedColumn {
+        final int rowCount;
+        final int[] ranks;
+        final int[] ascending;
+        // Null cells, which sit at the end of the ascending order
+        final int nullCount;
+        int[] descending;
+
+        SortedColumn(int rowCount, int[] ranks, int[] ascending, int nullCount) {
+            this.rowCount = rowCount;
+            this.ranks = ranks;
+            this.ascending = ascending;
+            this.nullCount = nullCount;
+        }
+    }
+
+    /**
+     * Returns all row numbers of the result ordered by the column
+     * The returned array is cached and shared; callers must not modify it
+     */
+    public synchronized int[] sort(int columnIndex, boolean ascending) {
+        int rowCount = result.getRowCount();
+        SortedColumn sorted = cache.get(columnIndex);
+        if (sorted == null || sorted.rowCount != rowCount) {
+            // First sort of this column, or rows were streamed in since
+            sorted = sortColumn(result.getColumn(columnIndex), rowCount);
+            cache.put(columnIndex, sorted);
+        }
+        if (ascending) {
+            return sorted.ascending;
+        }
+        if (sorted.descending == null) {
+            sorted.descending = reverse(sorted);
+        }
+        return sorted.descending;
+    }
+
+    private static SortedColumn sortColumn(ColumnarResult.Column column, int rowCount) {
+        long start = System.currentTimeMillis();
+        int[] ranks = rank(column, rowCount);
+
+        // Pack rank and row into one long; ties are then broken by row number
+        long[] packed = new long[rowCount];
+        rowRange(rowCount).forEach(row -> packed[row] = ((long) ranks[row] << 32) | row);
+        Arrays.parallelSort(packed);
+
+        int[] permutation = new int[rowCount];
+        rowRange(rowCount).forEach(i -> permutation[i] = (int) packed[i]);
+
+        int nullCount = (int) rowRange(rowCount).filter(column::isNull).count();
+
+        System.out.println("Sorted " + rowCount + " rows by " + column.getName() + " (" + column.getType()
+            + ") in " + (System.currentTimeMillis() - start) + " ms");
+        return new SortedColumn(rowCount, ranks, permutation, nullCount);
+    }
+
+    /**
+     * Maps every cell to a dense rank in ascending order; null cells get the highest rank
+     */
+    private static int[] rank(ColumnarResult.Column column, int rowCount) {
+        int[] ranks = new int[rowCount];
+        switch (column.getType()) {
+            case STRING: {
+                // Order the dictionary once, then rank rows by their code
+                List<String> dictionary = column.getDictionary();
+                Integer[] codes = new Integer[dictionary.size()];
+                for (int i = 0; i < codes.length; i++) {
+                    codes[i] = i;
+                }
+                Arrays.sort(codes, (a, b) -> {
+                    int comparison = dictionary.get(a).compareToIgnoreCase(dictionary.get(b));
+                    return comparison != 0 ? comparison : dictionary.get(a).compareTo(dictionary.get(b));
+                });
+                int[] codeRanks = new int[codes.length];
+                for (int i = 0; i < codes.length; i++) {
+                    codeRanks[codes[i]] = i;
+                }
+                int nullRank = codes.length;
+                rowRange(rowCount).forEach(row ->
+                    ranks[row] = column.isNull(row) ? nullRank : codeRanks[column.getStringCode(row)]);
+                return ranks;
+            }
+            case BOOLEAN:
+                rowRange(rowCount).forEach(row ->
+                    ranks[row] = column.isNull(row) ? 2 : (column.getBoolean(row) ? 1 : 0));
+                return ranks;
+            default: {
+                // TIME, LONG and DOUBLE: map values to order-preserving longs, then compress them to ranks
+                boolean doubles = column.getType() == ColumnarResult.ColumnType.DOUBLE;
+                long[] keys = new long[rowCount];
+                rowRange(rowCount).forEach(row -> {
+                    if (column.isNull(row)) {
+                        keys[row] = Long.MAX_VALUE;
+                    } else {
+                        keys[row] = doubles ? sortableBits(column.getDouble(row)) : column.getLong(row);
+                    }
+                });
+
+                long[] distinct = keys.clone();
+                Arrays.parallelSort(distinct);
+                int distinctCount = 0;
+                for (int i = 0; i < distinct.length; i++) {
+                    if (i == 0 || distinct[i] != distinct[i - 1]) {
+                        distinct[distinctCount++] = distinct[i];
+                    }
+                }
+                int valueCount = distinctCount;
+                // Nulls rank after every value, including a real Long.MAX_VALUE
+                int nullRank = valueCount;
+                rowRange(rowCount).forEach(row -> ranks[row] = column.isNull(row)
+                    ? nullRank
+                    : Arrays.binarySearch(distinct, 0, valueCount, keys[row]));
+                return ranks;
+            }
+        }
+    }
+
+    /**
+     * Maps a double to a long with the same ordering (negative values, then positive, NaN last)
+     */
+    private static long sortableBits(double value) {
+        // Negative doubles compare in reverse as raw bits, so flip everything but the sign
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Builds the descending permutation: runs of equal values in reverse order, rows within a run
+     * kept in row order, and nulls still last
+     */
+    private static int[] reverse(SortedColumn sorted) {
+        int[] ascending = sorted.ascending;
+        int[] ranks = sorted.ranks;
+        int[] descending = new int[ascending.length];
+
+        int out = 0;
+        int end = ascending.length - sorted.nullCount;
+        while (end > 0) {
+            int start = end - 1;
+            while (start > 0 && ranks[ascending[start - 1]] == ranks[ascending[end - 1]]) {
+                start--;
+            }
+            System.arraycopy(ascending, start, descending, out, end - start);
+            out += end - start;
+            end = start;
+        }
+        System.arraycopy(ascending, out, descending, out, sorted.nullCount);
+        return descending;
+    }
+
+    private static IntStream rowRange(int rowCount) {
+        IntStream rows = IntStream.range(0, rowCount);
+        return rowCount >= PARALLEL_ROW_THRESHOLD ? rows.parallel() : rows;
+    }
+}
@@ -0,0 +1,924 @@
+package com.influxdata.demo;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed, column-oriented storage for query results
+ * Times are kept as epoch nanoseconds in long[], numbers in long[] (doubles as raw bits),
+ * booleans and nulls in bitmaps, and strings dictionary-encoded as int[] codes,
+ * so a result costs a few bytes per cell instead of a String object per cell
+ * Not thread-safe: appending can replace a column's storage or widen its type, so reads on other threads
+ * must not overlap with appends
+ */
+public class ColumnarResult {
+
+    /**
+     * Storage type of a column, inferred from the first non-null value
+     */
+    public enum ColumnType {
+        TIME,
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        STRING
+    }
+
+    private static final String TIME_COLUMN = "time";
+
+    private final List<Column> columns = new ArrayList<>();
+    // Heap accounting shared by all column vectors; decides when they spill off-heap
+    private final SpillStorage.Budget budget = new SpillStorage.Budget();
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private int rowCount;
+
+    /**
+     * Creates an empty result with the given column layout
+     */
+    public ColumnarResult(List<String> columnNames) {
+        for (String name : columnNames) {
+            addColumn(name);
+        }
+    }
+
+    /**
+     * Builds a result from one series of an InfluxDB v1 JSON response
+     * Reads the "columns" and "values" arrays; a series without values yields an empty result
+     */
+    public static ColumnarResult fromJsonSeries(JSONObject series) {
+        return fromJsonSeries(series, Collections.emptyMap());
+    }
+
+    /**
+     * Builds a result from one series and adds a constant text column for each entry of constantColumns
+     * Used for the series name and GROUP BY tags; the constant columns are placed right after the time column
+     * Entries whose name clashes with a series column are skipped
+     */
+    public static ColumnarResult fromJsonSeries(JSONObject series, Map<String, String> constantColumns) {
+        JSONArray columnsJson = series.getJSONArray("columns");
+        List<String> seriesNames = new ArrayList<>(columnsJson.length());
+        for (int i = 0; i < columnsJson.length(); i++) {
+            seriesNames.add(columnsJson.getString(i));
+        }
+
+        // Constant columns go after "time" (or first if the series has no time column)
+        List<String> constantNames = new ArrayList<>();
+        for (String name : constantColumns.keySet()) {
+            if (!seriesNames.contains(name)) {
+                constantNames.add(name);
+            }
+        }
+        int insertAt = seriesNames.indexOf(TIME_COLUMN) + 1;
+        List<String> names = new ArrayList<>(seriesNames);
+        names.addAll(insertAt, constantNames);
+
+        ColumnarResult result = new ColumnarResult(names);
+        JSONArray values = series.optJSONArray("values");
+        int rowCount = values != null ? values.length() : 0;
+
+        int columnCount = seriesNames.size();
+        Column[] seriesColumns = new Column[columnCount];
+        for (int j = 0; j < columnCount; j++) {
+            seriesColumns[j] = result.columns.get(j < insertAt ? j : j + constantNames.size());
+        }
+        for (int i = 0; i < rowCount; i++) {
+            JSONArray row = values.getJSONArray(i);
+            for (int j = 0; j < columnCount; j++) {
+                Object value = j < row.length() ? row.get(j) : null;
+                seriesColumns[j].append(value == JSONObject.NULL ? null : value);
+            }
+        }
+
+        for (int c = 0; c < constantNames.size(); c++) {
+            String value = constantColumns.get(constantNames.get(c));
+            Column column = result.columns.get(insertAt + c);
+            if (value != null) {
+                column.appendRepeated(value, rowCount);
+            } else {
+                column.appendNulls(rowCount);
+            }
+        }
+
+        result.rowCount = rowCount;
+        return result;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public Column getColumn(int index) {
+        return columns.get(index);
+    }
+
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Returns the position of the named column, or -1 if the result has no such column
+     */
+    public int indexOfColumn(String name) {
+        Integer index = columnIndex.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the cell formatted for display; nulls are shown as empty text
+     */
+    public String getDisplayValue(int row, int column) {
+        return columns.get(column).getDisplayValue(row);
+    }
+
+    /**
+     * Appends a row of boxed values, one per column in column order
+     * Used by sources that produce rows rather than columns
+     */
+    public void appendRow(Object[] values) {
+        for (int j = 0; j < columns.size(); j++) {
+            columns.get(j).append(j < values.length ? values[j] : null);
+        }
+        rowCount++;
+    }
+
+    /**
+     * Records rows that a writer has filled column by column through the Column append methods
+     * Every column must have received exactly count values
+     */
+    void addFilledRows(int count) {
+        rowCount += count;
+    }
+
+    /**
+     * Appends all rows of another result, matching columns by name
+     * Columns missing on either side are filled with nulls and
+     * columns whose types disagree are widened to a common type
+     */
+    public void appendAll(ColumnarResult other) {
+        // Add columns that only exist in the other result, back-filled with nulls
+        for (Column otherColumn : other.columns) {
+            if (!columnIndex.containsKey(otherColumn.getName())) {
+                Column added = addColumn(otherColumn.getName());
+                added.appendNulls(rowCount);
+            }
+        }
+
+        for (Column column : columns) {
+            Integer otherIndex = other.columnIndex.get(column.getName());
+            if (otherIndex != null) {
+                column.appendAll(other.columns.get(otherIndex));
+            } else {
+                column.appendNulls(other.rowCount);
+            }
+        }
+        rowCount += other.rowCount;
+    }
+
+    /**
+     * Returns a new result with the given rows of this one, in the given order
+     * Values are re-encoded, so string dictionaries only keep the values that are still used
+     */
+    public ColumnarResult selectRows(int[] rows, int count) {
+        ColumnarResult selected = new ColumnarResult(getColumnNames());
+        for (int j = 0; j < columns.size(); j++) {
+            selected.columns.get(j).appendRows(columns.get(j), rows, count);
+        }
+        selected.rowCount = count;
+        return selected;
+    }
+
+    /**
+     * Returns true if some of the values have been moved to memory-mapped spill files
+     */
+    public boolean isSpilled() {
+        return budget.isSpilled();
+    }
+
+    /**
+     * Approximate heap footprint of the stored values in bytes (spilled, off-heap values are not counted)
+     */
+    public long estimatedBytes() {
+        long bytes = 64;
+        for (Column column : columns) {
+            bytes += column.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    private Column addColumn(String name) {
+        Column column = new Column(name, budget);
+        columnIndex.put(name, columns.size());
+        columns.add(column);
+        return column;
+    }
+
+    /**
+     * One typed column of a result
+     * The type starts unknown and is fixed by the first non-null value; later values
+     * that do not fit widen it (LONG to DOUBLE, anything else to STRING)
+     */
+    public static final class Column {
+        private final String name;
+        private final SpillStorage.Budget budget;
+        private ColumnType type;
+        private int size;
+
+        // TIME, LONG and DOUBLE (raw bits) values
+        private LongVector longs;
+        // BOOLEAN values
+        private BitVector booleans;
+        // STRING dictionary codes and the dictionary itself
+        private IntVector codes;
+        private List<String> dictionary;
+        private Map<String, Integer> dictionaryIndex;
+        // Set bit = null cell; allocated on the first null
+        private BitVector nulls;
+
+        Column(String name, SpillStorage.Budget budget) {
+            this.name = name;
+            this.budget = budget;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the column type; a column that has only seen nulls reports STRING
+         */
+        public ColumnType getType() {
+            return type != null ? type : ColumnType.STRING;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isNull(int row) {
+            return type == null || (nulls != null && nulls.get(row));
+        }
+
+        public long getLong(int row) {
+            return longs.get(row);
+        }
+
+        public double getDouble(int row) {
+            return type == ColumnType.DOUBLE ? Double.longBitsToDouble(longs.get(row)) : longs.get(row);
+        }
+
+        public boolean getBoolean(int row) {
+            return booleans.get(row);
+        }
+
+        public int getStringCode(int row) {
+            return codes.get(row);
+        }
+
+        /**
+         * Distinct string values of a STRING column, indexed by dictionary code
+         */
+        public List<String> getDictionary() {
+            return dictionary != null ? Collections.unmodifiableList(dictionary) : Collections.emptyList();
+        }
+
+        public String getDisplayValue(int row) {
+            if (isNull(row)) {
+                return "";
+            }
+            switch (type) {
+                case TIME:
+                    return formatTime(longs.get(row));
+                case LONG:
+                    return Long.toString(longs.get(row));
+                case DOUBLE:
+                    return Double.toString(Double.longBitsToDouble(longs.get(row)));
+                case BOOLEAN:
+                    return Boolean.toString(booleans.get(row));
+                default:
+                    return dictionary.get(codes.get(row));
+            }
+        }
+
+        /**
+         * Appends a boxed value, inferring or widening the column type as needed
+         */
+        void append(Object value) {
+            if (value == null) {
+                appendNulls(1);
+                return;
+            }
+
+            if (value instanceof Boolean) {
+                appendBoolean((Boolean) value);
+                return;
+            } else if (isIntegral(value)) {
+                appendLong(((Number) value).longValue());
+                return;
+            } else if (value instanceof Number) {
+                appendDouble(((Number) value).doubleValue());
+                return;
+            } else if (value instanceof String && TIME_COLUMN.equals(name) && (type == null || type == ColumnType.TIME)) {
+                Long nanos = parseTime((String) value);
+                if (nanos != null) {
+                    ensureType(ColumnType.TIME);
+                    longs.add(nanos);
+                    size++;
+                    return;
+                }
+            }
+
+            appendString(value.toString());
+        }
+
+        /**
+         * Appends an integral value, stored as a double if the column already holds doubles
+         */
+        void appendLong(long value) {
+            if (type == ColumnType.DOUBLE) {
+                longs.add(Double.doubleToRawLongBits(value));
+                size++;
+            } else if (ensureType(ColumnType.LONG)) {
+                longs.add(value);
+                size++;
+            } else {
+                appendString(Long.toString(value));
+            }
+        }
+
+        /**
+         * Appends a floating point value, widening a long column to doubles first
+         */
+        void appendDouble(double value) {
+            if (type == ColumnType.LONG) {
+                promoteToDouble();
+            }
+            if (ensureType(ColumnType.DOUBLE)) {
+                longs.add(Double.doubleToRawLongBits(value));
+                size++;
+            } else {
+                appendString(Double.toString(value));
+            }
+        }
+
+        void appendBoolean(boolean value) {
+            if (ensureType(ColumnType.BOOLEAN)) {
+                booleans.set(size, value);
+                size++;
+            } else {
+                appendString(Boolean.toString(value));
+            }
+        }
+
+        /**
+         * Appends a text value, turning the column into text if it held another type
+         */
+        void appendString(String value) {
+            // Anything that does not fit the current type is stored as text
+            if (type != ColumnType.STRING) {
+                demoteToString();
+            }
+            codes.add(encode(value));
+            size++;
+        }
+
+        /**
+         * Appends a timestamp given as epoch nanoseconds
+         */
+        void appendTimeNanos(long nanos) {
+            if (ensureType(ColumnType.TIME)) {
+                longs.add(nanos);
+            } else {
+                if (type != ColumnType.STRING) {
+                    demoteToString();
+                }
+                codes.add(encode(formatTime(nanos)));
+            }
+            size++;
+        }
+
+        /**
+         * Appends the same text value count times, encoding it only once
+         */
+        void appendRepeated(String value, int count) {
+            if (count <= 0) {
+                return;
+            }
+            if (type != ColumnType.STRING) {
+                demoteToString();
+            }
+            int code = encode(value);
+            for (int i = 0; i < count; i++) {
+                codes.add(code);
+            }
+            size += count;
+        }
+
+        void appendNulls(int count) {
+            if (count <= 0) {
+                return;
+            }
+            if (nulls == null) {
+                nulls = new BitVector();
+            }
+            for (int i = 0; i < count; i++) {
+                nulls.set(size + i, true);
+            }
+            if (type != null) {
+                padStorage(size + count);
+            }
+            size += count;
+        }
+
+        /**
+         * Appends every value of another column, copying storage directly when the types agree
+         */
+        void appendAll(Column other) {
+            if (other.size == 0) {
+                return;
+            }
+            if (other.type == null) {
+                appendNulls(other.size);
+                return;
+            }
+
+            if (type == null || type == other.type) {
+                ensureType(other.type);
+                int base = size;
+                switch (other.type) {
+                    case TIME:
+                    case LONG:
+                    case DOUBLE:
+                        longs.addAll(other.longs, other.size);
+                        break;
+                    case BOOLEAN:
+                        for (int i = 0; i < other.size; i++) {
+                            booleans.set(base + i, other.booleans.get(i));
+                        }
+                        break;
+                    default:
+                        // Re-map dictionary codes into this column's dictionary
+                        int[] remap = new int[other.dictionary.size()];
+                        for (int i = 0; i < remap.length; i++) {
+                            remap[i] = encode(other.dictionary.get(i));
+                        }
+                        for (int i = 0; i < other.size; i++) {
+                            codes.add(remap[other.codes.get(i)]);
+                        }
+                        break;
+                }
+                if (other.nulls != null) {
+                    if (nulls == null) {
+                        nulls = new BitVector();
+                    }
+                    for (int i = 0; i < other.size; i++) {
+                        if (other.nulls.get(i)) {
+                            nulls.set(base + i, true);
+                        }
+                    }
+                }
+                size += other.size;
+                padStorage(size);
+                return;
+            }
+
+            // Types differ - fall back to appending value by value, which widens the type
+            for (int i = 0; i < other.size; i++) {
+                if (other.isNull(i)) {
+                    appendNulls(1);
+                } else if (other.type == ColumnType.TIME) {
+                    appendTimeNanos(other.longs.get(i));
+                } else {
+                    append(other.getBoxedValue(i));
+                }
+            }
+        }
+
+        /**
+         * Appends the given rows of another column, copying storage directly when the types agree
+         */
+        void appendRows(Column other, int[] rows, int count) {
+            if (count <= 0) {
+                return;
+            }
+            if (other.type == null) {
+                appendNulls(count);
+                return;
+            }
+            if (type == null || type == other.type) {
+                ensureType(other.type);
+                int base = size;
+                for (int i = 0; i < count; i++) {
+                    int row = rows[i];
+                    switch (other.type) {
+                        case TIME:
+                        case LONG:
+                        case DOUBLE:
+                            longs.add(other.longs.get(row));
+                            break;
+                        case BOOLEAN:
+                            booleans.set(base + i, other.booleans.get(row));
+                            break;
+                        default:
+                            codes.add(encode(other.dictionary.get(other.codes.get(row))));
+                            break;
+                    }
+                    if (other.nulls != null && other.nulls.get(row)) {
+                        if (nulls == null) {
+                            nulls = new BitVector();
+                        }
+                        nulls.set(base + i, true);
+                    }
+                }
+                size += count;
+                return;
+            }
+
+            // Types differ - fall back to appending value by value, which widens the type
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                if (other.isNull(row)) {
+                    appendNulls(1);
+                } else if (other.type == ColumnType.TIME) {
+                    appendTimeNanos(other.longs.get(row));
+                } else {
+                    append(other.getBoxedValue(row));
+                }
+            }
+        }
+
+        long estimatedBytes() {
+            long bytes = 48;
+            if (longs != null) bytes += longs.capacityBytes();
+            if (codes != null) bytes += codes.capacityBytes();
+            if (booleans != null) bytes += booleans.capacityBytes();
+            if (nulls != null) bytes += nulls.capacityBytes();
+            if (dictionary != null) {
+                for (String value : dictionary) {
+                    // String object, backing array and map entry
+                    bytes += 88 + value.length();
+                }
+            }
+            return bytes;
+        }
+
+        private Object getBoxedValue(int row) {
+            switch (type) {
+                case LONG:
+                    return longs.get(row);
+                case DOUBLE:
+                    return Double.longBitsToDouble(longs.get(row));
+                case BOOLEAN:
+                    return booleans.get(row);
+                case STRING:
+                    return dictionary.get(codes.get(row));
+                default:
+                    return formatTime(longs.get(row));
+            }
+        }
+
+        /**
+         * Fixes the column type if it is still unknown
+         * Returns false if the column already has a different type
+         */
+        private boolean ensureType(ColumnType newType) {
+            if (type == newType) {
+                return true;
+            }
+            if (type != null) {
+                return false;
+            }
+
+            type = newType;
+            switch (newType) {
+                case BOOLEAN:
+                    booleans = new BitVector();
+                    break;
+                case STRING:
+                    codes = new IntVector(budget);
+                    dictionary = new ArrayList<>();
+                    dictionaryIndex = new HashMap<>();
+                    break;
+                default:
+                    longs = new LongVector(budget);
+                    break;
+            }
+            // Rows appended before the type was known are all nulls
+            padStorage(size);
+            return true;
+        }
+
+        private void padStorage(int targetSize) {
+            if (longs != null) {
+                while (longs.size() < targetSize) longs.add(0L);
+            }
+            if (codes != null) {
+                while (codes.size() < targetSize) codes.add(0);
+            }
+            // Boolean bits default to false, nothing to pad
+        }
+
+        private void promoteToDouble() {
+            for (int i = 0; i < size; i++) {
+                longs.set(i, Double.doubleToRawLongBits((double) longs.get(i)));
+            }
+            type = ColumnType.DOUBLE;
+        }
+
+        private void demoteToString() {
+            if (type == null) {
+                ensureType(ColumnType.STRING);
+                return;
+            }
+
+            IntVector newCodes = new IntVector(budget);
+            dictionary = new ArrayList<>();
+            dictionaryIndex = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                boolean isNullCell = nulls != null && nulls.get(i);
+                newCodes.add(isNullCell ? 0 : encode(getDisplayValue(i)));
+            }
+            if (dictionary.isEmpty()) {
+                // Code 0 must be valid even if every existing cell is null
+                encode("");
+            }
+
+            type = ColumnType.STRING;
+            codes = newCodes;
+            if (longs != null) {
+                // The numeric values are gone; give their heap back to the result's budget
+                budget.release(longs.reservedBytes());
+            }
+            longs = null;
+            booleans = null;
+        }
+
+        private int encode(String value) {
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryIndex.put(value, code);
+            }
+            return code;
+        }
+
+        private static boolean isIntegral(Object value) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                return true;
+            }
+            return value instanceof BigInteger && ((BigInteger) value).bitLength() < 64;
+        }
+    }
+
+    /**
+     * Parses an RFC3339 timestamp into epoch nanoseconds, or returns null if it is not one
+     */
+    static Long parseTime(String text) {
+        try {
+            Instant instant = Instant.parse(text);
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats epoch nanoseconds as RFC3339, matching the InfluxDB JSON output
+     */
+    static String formatTime(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L)).toString();
+    }
+
+    /**
+     * Growable primitive long array
+     * Lives on the heap until the result's budget is exhausted, then moves to mapped segments
+     */
+    static final class LongVector {
+        // 8M longs per 64 MB segment
+        private static final int SEGMENT_SHIFT = 23;
+        private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+        private final SpillStorage.Budget budget;
+        // Heap storage, null once spilled
+        private long[] data = new long[16];
+        // Off-heap storage after spilling
+        private LongBuffer[] segments;
+        private int size;
+
+        LongVector(SpillStorage.Budget budget) {
+            this.budget = budget;
+        }
+
+        void add(long value) {
+            if (data != null) {
+                if (size == data.length) {
+                    grow(data.length * 2);
+                }
+                if (data != null) {
+                    data[size++] = value;
+                    return;
+                }
+            }
+            int segment = size >>> SEGMENT_SHIFT;
+            if (segment == segments.length) {
+                segments = Arrays.copyOf(segments, segment + 1);
+                segments[segment] = SpillStorage.allocateSegment().asLongBuffer();
+            }
+            segments[segment].put(size & SEGMENT_MASK, value);
+            size++;
+        }
+
+        void addAll(LongVector other, int count) {
+            if (data != null && other.data != null) {
+                if (size + count > data.length) {
+                    grow(Math.max(data.length * 2, size + count));
+                }
+                if (data != null) {
+                    System.arraycopy(other.data, 0, data, size, count);
+                    size += count;
+                    return;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                add(other.get(i));
+            }
+        }
+
+        long get(int index) {
+            return data != null ? data[index] : segments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK);
+        }
+
+        void set(int index, long value) {
+            if (data != null) {
+                data[index] = value;
+            } else {
+                segments[index >>> SEGMENT_SHIFT].put(index & SEGMENT_MASK, value);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Heap bytes held by this vector; mapped segments are off-heap and not counted
+         */
+        long capacityBytes() {
+            return data != null ? 16 + 8L * data.length : 16 + 8L * segments.length;
+        }
+
+        /**
+         * Heap bytes reserved from the budget (the initial array is not counted)
+         */
+        long reservedBytes() {
+            return data != null ? 8L * (data.length - 16) : 0;
+        }
+
+        /**
+         * Grows the heap array, or moves everything to mapped segments if the budget is used up
+         */
+        private void grow(int newCapacity) {
+            if (budget.tryReserve(8L * (newCapacity - data.length))) {
+                data = Arrays.copyOf(data, newCapacity);
+                return;
+            }
+
+            int segmentCount = Math.max(1, (size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new LongBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                segments[s] = SpillStorage.allocateSegment().asLongBuffer();
+            }
+            for (int i = 0; i < size; i++) {
+                segments[i >>> SEGMENT_SHIFT].put(i & SEGMENT_MASK, data[i]);
+            }
+            budget.release(reservedBytes());
+            budget.markSpilled();
+            data = null;
+        }
+    }
+
+    /**
+     * Growable primitive int array
+     * Lives on the heap until the result's budget is exhausted, then moves to mapped segments
+     */
+    static final class IntVector {
+        // 16M ints per 64 MB segment
+        private static final int SEGMENT_SHIFT = 24;
+        private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+        private final SpillStorage.Budget budget;
+        // Heap storage, null once spilled
+        private int[] data = new int[16];
+        // Off-heap storage after spilling
+        private IntBuffer[] segments;
+        private int size;
+
+        IntVector(SpillStorage.Budget budget) {
+            this.budget = budget;
+        }
+
+        void add(int value) {
+            if (data != null) {
+                if (size == data.length) {
+                    grow(data.length * 2);
+                }
+                if (data != null) {
+                    data[size++] = value;
+                    return;
+                }
+            }
+            int segment = size >>> SEGMENT_SHIFT;
+            if (segment == segments.length) {
+                segments = Arrays.copyOf(segments, segment + 1);
+                segments[segment] = SpillStorage.allocateSegment().asIntBuffer();
+            }
+            segments[segment].put(size & SEGMENT_MASK, value);
+            size++;
+        }
+
+        int get(int index) {
+            return data != null ? data[index] : segments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Heap bytes held by this vector; mapped segments are off-heap and not counted
+         */
+        long capacityBytes() {
+            return data != null ? 16 + 4L * data.length : 16 + 8L * segments.length;
+        }
+
+        /**
+         * Grows the heap array, or moves everything to mapped segments if the budget is used up
+         */
+        private void grow(int newCapacity) {
+            if (budget.tryReserve(4L * (newCapacity - data.length))) {
+                data = Arrays.copyOf(data, newCapacity);
+                return;
+            }
+
+            int segmentCount = Math.max(1, (size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new IntBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                segments[s] = SpillStorage.allocateSegment().asIntBuffer();
+            }
+            for (int i = 0; i < size; i++) {
+                segments[i >>> SEGMENT_SHIFT].put(i & SEGMENT_MASK, data[i]);
+            }
+            budget.release(4L * (data.length - 16));
+            budget.markSpilled();
+            data = null;
+        }
+    }
+
+    /**
+     * Growable bitmap, one bit per row
+     */
+    static final class BitVector {
+        private long[] words = new long[4];
+
+        void set(int index, boolean value) {
+            int word = index >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(words.length * 2, word + 1));
+            }
+            if (value) {
+                words[word] |= 1L << index;
+            } else {
+                words[word] &= ~(1L << index);
+            }
+        }
+
+        boolean get(int index) {
+            int word = index >>> 6;
+            return word < words.length && (words[word] & (1L << index)) != 0;
+        }
+
+        long capacityBytes() {
+            return 16 + 8L * words.length;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.influxdata.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a snapshot of result rows as CSV, meant to run off the JavaFX thread
+ * Rows are formatted by a ChunkPipeline in parallel chunks straight into reused byte buffers (string
+ * dictionaries are escaped and encoded once, numbers are written without intermediate strings) and
+ * written in order to a FileChannel, optionally gzip-compressed
+ */
+public class CsvExporter implements ResultExporter {
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE_BYTES = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_BYTES = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private final ColumnarResult result;
+    private final int[] rows;
+    private final boolean gzip;
+
+    /**
+     * Creates an exporter for the given rows of a result, in the given order
+     * The rows must already exist in the result; rows streamed in later are not exported
+     */
+    public CsvExporter(ColumnarResult result, int[] rows, boolean gzip) {
+        this.result = result;
+        this.rows = rows;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public String getFormatName() {
+        return gzip ? "gzipped CSV" : "CSV";
+    }
+
+    /**
+     * Writes the header and all rows to the file, replacing it
+     * Returns the number of bytes written to the file (compressed size when gzip is set)
+     */
+    @Override
+    public long export(File file, ProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return writeTo(channel, true, listener);
+        }
+    }
+
+    /**
+     * Writes the rows, preceded by the header if asked for, to an open channel such as stdout
+     * Gzip output is a complete gzip member per call, so consecutive calls on one channel still gunzip as one stream
+     */
+    public long writeTo(WritableByteChannel channel, boolean withHeader, ProgressListener listener) throws IOException {
+        int columnCount = result.getColumnCount();
+        byte[][][] dictionaries = encodeDictionaries(columnCount);
+
+        ChunkPipeline pipeline = new ChunkPipeline(gzip);
+        long headerBytes = 0;
+        if (withHeader) {
+            ByteChunk header = new ByteChunk(4096);
+            writeHeader(header);
+            headerBytes = pipeline.writeText(channel, header);
+        }
+        long headerTotal = headerBytes;
+        long rowBytes = pipeline.writeRows(channel, 0, rows.length,
+            (from, to, out) -> formatRows(from, to, columnCount, dictionaries, out),
+            listener == null ? null : (rowsWritten, bytes) -> listener.onProgress(rowsWritten, headerTotal + bytes));
+        return headerBytes + rowBytes;
+    }
+
+    /**
+     * Escapes and encodes the dictionary of every STRING column once; other columns get null
+     */
+    private byte[][][] encodeDictionaries(int columnCount) {
+        byte[][][] dictionaries = new byte[columnCount][][];
+        for (int c = 0; c < columnCount; c++) {
+            ColumnarResult.Column column = result.getColumn(c);
+            if (column.getType() == ColumnarResult.ColumnType.STRING) {
+                List<String> dictionary = column.getDictionary();
+                byte[][] encoded = new byte[dictionary.size()][];
+                for (int code = 0; code < encoded.length; code++) {
+                    encoded[code] = escape(dictionary.get(code)).getBytes(StandardCharsets.UTF_8);
+                }
+                dictionaries[c] = encoded;
+            }
+        }
+        return dictionaries;
+    }
+
+    /**
+     * Quotes a value if it contains a comma, quote or line break, doubling embedded quotes
+     */
+    static String escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r') {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return value;
+    }
+
+    private void writeHeader(ByteChunk out) {
+        List<String> names = result.getColumnNames();
+        for (int c = 0; c < names.size(); c++) {
+            if (c > 0) {
+                out.write(',');
+            }
+            out.write(("\"" + names.get(c).replace("\"", "\"\"") + "\"").getBytes(StandardCharsets.UTF_8));
+        }
+        out.write(LINE_SEPARATOR);
+    }
+
+    private void formatRows(int from, int to, int columnCount, byte[][][] dictionaries, ByteChunk out) {
+        // Formatted whole second per TIME column; neighbouring rows usually share it
+        long[] cachedSeconds = new long[columnCount];
+        byte[][] cachedPrefixes = new byte[columnCount][];
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            for (int c = 0; c < columnCount; c++) {
+                if (c > 0) {
+                    out.write(',');
+                }
+                ColumnarResult.Column column = result.getColumn(c);
+                if (column.isNull(row)) {
+                    continue;
+                }
+                switch (column.getType()) {
+                    case STRING:
+                        out.write(dictionaries[c][column.getStringCode(row)]);
+                        break;
+                    case LONG:
+                        out.writeLong(column.getLong(row));
+                        break;
+                    case BOOLEAN:
+                        out.write(column.getBoolean(row) ? TRUE_BYTES : FALSE_BYTES);
+                        break;
+                    case TIME: {
+                        long nanos = column.getLong(row);
+                        long second = Math.floorDiv(nanos, 1_000_000_000L);
+                        if (cachedPrefixes[c] == null || cachedSeconds[c] != second) {
+                            // RFC3339 of the whole second without its trailing 'Z'
+                            String formatted = ColumnarResult.formatTime(second * 1_000_000_000L);
+                            cachedPrefixes[c] = formatted.substring(0, formatted.length() - 1).getBytes(StandardCharsets.US_ASCII);
+                            cachedSeconds[c] = second;
+                        }
+                        out.write(cachedPrefixes[c]);
+                        out.writeFraction((int) Math.floorMod(nanos, 1_000_000_000L));
+                        out.write('Z');
+                        break;
+                    }
+                    default:
+                        // DOUBLE: the display form is plain ASCII and never needs quoting
+                        out.writeAscii(column.getDisplayValue(row));
+                        break;
+                }
+            }
+            out.write(LINE_SEPARATOR);
+        }
+    }
+}
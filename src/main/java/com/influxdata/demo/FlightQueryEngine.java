@@ -0,0 +1,230 @@
+package com.influxdata.demo;
+
+import com.influxdb.v3.client.InfluxDBClient;
+import com.influxdb.v3.client.config.ClientConfig;
+import com.influxdb.v3.client.query.QueryOptions;
+import com.influxdb.v3.client.query.QueryType;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Query backend that runs SQL or InfluxQL over Arrow Flight using the influxdb3-java client
+ * Record batches are copied straight from the Arrow vectors into typed columns with the vectors'
+ * typed accessors, so results never pass through an intermediate JSON document or boxed cells
+ */
+public class FlightQueryEngine implements AutoCloseable {
+
+    /**
+     * Query languages supported by the Flight endpoint
+     */
+    public enum Language {
+        SQL,
+        INFLUXQL
+    }
+
+    /**
+     * Receives each record batch as a columnar result as soon as it has been read
+     * Called on the query thread, once per batch
+     */
+    public interface BatchListener {
+        void onBatch(ColumnarResult batch);
+    }
+
+    private final String database;
+    private final InfluxDBClient client;
+
+    /**
+     * Creates the Flight client for one connection profile
+     * The client keeps its gRPC channel open until close() is called
+     */
+    public FlightQueryEngine(String protocol, String host, String token, String database, boolean skipSSLValidation) {
+        this.database = database;
+
+        ClientConfig config = new ClientConfig.Builder()
+            .host(protocol + "://" + host)
+            .token(token.toCharArray())
+            .database(database)
+            .disableServerCertificateValidation(skipSSLValidation)
+            .build();
+
+        this.client = InfluxDBClient.getInstance(config);
+    }
+
+    /**
+     * Executes the query and hands every record batch to the listener
+     * Returns the total number of rows received
+     */
+    public long execute(String query, Language language, BatchListener listener) {
+        return execute(query, language, new QueryCancellation(), listener);
+    }
+
+    /**
+     * Executes the query until it completes or is cancelled
+     * Cancellation is checked before every record batch; leaving the stream early closes it,
+     * which cancels the Flight call on the server. Throws CancellationException if cancelled
+     */
+    public long execute(String query, Language language, QueryCancellation cancellation, BatchListener listener) {
+        QueryType queryType = language == Language.INFLUXQL ? QueryType.InfluxQL : QueryType.SQL;
+        QueryOptions options = new QueryOptions(database, queryType);
+
+        System.out.println("Flight Request: " + language + " q=" + query);
+        AtomicLong rowCount = new AtomicLong();
+
+        // The client reuses the VectorSchemaRoot between batches, so each one is consumed inside forEach
+        try (Stream<VectorSchemaRoot> batches = client.queryBatches(query, options)) {
+            batches.forEach(batch -> {
+                cancellation.throwIfCancelled();
+                ColumnarResult result = readBatch(batch);
+                rowCount.addAndGet(result.getRowCount());
+                listener.onBatch(result);
+            });
+        }
+
+        System.out.println("Flight response complete: " + rowCount.get() + " rows");
+        return rowCount.get();
+    }
+
+    /**
+     * Returns the column names of a record batch in schema order
+     */
+    private static List<String> columnNames(VectorSchemaRoot batch) {
+        List<String> names = new ArrayList<>();
+        for (FieldVector vector : batch.getFieldVectors()) {
+            names.add(vector.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Copies a record batch column by column from the Arrow vectors
+     * Timestamp vectors are stored as epoch nanoseconds; integer, float, boolean and text vectors
+     * are read with their typed accessors, anything else falls back to the boxed Arrow value
+     */
+    private static ColumnarResult readBatch(VectorSchemaRoot batch) {
+        int rowCount = batch.getRowCount();
+        List<FieldVector> vectors = batch.getFieldVectors();
+        ColumnarResult result = new ColumnarResult(columnNames(batch));
+
+        for (int c = 0; c < vectors.size(); c++) {
+            FieldVector vector = vectors.get(c);
+            ColumnarResult.Column column = result.getColumn(c);
+
+            if (vector instanceof TimeStampVector) {
+                TimeStampVector timeVector = (TimeStampVector) vector;
+                TimeUnit unit = ((ArrowType.Timestamp) vector.getField().getType()).getUnit();
+                for (int i = 0; i < rowCount; i++) {
+                    if (timeVector.isNull(i)) {
+                        column.appendNulls(1);
+                    } else {
+                        column.appendTimeNanos(toNanos(timeVector.get(i), unit));
+                    }
+                }
+            } else if (vector instanceof BigIntVector) {
+                BigIntVector longVector = (BigIntVector) vector;
+                for (int i = 0; i < rowCount; i++) {
+                    if (longVector.isNull(i)) {
+                        column.appendNulls(1);
+                    } else {
+                        column.appendLong(longVector.get(i));
+                    }
+                }
+            } else if (vector instanceof IntVector) {
+                IntVector intVector = (IntVector) vector;
+                for (int i = 0; i < rowCount; i++) {
+                    if (intVector.isNull(i)) {
+                        column.appendNulls(1);
+                    } else {
+                        column.appendLong(intVector.get(i));
+                    }
+                }
+            } else if (vector instanceof Float8Vector) {
+                Float8Vector doubleVector = (Float8Vector) vector;
+                for (int i = 0; i < rowCount; i++) {
+                    if (doubleVector.isNull(i)) {
+                        column.appendNulls(1);
+                    } else {
+                        column.appendDouble(doubleVector.get(i));
+                    }
+                }
+            } else if (vector instanceof BitVector) {
+                BitVector bitVector = (BitVector) vector;
+                for (int i = 0; i < rowCount; i++) {
+                    if (bitVector.isNull(i)) {
+                        column.appendNulls(1);
+                    } else {
+                        column.appendBoolean(bitVector.get(i) != 0);
+                    }
+                }
+            } else if (vector instanceof VarCharVector) {
+                readText((VarCharVector) vector, rowCount, column);
+            } else {
+                for (int i = 0; i < rowCount; i++) {
+                    column.append(vector.isNull(i) ? null : vector.getObject(i));
+                }
+            }
+        }
+
+        result.addFilledRows(rowCount);
+        return result;
+    }
+
+    /**
+     * Copies a UTF-8 text vector, decoding each distinct value only once per batch
+     * Tag and field strings repeat heavily, so most cells are a byte lookup rather than a new String
+     */
+    private static void readText(VarCharVector vector, int rowCount, ColumnarResult.Column column) {
+        Map<ByteBuffer, String> decoded = new HashMap<>();
+        for (int i = 0; i < rowCount; i++) {
+            if (vector.isNull(i)) {
+                column.appendNulls(1);
+                continue;
+            }
+            byte[] bytes = vector.get(i);
+            ByteBuffer key = ByteBuffer.wrap(bytes);
+            String value = decoded.get(key);
+            if (value == null) {
+                value = new String(bytes, StandardCharsets.UTF_8);
+                decoded.put(key, value);
+            }
+            column.appendString(value);
+        }
+    }
+
+    /**
+     * Converts a raw Arrow timestamp value in the given unit to epoch nanoseconds
+     */
+    private static long toNanos(long value, TimeUnit unit) {
+        switch (unit) {
+            case SECOND:
+                return value * 1_000_000_000L;
+            case MILLISECOND:
+                return value * 1_000_000L;
+            case MICROSECOND:
+                return value * 1_000L;
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        client.close();
+    }
+}
@@ -0,0 +1,189 @@
+package com.influxdata.demo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Case-insensitive "contains" filter across all columns of one result, meant to run off the JavaFX thread
+ * String columns are matched through a lowercase copy of their dictionary, so each distinct value is
+ * checked once instead of once per row. Numeric, time and boolean columns are only formatted when the
+ * filter text could appear in their display form at all. When the new text contains the previous one,
+ * only the previous matches (plus rows appended since) are checked again
+ * The result must not be appended to while a filter runs
+ */
+public class GlobalFilter {
+
+    // Characters that can appear in the display form of each column type (lowercase)
+    private static final String LONG_CHARS = "-0123456789";
+    private static final String DOUBLE_CHARS = "-0123456789.einfaty";
+    private static final String TIME_CHARS = "-0123456789:.tz";
+
+    // How often (in rows) a running filter checks whether it has been superseded
+    private static final int CANCEL_CHECK_INTERVAL = 16384;
+
+    private final ColumnarResult result;
+
+    // Lowercase dictionary per STRING column, extended as streamed rows add values and columns
+    private String[][] lowerDictionaries;
+
+    // Previous run, reused when the next filter text refines it
+    private String lastText;
+    private int[] lastMatches;
+    private int lastRowCount;
+
+    public GlobalFilter(ColumnarResult result) {
+        this.result = result;
+        this.lowerDictionaries = new String[result.getColumnCount()][];
+    }
+
+    public ColumnarResult getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the rows containing the text in any column, in row order
+     * Returns null if cancelled reports true before the scan has finished
+     */
+    public synchronized int[] filter(String text, BooleanSupplier cancelled) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        int rowCount = result.getRowCount();
+        int columnCount = result.getColumnCount();
+        if (lowerDictionaries.length < columnCount) {
+            lowerDictionaries = Arrays.copyOf(lowerDictionaries, columnCount);
+        }
+
+        // Work out per column how it can match; columns that can never contain the text are skipped
+        ColumnMatcher[] matchers = new ColumnMatcher[columnCount];
+        int active = 0;
+        for (int c = 0; c < columnCount; c++) {
+            ColumnMatcher matcher = createMatcher(c, needle);
+            if (matcher != null) {
+                matchers[active++] = matcher;
+            }
+        }
+
+        // Refine the previous matches if the new text can only narrow them down
+        boolean refine = lastText != null && needle.contains(lastText) && rowCount >= lastRowCount;
+        int[] candidates = refine ? lastMatches : null;
+        int candidateCount = refine ? lastMatches.length + (rowCount - lastRowCount) : rowCount;
+
+        int[] matches = new int[Math.min(candidateCount, 1024)];
+        int matchCount = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+
+            // Candidates are the previous matches followed by rows appended since
+            int row;
+            if (candidates == null) {
+                row = i;
+            } else if (i < candidates.length) {
+                row = candidates[i];
+            } else {
+                row = lastRowCount + (i - candidates.length);
+            }
+
+            for (int m = 0; m < active; m++) {
+                if (matchers[m].matches(row)) {
+                    if (matchCount == matches.length) {
+                        matches = Arrays.copyOf(matches, Math.min(candidateCount, matches.length * 2));
+                    }
+                    matches[matchCount++] = row;
+                    break;
+                }
+            }
+        }
+
+        int[] finalMatches = Arrays.copyOf(matches, matchCount);
+        lastText = needle;
+        lastMatches = finalMatches;
+        lastRowCount = rowCount;
+        return finalMatches;
+    }
+
+    /**
+     * Checks whether one cell of a column contains the filter text
+     */
+    private interface ColumnMatcher {
+        boolean matches(int row);
+    }
+
+    /**
+     * Builds the matcher for one column, or null if no cell of the column can contain the text
+     */
+    private ColumnMatcher createMatcher(int columnIndex, String needle) {
+        ColumnarResult.Column column = result.getColumn(columnIndex);
+        switch (column.getType()) {
+            case STRING: {
+                // Evaluate every distinct value once, then match rows by dictionary code
+                String[] lower = lowerDictionary(columnIndex, column);
+                boolean[] codeMatches = new boolean[lower.length];
+                boolean any = false;
+                for (int code = 0; code < lower.length; code++) {
+                    codeMatches[code] = lower[code].contains(needle);
+                    any |= codeMatches[code];
+                }
+                if (!any) {
+                    return null;
+                }
+                return row -> !column.isNull(row) && codeMatches[column.getStringCode(row)];
+            }
+            case BOOLEAN: {
+                boolean matchTrue = "true".contains(needle);
+                boolean matchFalse = "false".contains(needle);
+                if (!matchTrue && !matchFalse) {
+                    return null;
+                }
+                return row -> !column.isNull(row) && (column.getBoolean(row) ? matchTrue : matchFalse);
+            }
+            case LONG:
+                return onlyChars(needle, LONG_CHARS) ? row -> containsIgnoreCase(column.getDisplayValue(row), needle) : null;
+            case DOUBLE:
+                return onlyChars(needle, DOUBLE_CHARS) ? row -> containsIgnoreCase(column.getDisplayValue(row), needle) : null;
+            default:
+                return onlyChars(needle, TIME_CHARS) ? row -> containsIgnoreCase(column.getDisplayValue(row), needle) : null;
+        }
+    }
+
+    /**
+     * Returns the lowercase dictionary of a STRING column, extending the cached copy if values were added
+     */
+    private String[] lowerDictionary(int columnIndex, ColumnarResult.Column column) {
+        List<String> dictionary = column.getDictionary();
+        String[] lower = lowerDictionaries[columnIndex];
+        if (lower == null || lower.length != dictionary.size()) {
+            int known = lower != null ? lower.length : 0;
+            lower = lower != null ? Arrays.copyOf(lower, dictionary.size()) : new String[dictionary.size()];
+            for (int i = known; i < lower.length; i++) {
+                lower[i] = dictionary.get(i).toLowerCase(Locale.ROOT);
+            }
+            lowerDictionaries[columnIndex] = lower;
+        }
+        return lower;
+    }
+
+    private static boolean onlyChars(String text, String allowed) {
+        for (int i = 0; i < text.length(); i++) {
+            if (allowed.indexOf(text.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Case-insensitive contains without allocating a lowercase copy of the value
+     */
+    private static boolean containsIgnoreCase(String value, String lowerNeedle) {
+        int last = value.length() - lowerNeedle.length();
+        for (int i = 0; i <= last; i++) {
+            if (value.regionMatches(true, i, lowerNeedle, 0, lowerNeedle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
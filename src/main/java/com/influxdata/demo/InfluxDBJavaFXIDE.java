@@ -1,5 +1,6 @@
 package com.influxdata.demo;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -16,6 +17,7 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.Tab;
@@ -23,17 +25,25 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.Dragboard;
 import javafx.scene.input.TransferMode;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.geometry.Point2D;
+import javafx.geometry.Side;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONException;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -54,21 +64,144 @@ public class InfluxDBJavaFXIDE extends Application {
     
     private TextArea queryArea;
     private TabPane resultsTabPane;
-    private TableView<ObservableList<String>> resultsTable;
-    private TextArea rawResultArea;
+    private TableView<Integer> resultsTable;
+    private RawResponseViewer rawResultViewer;
+    private QueryProfilerPanel profilerPanel;
+    
+    // Raw JSON and Profiler contents are built when their tab is first selected; until then updates wait here
+    private String pendingRawResponse = "";
+    private final List<QueryProfile> pendingProfiles = new ArrayList<>();
     private Label recordCountLabel;
     private TextField filterField;
 
-    private ObservableList<ObservableList<String>> allResultsData;
+    // Typed result storage; the table shows row indices into it
+    private ColumnarResult currentResult;
+    private RowIndexList allRowIndices;
+    
+    // Background sorts, filters and exports read the result without locks, and appending can replace a column's
+    // storage or type, so rows that arrive while any of them runs are held back until the last one has finished
+    private int backgroundReaders;
+    private final List<ColumnarResult> heldBatches = new ArrayList<>();
+    // Cache entry of a finished query whose result still has rows held back; stored once they are all in
+    private QueryResultCache.Key pendingCacheKey;
+    private String pendingCacheResponse;
+    
+    // Background global filter: per-result index, debounce timer and generation of the newest run
+    private GlobalFilter globalFilter;
+    // Row bitmaps of the active column filters and global filter, AND-ed into the visible rows
+    private ResultFilters resultFilters;
+    // Cached sort permutations of the current result and the active sort (column -1 = row order)
+    private ColumnSorter columnSorter;
+    private int sortColumnIndex = -1;
+    private boolean sortAscending = true;
+    private int[] sortPermutation;
+    private PauseTransition filterDebounce;
+    private final AtomicInteger filterGeneration = new AtomicInteger();
     private Button executeButton;
     private Button clearButton;
+    private CheckBox streamResultsCheckBox;
+    private Spinner<Integer> chunkSizeSpinner;
+    private ComboBox<String> queryBackendCombo;
+    private FlightQueryEngine flightEngine;
+    private CheckBox useCacheCheckBox;
+    private QueryResultCache queryCache;
+    private Button cancelButton;
+    private Spinner<Integer> connectTimeoutSpinner;
+    private Spinner<Integer> readTimeoutSpinner;
+    private CheckBox paginateCheckBox;
+    private Spinner<Integer> pageSizeSpinner;
+    private CheckBox timeWindowsCheckBox;
+    private Spinner<Integer> windowCountSpinner;
+    private Spinner<Integer> windowParallelismSpinner;
+    private CheckBox liveTailCheckBox;
+    private Spinner<Integer> liveIntervalSpinner;
+    private Spinner<Integer> liveRetentionSpinner;
+    
+    // Paged query whose further pages load while scrolling, the cancellation handle of the page in flight (null when none)
+    // and whether a page request is in flight
+    private QueryPaginator activePaginator;
+    private QueryCancellation paginationCancellation;
+    private boolean pageLoading;
+    
+    // Live tail that refreshes the table on an interval, null when none is running
+    private volatile LiveTail activeLiveTail;
+    
+    // Cancellation handle and text of the running query, null when idle
+    private volatile QueryCancellation activeQuery;
+    private volatile String activeQueryText;
+    // Window queries of a time-window fan-out currently running on the server, for KILL QUERY on Cancel
+    private final java.util.Set<String> windowQueriesInFlight = java.util.concurrent.ConcurrentHashMap.newKeySet();
     private Label statusLabel;
     private ProgressIndicator progressIndicator;
     private Stage mainStage;
+    // Parts of the main window that show the connection, updated when Connect is retried with other settings
+    private Label connectionInfoLabel;
+    private HBox headerSslWarningBox;
+    private HBox statusSslWarningBox;
+    
+    // Startup phase durations, printed and appended to STARTUP_LOG once the main window has drawn its first frame
+    private static final StartupTimings startupTimings = new StartupTimings();
+    
+    // Schema of the connected database for autocomplete, and the SHOW MEASUREMENTS answer that validated the connection
+    private SchemaCache schemaCache;
+    private long schemaMaxAgeMillis;
+    private String connectMeasurementsResponse;
+    private final ContextMenu completionMenu = new ContextMenu();
     
     // Settings file constants
     private static final String SETTINGS_DIR = System.getProperty("user.home") + File.separator + ".influxdb-ide";
     private static final String SETTINGS_FILE = SETTINGS_DIR + File.separator + "settings.properties";
+    private static final String STARTUP_LOG = SETTINGS_DIR + File.separator + "startup.log";
+    
+    // Launch argument of the class-data-sharing training run: build and show the main window once, then exit
+    private static final String CDS_TRAINING_ARGUMENT = "--cds-training";
+    private static final String TRAINING_RESPONSE = "{\"results\":[{\"statement_id\":0,\"series\":[{\"name\":\"cpu\","
+        + "\"columns\":[\"time\",\"host\",\"usage\"],\"values\":[[\"2024-01-01T00:00:00Z\",\"a\",1.5],[\"2024-01-01T00:00:01Z\",\"b\",2]]}]}]}";
+    
+    // Streaming (chunked) query defaults
+    private static final int DEFAULT_CHUNK_SIZE = 10000;
+    
+    // Rows per page in paginated mode
+    private static final int DEFAULT_PAGE_SIZE = 10000;
+    
+    // Time-window fan-out: sub-windows per query and how many run at once
+    private static final int DEFAULT_TIME_WINDOWS = 8;
+    private static final int DEFAULT_WINDOW_PARALLELISM = 4;
+    
+    // Live tail: seconds between refreshes and minutes of rows kept
+    private static final int DEFAULT_LIVE_INTERVAL_SECONDS = 5;
+    private static final int DEFAULT_LIVE_RETENTION_MINUTES = 15;
+    
+    // Quiet period after the last keystroke before the global filter runs
+    private static final int FILTER_DEBOUNCE_MILLIS = 250;
+    
+    // Query backends selectable in the query section
+    private static final String BACKEND_HTTP = "HTTP (InfluxQL, JSON)";
+    private static final String BACKEND_FLIGHT_SQL = "Arrow Flight (SQL)";
+    private static final String BACKEND_FLIGHT_INFLUXQL = "Arrow Flight (InfluxQL)";
+    
+    // Query result cache defaults (overridable in settings.properties)
+    private static final String DEFAULT_CACHE_MAX_MB = "256";
+    private static final String DEFAULT_CACHE_TTL_SECONDS = "300";
+    
+    // Results whose vectors pass this many MB of heap move to memory-mapped files under SETTINGS_DIR
+    private static final String DEFAULT_SPILL_THRESHOLD_MB = "256";
+    
+    // Field and tag keys cached under SETTINGS_DIR/schema are read again once they are this old
+    private static final String DEFAULT_SCHEMA_MAX_AGE_MINUTES = "10";
+    
+    // Most entries shown in the autocomplete popup
+    private static final int MAX_COMPLETIONS = 40;
+    
+    // Per-query timeout defaults in seconds (a read timeout of 0 means no limit)
+    private static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+    private static final int DEFAULT_READ_TIMEOUT_SECONDS = 60;
+    
+    // Column roles and the fixed-measurement choice of the line protocol export dialog
+    private static final String LINE_PROTOCOL_TAG = "Tag";
+    private static final String LINE_PROTOCOL_FIELD = "Field";
+    private static final String LINE_PROTOCOL_SKIP = "Skip";
+    private static final String LINE_PROTOCOL_FIXED_MEASUREMENT = "(none)";
 
     /**
      * Main entry point for the JavaFX application
@@ -76,18 +209,67 @@ public class InfluxDBJavaFXIDE extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
+        startupTimings.mark("JavaFX toolkit");
         this.mainStage = primaryStage;
         
         // Set application icon for better visual identity
         setApplicationIcon(primaryStage);
         
+        if (getParameters().getRaw().contains(CDS_TRAINING_ARGUMENT)) {
+            runCdsTraining();
+            return;
+        }
+        
         // Show connection dialog first - exit if user cancels
+        // The main window is built while Connect validates the connection
         if (!showConnectionDialog()) {
             System.exit(0);
         }
+        startupTimings.mark("waiting for validation");
         
-        // Create and display the main application window
+        // Client-side result cache and off-heap spill threshold from the saved settings
+        Properties settings = loadSettings();
+        queryCache = createQueryCache(settings);
+        configureSpillStorage(settings);
+        
+        // Schema from the last session drives autocomplete right away and is brought up to date in the background
+        schemaCache = SchemaCache.load(new File(SETTINGS_DIR, "schema"), host, database);
+        schemaMaxAgeMillis = readSchemaMaxAge(settings);
+        startupTimings.mark("settings and caches");
+        
+        // Display the main application window (built here if the dialog was closed without a Connect attempt)
+        if (mainStage.getScene() == null) {
+            createMainWindow();
+        }
+        showMainWindow();
+        refreshSchema(connectMeasurementsResponse, schemaMaxAgeMillis, false);
+    }
+    
+    /**
+     * Training run for the class-data-sharing archive: builds and shows the main window against no server,
+     * renders a canned result and opens every tab so their classes load, then exits so the JVM can dump the archive
+     */
+    private void runCdsTraining() {
+        protocol = "http";
+        host = "localhost:8086";
+        database = "training";
+        token = "";
+        queryCache = createQueryCache(new Properties());
+        schemaCache = SchemaCache.load(new File(SETTINGS_DIR, "schema"), host, database);
         createMainWindow();
+        showMainWindow();
+        
+        InfluxResponseParser.ParsedResponse parsed = InfluxResponseParser.parse(new JSONObject(TRAINING_RESPONSE));
+        displayResultsInTable(TRAINING_RESPONSE, parsed, null);
+        resultsTabPane.getTabs().forEach(tab -> resultsTabPane.getSelectionModel().select(tab));
+        resultsTabPane.getSelectionModel().select(0);
+        
+        PauseTransition settle = new PauseTransition(javafx.util.Duration.seconds(2));
+        settle.setOnFinished(e -> {
+            System.out.println("CDS training run finished");
+            System.exit(0);
+        });
+        settle.play();
     }
     
     /**
@@ -260,6 +442,9 @@ public class InfluxDBJavaFXIDE extends Application {
 
         connectionLayout.getChildren().addAll(titleLabel, formBox, statusLabel, buttonBox);
 
+        // Settings and SHOW MEASUREMENTS answer of the last successful test, so Connect does not ask again
+        String[] testedProfile = new String[2];
+        
         // Event handlers for connection testing and validation
         testButton.setOnAction(e -> {
             // Extract current form values for testing
@@ -277,6 +462,7 @@ public class InfluxDBJavaFXIDE extends Application {
             }
             
             // Disable test button and show testing status
+            testedProfile[0] = null;
             testButton.setDisable(true);
             statusLabel.setText("Testing connection...");
             statusLabel.setTextFill(Color.BLUE);
@@ -305,6 +491,8 @@ public class InfluxDBJavaFXIDE extends Application {
                     } else {
                         statusLabel.setText("Connection test successful! Click Connect to continue.");
                         statusLabel.setTextFill(Color.GREEN);
+                        testedProfile[0] = profileKey(testProtocol, testSkipSSL, testHost, testDatabase, testToken);
+                        testedProfile[1] = result;
                     }
                 });
             }).exceptionally(throwable -> {
@@ -336,19 +524,38 @@ public class InfluxDBJavaFXIDE extends Application {
                 return;
             }
             
+            startupTimings.markWaiting("waiting for Connect");
+            
+            // A successful test of the same settings already validated the connection
+            if (profileKey(this.protocol, this.skipSSLValidation, this.host, this.database, this.token).equals(testedProfile[0])) {
+                connectMeasurementsResponse = testedProfile[1];
+                saveSettings(this.protocol, this.host, this.database, this.skipSSLValidation);
+                prepareMainWindow();
+                connectionStage.close();
+                return;
+            }
+            
             // Validate connection before proceeding to main window
             connectButton.setDisable(true);
             statusLabel.setText("Validating connection...");
             statusLabel.setTextFill(Color.BLUE);
             
             // Validate connection asynchronously to keep UI responsive
-            CompletableFuture.supplyAsync(() -> {
+            long validationStart = System.nanoTime();
+            CompletableFuture<String> validation = CompletableFuture.supplyAsync(() -> {
                 try {
                     return executeQueryHTTP(this.protocol, this.host, this.token, this.database, "SHOW MEASUREMENTS", this.skipSSLValidation);
                 } catch (Exception ex) {
                     return "Error: " + ex.getMessage();
+                } finally {
+                    startupTimings.addOverlapped("connection validation", System.nanoTime() - validationStart);
                 }
-            }).thenAcceptAsync(result -> {
+            });
+            
+            // Build the main window while the round trip is in flight; it is only shown once the connection is confirmed
+            prepareMainWindow();
+            
+            validation.thenAcceptAsync(result -> {
                 javafx.application.Platform.runLater(() -> {
                     connectButton.setDisable(false);
                     if (result.startsWith("Error:") || result.startsWith("ERROR")) {
@@ -363,6 +570,7 @@ public class InfluxDBJavaFXIDE extends Application {
                         
                         // Save settings for next time (excluding token for security)
                         saveSettings(this.protocol, this.host, this.database, this.skipSSLValidation);
+                        connectMeasurementsResponse = result;
                         
                         connectionStage.close();
                     }
@@ -380,19 +588,49 @@ public class InfluxDBJavaFXIDE extends Application {
 
         Scene connectionScene = new Scene(connectionLayout, 500, 500);
         connectionStage.setScene(connectionScene);
+        connectionStage.setOnShown(e -> startupTimings.mark("connection dialog"));
         connectionStage.showAndWait();
 
         return this.host != null && this.database != null && this.token != null;
     }
+    
+    /**
+     * Identifies a set of connection settings, to tell whether Connect uses the settings that were just tested
+     */
+    private static String profileKey(String protocol, boolean skipSSLValidation, String host, String database, String token) {
+        return protocol + "|" + skipSSLValidation + "|" + host + "|" + database + "|" + token;
+    }
+
+    /**
+     * Builds the main window on the first Connect attempt; later attempts (retries after a failed validation,
+     * other settings) reuse it and only update the connection it shows
+     */
+    private void prepareMainWindow() {
+        if (mainStage.getScene() == null) {
+            createMainWindow();
+        } else {
+            showConnectionInfo();
+        }
+    }
+    
+    /**
+     * Shows the current connection in the window title, the header and the status bar
+     */
+    private void showConnectionInfo() {
+        // Window title with connection information and beta version
+        mainStage.setTitle("InfluxDB Query IDE v1.0 Beta - " + host + "/" + database);
+        connectionInfoLabel.setText("Connected to: " + protocol + "://" + host + " | Database: " + database);
+        boolean sslValidationSkipped = protocol.equalsIgnoreCase("https") && skipSSLValidation;
+        headerSslWarningBox.setVisible(sslValidationSkipped);
+        statusSslWarningBox.setVisible(sslValidationSkipped);
+        statusSslWarningBox.setManaged(sslValidationSkipped);
+    }
 
     /**
      * Creates and displays the main application window
      * Sets up the complete UI layout with menu bar, query section, and results area
      */
     private void createMainWindow() {
-        // Set window title with connection information and beta version
-        mainStage.setTitle("InfluxDB Query IDE v1.0 Beta - " + host + "/" + database);
-        
         // Ensure main window has the application icon for consistency
         setApplicationIcon(mainStage);
 
@@ -439,12 +677,65 @@ public class InfluxDBJavaFXIDE extends Application {
 
         // Set up event handlers
         setupEventHandlers();
+        showConnectionInfo();
 
-        // Create scene and show stage
+        // Create scene; the stage is shown by showMainWindow once the connection is validated
         Scene scene = new Scene(mainLayout, 1000, 800);
         mainStage.setScene(scene);
         mainStage.setMinWidth(900);
         mainStage.setMinHeight(700);
+        startupTimings.mark("main window built");
+    }
+    
+    /**
+     * Sets the tab's content the first time the tab is selected
+     */
+    private static void buildOnFirstSelection(Tab tab, java.util.function.Supplier<javafx.scene.Node> content) {
+        tab.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            if (selected && tab.getContent() == null) {
+                tab.setContent(content.get());
+            }
+        });
+    }
+    
+    /**
+     * Shows text in the Raw JSON tab, or keeps it for when the tab is first opened
+     */
+    private void showRawResponse(String text) {
+        if (rawResultViewer != null) {
+            rawResultViewer.setText(text);
+        } else {
+            pendingRawResponse = text;
+        }
+    }
+    
+    /**
+     * Adds an execution to the Profiler tab, or keeps it for when the tab is first opened
+     */
+    private void addProfile(QueryProfile profile) {
+        if (profilerPanel != null) {
+            profilerPanel.addProfile(profile);
+            return;
+        }
+        pendingProfiles.add(profile);
+        if (pendingProfiles.size() > QueryProfilerPanel.MAX_HISTORY) {
+            pendingProfiles.remove(0);
+        }
+    }
+    
+    /**
+     * Shows the main window built by createMainWindow and reports the startup timings after its first frame
+     */
+    private void showMainWindow() {
+        Scene scene = mainStage.getScene();
+        Runnable[] firstFrame = new Runnable[1];
+        firstFrame[0] = () -> {
+            // Pulse listeners must not be removed while the scene runs them
+            javafx.application.Platform.runLater(() -> scene.removePostLayoutPulseListener(firstFrame[0]));
+            startupTimings.mark("first frame");
+            startupTimings.report(new File(STARTUP_LOG));
+        };
+        scene.addPostLayoutPulseListener(firstFrame[0]);
         
         // Maximize the main window for better query and results viewing
         mainStage.setMaximized(true);
@@ -463,13 +754,13 @@ public class InfluxDBJavaFXIDE extends Application {
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
         titleLabel.setTextFill(Color.DARKBLUE);
         
-        Label connectionInfo = new Label("Connected to: " + protocol + "://" + host + " | Database: " + database);
-        connectionInfo.setStyle("-fx-font-size: 12px; -fx-text-fill: #666666;");
+        connectionInfoLabel = new Label();
+        connectionInfoLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #666666;");
         
-        // Add SSL warning if validation is skipped
+        // SSL warning, shown by showConnectionInfo if validation is skipped
         HBox sslWarningBox = new HBox(5);
         sslWarningBox.setAlignment(Pos.CENTER_LEFT);
-        sslWarningBox.setVisible(protocol.equalsIgnoreCase("https") && skipSSLValidation);
+        headerSslWarningBox = sslWarningBox;
         
         Label warningIcon = new Label("⚠️");
         warningIcon.setStyle("-fx-font-size: 14px;");
@@ -479,7 +770,7 @@ public class InfluxDBJavaFXIDE extends Application {
         
         sslWarningBox.getChildren().addAll(warningIcon, warningText);
         
-        headerBox.getChildren().addAll(titleLabel, connectionInfo, sslWarningBox);
+        headerBox.getChildren().addAll(titleLabel, connectionInfoLabel, sslWarningBox);
         return headerBox;
     }
 
@@ -526,6 +817,15 @@ public class InfluxDBJavaFXIDE extends Application {
         // Note: TextArea automatically shows scrollbar when content exceeds visible area
         // Users can now manually resize the query area by dragging the bottom edge
         
+        // Ctrl+Space completes names from the schema cache (measurements after FROM, fields and tags elsewhere)
+        queryArea.setTooltip(new Tooltip("Ctrl+Space completes measurement, field and tag names"));
+        queryArea.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.SPACE && event.isControlDown()) {
+                showCompletions();
+                event.consume();
+            }
+        });
+        
         // Execute button with green styling and fixed height
         executeButton = new Button("Execute");
         executeButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-font-weight: bold;");
@@ -535,14 +835,152 @@ public class InfluxDBJavaFXIDE extends Application {
         
         // Note: Button height is now fixed, users can resize query area independently
         
+        // Cancel button, only enabled while a query is running
+        cancelButton = new Button("Cancel");
+        cancelButton.setStyle("-fx-background-color: #f44336; -fx-text-fill: white; -fx-font-weight: bold;");
+        cancelButton.setPrefWidth(80);
+        cancelButton.setPrefHeight(40);
+        cancelButton.setTooltip(new Tooltip("Abort the running query and ask the server to kill it"));
+        cancelButton.disableProperty().bind(executeButton.disableProperty().not());
+        
         // Add components to horizontal row
-        queryRow.getChildren().addAll(queryArea, executeButton);
+        queryRow.getChildren().addAll(queryArea, executeButton, cancelButton);
+
+        // Query options row - backend, streaming mode and chunk size
+        HBox optionsRow = new HBox(15);
+        optionsRow.setAlignment(Pos.CENTER_LEFT);
+
+        Label backendLabel = new Label("Backend:");
+        queryBackendCombo = new ComboBox<>();
+        queryBackendCombo.getItems().addAll(BACKEND_HTTP, BACKEND_FLIGHT_SQL, BACKEND_FLIGHT_INFLUXQL);
+        queryBackendCombo.setValue(BACKEND_HTTP);
+        queryBackendCombo.setTooltip(new Tooltip("HTTP uses the v1 /query JSON API, Arrow Flight streams columnar record batches"));
+
+        streamResultsCheckBox = new CheckBox("Stream results (chunked)");
+        streamResultsCheckBox.setTooltip(new Tooltip("Request chunked responses and append rows to the table as they arrive"));
+
+        Label chunkSizeLabel = new Label("Chunk size:");
+        chunkSizeSpinner = new Spinner<>(100, 1000000, DEFAULT_CHUNK_SIZE, 1000);
+        chunkSizeSpinner.setEditable(true);
+        chunkSizeSpinner.setPrefWidth(110);
+        chunkSizeSpinner.setTooltip(new Tooltip("Number of rows the server sends per chunk"));
+        chunkSizeSpinner.disableProperty().bind(streamResultsCheckBox.selectedProperty().not()
+            .or(streamResultsCheckBox.disabledProperty()));
+
+        // Chunked streaming only applies to the HTTP backend; Flight always streams record batches
+        streamResultsCheckBox.disableProperty().bind(queryBackendCombo.valueProperty().isNotEqualTo(BACKEND_HTTP));
+
+        // Paginated mode fetches the first page only and the rest while scrolling
+        paginateCheckBox = new CheckBox("Paginate");
+        paginateCheckBox.setTooltip(new Tooltip("Fetch a single SELECT page by page (time keyset or LIMIT/OFFSET) as the table is scrolled"));
+        paginateCheckBox.disableProperty().bind(queryBackendCombo.valueProperty().isNotEqualTo(BACKEND_HTTP));
+
+        Label pageSizeLabel = new Label("Page size:");
+        pageSizeSpinner = new Spinner<>(100, 1000000, DEFAULT_PAGE_SIZE, 1000);
+        pageSizeSpinner.setEditable(true);
+        pageSizeSpinner.setPrefWidth(110);
+        pageSizeSpinner.setTooltip(new Tooltip("Number of rows fetched per page"));
+        pageSizeSpinner.disableProperty().bind(paginateCheckBox.selectedProperty().not()
+            .or(paginateCheckBox.disabledProperty()));
+
+        // Time-window mode splits the WHERE time range into sub-queries that run concurrently
+        timeWindowsCheckBox = new CheckBox("Time windows");
+        timeWindowsCheckBox.setTooltip(new Tooltip("Split the query's time range into sub-windows fetched in parallel and merged in time order"));
+        timeWindowsCheckBox.disableProperty().bind(queryBackendCombo.valueProperty().isNotEqualTo(BACKEND_HTTP));
+        windowCountSpinner = new Spinner<>(2, 256, DEFAULT_TIME_WINDOWS, 1);
+        windowCountSpinner.setEditable(true);
+        windowCountSpinner.setPrefWidth(70);
+        windowCountSpinner.setTooltip(new Tooltip("Number of time windows"));
+        Label windowParallelismLabel = new Label("x parallel:");
+        windowParallelismSpinner = new Spinner<>(1, 64, DEFAULT_WINDOW_PARALLELISM, 1);
+        windowParallelismSpinner.setEditable(true);
+        windowParallelismSpinner.setPrefWidth(65);
+        windowParallelismSpinner.setTooltip(new Tooltip("Maximum number of windows queried at the same time"));
+        windowCountSpinner.disableProperty().bind(timeWindowsCheckBox.selectedProperty().not()
+            .or(timeWindowsCheckBox.disabledProperty()));
+        windowParallelismSpinner.disableProperty().bind(windowCountSpinner.disableProperty());
+
+        // Live tail re-runs the query on an interval, asking only for rows newer than the last one seen
+        liveTailCheckBox = new CheckBox("Live tail");
+        liveTailCheckBox.setTooltip(new Tooltip("Re-run a SELECT on an interval, append new rows and drop rows older than the kept window"));
+        liveTailCheckBox.disableProperty().bind(queryBackendCombo.valueProperty().isNotEqualTo(BACKEND_HTTP));
+        Label liveIntervalLabel = new Label("every (s):");
+        liveIntervalSpinner = new Spinner<>(1, 3600, DEFAULT_LIVE_INTERVAL_SECONDS, 1);
+        liveIntervalSpinner.setEditable(true);
+        liveIntervalSpinner.setPrefWidth(70);
+        liveIntervalSpinner.setTooltip(new Tooltip("Seconds between refreshes"));
+        Label liveRetentionLabel = new Label("keep (min):");
+        liveRetentionSpinner = new Spinner<>(1, 10080, DEFAULT_LIVE_RETENTION_MINUTES, 5);
+        liveRetentionSpinner.setEditable(true);
+        liveRetentionSpinner.setPrefWidth(75);
+        liveRetentionSpinner.setTooltip(new Tooltip("Rows older than this many minutes are dropped from the table"));
+        liveIntervalSpinner.disableProperty().bind(liveTailCheckBox.selectedProperty().not()
+            .or(liveTailCheckBox.disabledProperty()));
+        liveRetentionSpinner.disableProperty().bind(liveIntervalSpinner.disableProperty());
+
+        // Paginated, time-window and live tail modes exclude each other
+        paginateCheckBox.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            if (selected) {
+                timeWindowsCheckBox.setSelected(false);
+                liveTailCheckBox.setSelected(false);
+            }
+        });
+        timeWindowsCheckBox.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            if (selected) {
+                paginateCheckBox.setSelected(false);
+                liveTailCheckBox.setSelected(false);
+            }
+        });
+        liveTailCheckBox.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            if (selected) {
+                paginateCheckBox.setSelected(false);
+                timeWindowsCheckBox.setSelected(false);
+            }
+        });
 
-        // Add header row and query row to main container
-        queryBox.getChildren().addAll(headerRow, queryRow);
+        useCacheCheckBox = new CheckBox("Use cache");
+        useCacheCheckBox.setSelected(true);
+        useCacheCheckBox.setTooltip(new Tooltip("Serve repeated SELECT/SHOW queries from the client-side result cache"));
+
+        // Per-query timeouts
+        Label connectTimeoutLabel = new Label("Connect timeout (s):");
+        connectTimeoutSpinner = new Spinner<>(1, 300, DEFAULT_CONNECT_TIMEOUT_SECONDS, 5);
+        connectTimeoutSpinner.setEditable(true);
+        connectTimeoutSpinner.setPrefWidth(75);
+        connectTimeoutSpinner.setTooltip(new Tooltip("Maximum time to establish the connection"));
+
+        Label readTimeoutLabel = new Label("Read timeout (s):");
+        readTimeoutSpinner = new Spinner<>(0, 86400, DEFAULT_READ_TIMEOUT_SECONDS, 30);
+        readTimeoutSpinner.setEditable(true);
+        readTimeoutSpinner.setPrefWidth(85);
+        readTimeoutSpinner.setTooltip(new Tooltip("Maximum time to wait for the server's response or the next data in it, 0 for no limit"));
+
+        optionsRow.getChildren().addAll(backendLabel, queryBackendCombo, streamResultsCheckBox, chunkSizeLabel, chunkSizeSpinner,
+            useCacheCheckBox);
+
+        // Execution modes and timeouts on a second row; each group wraps as a unit when the window is narrow
+        FlowPane executionRow = new FlowPane(25, 8);
+        executionRow.setAlignment(Pos.CENTER_LEFT);
+        executionRow.getChildren().addAll(
+            optionGroup(paginateCheckBox, pageSizeLabel, pageSizeSpinner),
+            optionGroup(timeWindowsCheckBox, windowCountSpinner, windowParallelismLabel, windowParallelismSpinner),
+            optionGroup(liveTailCheckBox, liveIntervalLabel, liveIntervalSpinner, liveRetentionLabel, liveRetentionSpinner),
+            optionGroup(connectTimeoutLabel, connectTimeoutSpinner, readTimeoutLabel, readTimeoutSpinner));
+
+        // Add header row, query row and both options rows to main container
+        queryBox.getChildren().addAll(headerRow, queryRow, optionsRow, executionRow);
         return queryBox;
     }
 
+    /**
+     * Lays out a checkbox or label with the controls that belong to it, kept together on one line
+     */
+    private static HBox optionGroup(javafx.scene.Node... controls) {
+        HBox group = new HBox(8, controls);
+        group.setAlignment(Pos.CENTER_LEFT);
+        return group;
+    }
+
     /**
      * Creates the results display section with tabbed interface
      * Includes table view, raw JSON view, filtering, and export functionality
@@ -561,12 +999,12 @@ public class InfluxDBJavaFXIDE extends Application {
         Label sectionLabel = new Label("Results");
         sectionLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
         
-        // Export to CSV button with blue styling
-        Button exportButton = new Button("Export to CSV");
+        // Export button with blue styling; the format follows the chosen file type
+        Button exportButton = new Button("Export...");
         exportButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white; -fx-font-weight: bold;");
         exportButton.setPrefWidth(120);
         exportButton.setPrefHeight(30);
-        exportButton.setOnAction(e -> exportToCSV());
+        exportButton.setOnAction(e -> exportResults());
         
         // Make section label expand to fill available space
         HBox.setHgrow(sectionLabel, Priority.ALWAYS);
@@ -585,7 +1023,10 @@ public class InfluxDBJavaFXIDE extends Application {
         filterField = new TextField();
         filterField.setPromptText("Type to filter across all columns...");
         filterField.setPrefWidth(250);
-        filterField.textProperty().addListener((observable, oldValue, newValue) -> applyGlobalFilter());
+        // Filter once typing pauses rather than on every keystroke
+        filterDebounce = new PauseTransition(javafx.util.Duration.millis(FILTER_DEBOUNCE_MILLIS));
+        filterDebounce.setOnFinished(e -> applyGlobalFilter());
+        filterField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
         
         // Clear filters button
         Button clearFiltersButton = new Button("Clear All Filters");
@@ -606,20 +1047,38 @@ public class InfluxDBJavaFXIDE extends Application {
         tableTab.setClosable(false);
         resultsTable = new TableView<>();
         resultsTable.setPlaceholder(new Label("Query results will appear here in table format..."));
+        // Paginated queries load the next page once the user scrolls within a page of the end
+        resultsTable.skinProperty().addListener((observable, oldSkin, newSkin) -> javafx.application.Platform.runLater(() -> {
+            if (resultsTable.lookup(".virtual-flow") instanceof VirtualFlow) {
+                ((VirtualFlow<?>) resultsTable.lookup(".virtual-flow")).positionProperty()
+                    .addListener((positionObservable, oldPosition, newPosition) -> loadNextPageIfNeeded());
+            }
+        }));
         tableTab.setContent(resultsTable);
         
         // Raw JSON tab
         Tab rawTab = new Tab("Raw JSON");
         rawTab.setClosable(false);
-        rawResultArea = new TextArea();
-        rawResultArea.setEditable(false);
-        rawResultArea.setPromptText("Raw JSON response will appear here...");
-        rawResultArea.setPrefRowCount(15);
-        rawResultArea.setWrapText(true);
-        rawResultArea.setFont(Font.font("Consolas", 11));
-        rawTab.setContent(rawResultArea);
+        // Paged viewer - only the visible lines of the current page are laid out
+        buildOnFirstSelection(rawTab, () -> {
+            rawResultViewer = new RawResponseViewer();
+            rawResultViewer.setText(pendingRawResponse);
+            pendingRawResponse = null;
+            return rawResultViewer;
+        });
+        
+        // Profiler tab - per-phase timing of every execution
+        Tab profilerTab = new Tab("Profiler");
+        profilerTab.setClosable(false);
+        buildOnFirstSelection(profilerTab, () -> {
+            profilerPanel = new QueryProfilerPanel();
+            // Oldest first, so the latest execution ends up selected at the top
+            pendingProfiles.forEach(profilerPanel::addProfile);
+            pendingProfiles.clear();
+            return profilerPanel;
+        });
         
-        resultsTabPane.getTabs().addAll(tableTab, rawTab);
+        resultsTabPane.getTabs().addAll(tableTab, rawTab, profilerTab);
         
         // Bottom record count display
         HBox bottomRecordCountBox = new HBox(10);
@@ -697,16 +1156,16 @@ public class InfluxDBJavaFXIDE extends Application {
         HBox rightStatusBox = new HBox(10);
         rightStatusBox.setAlignment(Pos.CENTER_RIGHT);
         
-        // Add SSL warning if applicable
-        if (protocol.equalsIgnoreCase("https") && skipSSLValidation) {
-            Label warningIcon = new Label("⚠️");
-            warningIcon.setStyle("-fx-font-size: 14px;");
-            
-            Label warningText = new Label("SSL Validation Disabled");
-            warningText.setStyle("-fx-font-size: 11px; -fx-text-fill: #FF9800; -fx-font-style: italic;");
-            
-            rightStatusBox.getChildren().addAll(warningIcon, warningText);
-        }
+        // SSL warning, shown by showConnectionInfo if applicable
+        Label warningIcon = new Label("⚠️");
+        warningIcon.setStyle("-fx-font-size: 14px;");
+        
+        Label warningText = new Label("SSL Validation Disabled");
+        warningText.setStyle("-fx-font-size: 11px; -fx-text-fill: #FF9800; -fx-font-style: italic;");
+        
+        statusSslWarningBox = new HBox(10, warningIcon, warningText);
+        statusSslWarningBox.setAlignment(Pos.CENTER_RIGHT);
+        rightStatusBox.getChildren().add(statusSslWarningBox);
         
         // Add main status and progress to right side
         statusLabel = new Label("Ready");
@@ -733,7 +1192,16 @@ public class InfluxDBJavaFXIDE extends Application {
             executeQuery();
         });
         
-        databaseMenu.getItems().add(showTablesItem);
+        MenuItem clearCacheItem = new MenuItem("Clear Query Cache");
+        clearCacheItem.setOnAction(e -> {
+            queryCache.clear();
+            statusLabel.setText("Query cache cleared (" + queryCache.getStats() + ")");
+        });
+        
+        MenuItem refreshSchemaItem = new MenuItem("Refresh Schema");
+        refreshSchemaItem.setOnAction(e -> refreshSchema(null, 0, true));
+        
+        databaseMenu.getItems().addAll(showTablesItem, refreshSchemaItem, clearCacheItem);
         
         // View Menu
         Menu viewMenu = new Menu("View");
@@ -827,6 +1295,7 @@ public class InfluxDBJavaFXIDE extends Application {
     private void setupEventHandlers() {
         // Set up event handlers for buttons
         executeButton.setOnAction(e -> executeQuery());
+        cancelButton.setOnAction(e -> cancelQuery());
         clearButton.setOnAction(e -> clearResults());
         
         // Set up drag and drop for the results table
@@ -841,10 +1310,10 @@ public class InfluxDBJavaFXIDE extends Application {
         // Enable drag detection on the results table
         resultsTable.setOnDragDetected(event -> {
             // Get the currently selected row from the table
-            ObservableList<String> selectedRow = resultsTable.getSelectionModel().getSelectedItem();
-            if (selectedRow != null && !selectedRow.isEmpty()) {
+            Integer selectedRow = resultsTable.getSelectionModel().getSelectedItem();
+            if (selectedRow != null && currentResult != null && currentResult.getColumnCount() > 0) {
                 // Extract the first column value (usually table/measurement name) for dragging
-                String dragContent = selectedRow.get(0);
+                String dragContent = currentResult.getDisplayValue(selectedRow, 0);
                 
                 // Create clipboard content with the dragged text
                 ClipboardContent content = new ClipboardContent();
@@ -927,9 +1396,87 @@ public class InfluxDBJavaFXIDE extends Application {
         statusLabel.setText("Executing query...");
         
         // Clear previous results from both table and raw JSON views
-        rawResultArea.clear();
-        resultsTable.getColumns().clear();
-        resultsTable.getItems().clear();
+        showRawResponse("");
+        clearResultTable();
+
+        // Paginated mode only applies to a single SELECT over HTTP; anything else runs in full
+        String backend = queryBackendCombo.getValue();
+        QueryPaginator paginator = paginateCheckBox.isSelected() && BACKEND_HTTP.equals(backend)
+            ? QueryPaginator.create(query, pageSizeSpinner.getValue()) : null;
+        if (paginateCheckBox.isSelected() && BACKEND_HTTP.equals(backend) && paginator == null) {
+            System.out.println("Query cannot be paginated, fetching it in full");
+        }
+
+        // Live tail only applies to a single raw SELECT over HTTP
+        LiveTail liveTail = liveTailCheckBox.isSelected() && BACKEND_HTTP.equals(backend)
+            ? LiveTail.create(query, liveIntervalSpinner.getValue() * 1000L, liveRetentionSpinner.getValue() * 60_000_000_000L,
+                LiveTail.DEFAULT_MAX_ROWS) : null;
+        if (liveTailCheckBox.isSelected() && BACKEND_HTTP.equals(backend) && liveTail == null) {
+            System.out.println("Query cannot be tailed, running it once");
+        }
+
+        // Serve repeated read-only queries from the client-side cache without touching the network
+        // (a paginated or live result is partial and is not cached)
+        QueryResultCache.Key cacheKey = null;
+        if (paginator == null && liveTail == null && useCacheCheckBox.isSelected() && QueryResultCache.isCacheable(query)) {
+            // HTTP returns RFC3339 text timestamps, Flight returns native nanosecond timestamps
+            String precision = BACKEND_HTTP.equals(backend) ? "rfc3339" : "ns";
+            cacheKey = new QueryResultCache.Key(protocol + "://" + host, database, token, backend, query, precision);
+
+            QueryResultCache.Entry cached = queryCache.get(cacheKey);
+            if (cached != null) {
+                showCachedResult(cached, query);
+                return;
+            }
+        }
+        final QueryResultCache.Key resultCacheKey = cacheKey;
+        final String completedSuffix = cacheKey != null ? " (cache miss)" : "";
+
+        // Timeouts and the cancellation handle are fixed for the lifetime of this query
+        Duration connectTimeout = Duration.ofSeconds(connectTimeoutSpinner.getValue());
+        Duration readTimeout = Duration.ofSeconds(readTimeoutSpinner.getValue());
+        QueryCancellation cancellation = new QueryCancellation();
+        activeQuery = cancellation;
+        activeQueryText = query;
+
+        // Arrow Flight backends append record batches as they arrive
+        if (BACKEND_FLIGHT_SQL.equals(backend) || BACKEND_FLIGHT_INFLUXQL.equals(backend)) {
+            executeQueryFlight(query, BACKEND_FLIGHT_INFLUXQL.equals(backend)
+                ? FlightQueryEngine.Language.INFLUXQL : FlightQueryEngine.Language.SQL, cancellation, resultCacheKey);
+            return;
+        }
+
+        // Paginated mode shows the first page and fetches the rest on scroll
+        if (paginator != null) {
+            executeQueryPaginated(paginator, connectTimeout, readTimeout, cancellation);
+            return;
+        }
+
+        // Live tail keeps refreshing until cancelled
+        if (liveTail != null) {
+            executeQueryLiveTail(liveTail, connectTimeout, readTimeout, cancellation);
+            return;
+        }
+
+        // Time-window mode runs sub-windows of the time range concurrently
+        if (timeWindowsCheckBox.isSelected() && BACKEND_HTTP.equals(backend)) {
+            TimeWindowFanOut fanOut = TimeWindowFanOut.create(query, windowCountSpinner.getValue(), System.currentTimeMillis() * 1_000_000L);
+            if (fanOut != null) {
+                executeQueryTimeWindows(fanOut, windowParallelismSpinner.getValue(), connectTimeout, readTimeout, cancellation, resultCacheKey);
+                return;
+            }
+            System.out.println("Query has no splittable time range, running it as one request");
+        }
+
+        // Streaming mode appends rows chunk by chunk instead of waiting for the full response
+        if (streamResultsCheckBox.isSelected()) {
+            executeQueryStreaming(query, chunkSizeSpinner.getValue(), connectTimeout, readTimeout, cancellation, resultCacheKey);
+            return;
+        }
+
+        // Wire vs decoded byte counts for the status bar
+        TransferStats transferStats = new TransferStats();
+        QueryProfile profile = new QueryProfile(query, "HTTP");
 
         // Execute query asynchronously to prevent UI freezing
         CompletableFuture.supplyAsync(() -> {
@@ -939,41 +1486,83 @@ public class InfluxDBJavaFXIDE extends Application {
                     statusLabel.setText("Connecting to InfluxDB...");
                 });
                 
-                return executeQueryHTTP(protocol, host, token, database, query, skipSSLValidation);
+                long allocatedBefore = QueryProfile.threadAllocatedBytes();
+                String response = executeQueryHTTP(protocol, host, token, database, query, skipSSLValidation,
+                    connectTimeout, readTimeout, cancellation, transferStats);
+                profile.applyTransfer(transferStats, 0);
+                profile.addAllocatedSince(allocatedBefore);
+                return response;
+            } catch (CancellationException ex) {
+                throw ex;
             } catch (Exception ex) {
                 return "Error: " + ex.getMessage();
             }
         }).thenAcceptAsync(result -> {
+            // Convert the response here on the worker thread (large multi-series responses in parallel),
+            // so the JavaFX thread only has to show the finished columns
+            InfluxResponseParser.ParsedResponse parsed = null;
+            JSONException parseError = null;
+            long parseAllocatedBefore = QueryProfile.threadAllocatedBytes();
+            long parseStart = System.nanoTime();
+            if (!result.startsWith("ERROR")) {
+                try {
+                    parsed = InfluxResponseParser.parse(new JSONObject(result));
+                } catch (JSONException e) {
+                    parseError = e;
+                }
+            }
+            profile.addPhase(QueryProfile.PARSE, System.nanoTime() - parseStart);
+            profile.addAllocatedSince(parseAllocatedBefore);
+            final InfluxResponseParser.ParsedResponse parsedResponse = parsed;
+            final JSONException jsonError = parseError;
+            
             // Update UI on JavaFX thread
             javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
                 // Update raw JSON view
-                rawResultArea.setText(result);
+                showRawResponse(result);
                 
-                // Try to parse and display in table format
+                // Try to display in table format
+                InfluxResponseParser.ParsedResponse shown = null;
+                long buildAllocatedBefore = QueryProfile.threadAllocatedBytes();
+                long buildStart = System.nanoTime();
                 try {
-                    displayResultsInTable(result);
+                    shown = displayResultsInTable(result, parsedResponse, jsonError);
                 } catch (Exception e) {
                     // If table parsing fails, just show raw result
                     System.err.println("Failed to parse results for table: " + e.getMessage());
                 }
+                profile.addPhase(QueryProfile.TABLE_BUILD, System.nanoTime() - buildStart);
+                profile.addAllocatedSince(buildAllocatedBefore);
+                finishProfile(profile, currentResult != null ? currentResult.getRowCount() : 0);
+                
+                // Remember successfully parsed results for the next identical query
+                if (resultCacheKey != null && currentResult != null) {
+                    cacheResult(resultCacheKey, result);
+                }
                 
                 executeButton.setDisable(false);
                 progressIndicator.setVisible(false);
-                statusLabel.setText("Query completed");
+                String seriesInfo = shown != null ? " - " + shown.describe() : "";
+                statusLabel.setText("Query completed" + completedSuffix + seriesInfo + " - " + transferStats.describe());
             });
         }).exceptionally(throwable -> {
             // Handle any exceptions that occur during execution
             javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
+                if (isCancellation(throwable)) {
+                    showQueryCancelled(0);
+                    return;
+                }
                 executeButton.setDisable(false);
                 progressIndicator.setVisible(false);
                 statusLabel.setText("Query failed");
                 
                 // Show error in raw results area
-                rawResultArea.setText("Query execution failed: " + throwable.getMessage());
+                showRawResponse("Query execution failed: " + throwable.getMessage());
                 
                 // Clear table
-                resultsTable.getColumns().clear();
-                resultsTable.getItems().clear();
+                clearResultTable();
                 
                 // Show error dialog
                 showAlert("Query Error", "Failed to execute query: " + throwable.getMessage());
@@ -983,288 +1572,1014 @@ public class InfluxDBJavaFXIDE extends Application {
     }
 
     /**
-     * Executes an InfluxDB query using HTTP GET request
-     * Handles both HTTP and HTTPS protocols with optional SSL validation bypass
-     * Returns the JSON response as a string
+     * Cancels the running query
+     * Aborts the local request right away, then asks the server to kill the query in the background
+     * so it stops using CPU (HTTP backend only; Flight calls are cancelled by closing the stream)
      */
-    private String executeQueryHTTP(String protocol, String host, String token, String database, String query, boolean skipSSLValidation) throws Exception {
-        // Construct the query endpoint URL
-        String urlString = protocol + "://" + host + "/query";
-        
-        // Build query parameters using InfluxDB v1 API format
-        // p=token, db=database, q=query
-        String params = String.format("p=%s&db=%s&q=%s",
-            URLEncoder.encode(token, StandardCharsets.UTF_8),
-            URLEncoder.encode(database, StandardCharsets.UTF_8),
-            URLEncoder.encode(query, StandardCharsets.UTF_8)
-        );
-        
-        // Create full URL with query parameters
-        URL url = new URL(urlString + "?" + params);
-        
-        // Debug logging for troubleshooting
-        System.out.println("HTTP Request: " + url);
-        System.out.println("Token parameter: p=" + token.substring(0, Math.min(20, token.length())) + "...");
-        System.out.println("Database parameter: db=" + database);
-        System.out.println("Query parameter: q=" + query);
-        
-        // Open HTTP connection
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        
-        // Configure HTTP request properties and timeouts
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Accept", "application/json");
-        connection.setRequestProperty("User-Agent", "InfluxDB-IDE/1.0");
-        connection.setConnectTimeout(10000); // 10 second connection timeout
-        connection.setReadTimeout(10000);    // 10 second read timeout
-        
-        // Handle HTTPS connections
-        if ("https".equalsIgnoreCase(protocol)) {
-            System.out.println("Using HTTPS connection with SSL/TLS");
-            if (skipSSLValidation) {
-                System.out.println("SSL Certificate validation will be skipped");
-                // Create a trust manager that trusts all certificates
-                try {
-                    // Set system properties for SSL certificate validation bypass
-                    System.setProperty("https.protocols", "TLSv1.2,TLSv1.3");
-                    if (skipSSLValidation) {
-                        System.setProperty("javax.net.ssl.trustStore", "");
-                        System.setProperty("javax.net.ssl.trustStoreType", "JKS");
-                        System.setProperty("javax.net.ssl.trustStorePassword", "");
-                        System.setProperty("javax.net.ssl.keyStore", "");
-                        System.setProperty("javax.net.ssl.keyStorePassword", "");
-                        System.setProperty("javax.net.ssl.keyStoreType", "JKS");
-                        System.setProperty("com.sun.net.ssl.checkRevocation", "false");
-                        System.setProperty("com.sun.security.ssl.allowUnsafeRenegotiation", "true");
-                    }
-                } catch (Exception e) {
-                    System.err.println("Warning: Could not configure SSL bypass: " + e.getMessage());
-                }
-            }
+    private void cancelQuery() {
+        LiveTail liveTail = activeLiveTail;
+        if (liveTail != null) {
+            // A live tail may be waiting between refreshes, so stop it right away; refreshes only ask for new rows,
+            // so there is no long-running query worth killing on the server
+            stopLiveTail();
+            showQueryCancelled(liveTail.getRowsReceived());
+            statusLabel.setText("Live tail stopped after " + liveTail.getRefreshes() + " refreshes");
+            return;
         }
-        
-        // Debug authentication
-        System.out.println("Using token: " + token.substring(0, Math.min(20, token.length())) + "...");
-        System.out.println("Database: " + database);
-        
-        try {
-            System.out.println("Connecting to: " + url);
-            int responseCode = connection.getResponseCode();
-            System.out.println("Response Code: " + responseCode);
-            
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                // Read successful response
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-                String result = response.toString();
-                System.out.println("Success response length: " + result.length());
-                return result;
+        QueryCancellation cancellation = activeQuery;
+        if (cancellation == null) {
+            return;
+        }
+
+        // The server runs the rewritten window queries of a time-window fan-out, not the query as typed;
+        // taken before cancelling, which ends the requests and takes them out of the set
+        List<String> queries = new ArrayList<>(windowQueriesInFlight);
+        if (queries.isEmpty()) {
+            queries.add(activeQueryText);
+        }
+        statusLabel.setText("Cancelling query...");
+        cancellation.cancel();
+
+        if (!BACKEND_HTTP.equals(queryBackendCombo.getValue())) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return InfluxHttpClient.forProfile(protocol, host, skipSSLValidation).killQueries(token, database, queries);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }).whenComplete((killed, throwable) -> javafx.application.Platform.runLater(() -> {
+            if (throwable != null) {
+                System.err.println("KILL QUERY failed: " + throwable.getMessage());
+                statusLabel.setText("Query cancelled (server-side kill failed)");
+            } else if (killed > 0) {
+                statusLabel.setText("Query cancelled (killed " + killed + (killed == 1 ? " running query" : " running queries")
+                    + " on the server)");
             } else {
-                // Read error response
-                StringBuilder response = new StringBuilder();
-                try {
-                    // Check if error stream exists
-                    if (connection.getErrorStream() != null) {
-                        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            response.append(line);
-                        }
-                        reader.close();
-                    } else {
-                        // No error stream, create generic message
-                        response.append("HTTP ").append(responseCode).append(" Error");
-                        if (responseCode == 401) {
-                            response.append(" - Unauthorized. Check your API token.");
-                        } else if (responseCode == 403) {
-                            response.append(" - Forbidden. Check your permissions.");
-                        } else if (responseCode == 404) {
-                            response.append(" - Not Found. Check the endpoint URL.");
-                        } else if (responseCode >= 500) {
-                            response.append(" - Server Error. Try again later.");
-                        }
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error reading error stream: " + e.getMessage());
-                    response.append("HTTP ").append(responseCode).append(" Error - Unable to read error details");
-                }
-                
-                String errorResult = "ERROR " + responseCode + ": " + response.toString();
-                System.out.println("Error response: " + errorResult);
-                return errorResult;
+                statusLabel.setText("Query cancelled (no matching query running on the server)");
             }
-            
-        } catch (Exception e) {
-            System.err.println("HTTP connection exception: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        } finally {
-            connection.disconnect();
+        }));
+    }
+
+    /**
+     * Clears the running-query handle once the given query has finished
+     */
+    private void finishQuery(QueryCancellation cancellation) {
+        if (activeQuery == cancellation) {
+            activeQuery = null;
         }
     }
 
     /**
-     * Parses JSON response and displays results in a table format
-     * Handles InfluxDB v1 API response structure with series and values
-     * Creates dynamic columns and populates data with Excel-like functionality
+     * Resets the UI after a cancelled query, keeping any rows that already arrived
      */
-    private void displayResultsInTable(String jsonResult) {
-        try {
-            // Check if response indicates an HTTP error
-            if (jsonResult.startsWith("ERROR")) {
-                System.err.println("HTTP Error response: " + jsonResult);
-                // Display error in raw results area for debugging
-                rawResultArea.setText("HTTP Error: " + jsonResult);
-                // Clear table since there's no valid data to display
-                resultsTable.getColumns().clear();
-                resultsTable.getItems().clear();
-                return;
-            }
-            
-            // Debug logging - show first 200 characters of response
-            System.out.println("Raw response: " + jsonResult.substring(0, Math.min(200, jsonResult.length())));
-            
-            // Parse the JSON response string into JSONObject
-            JSONObject json = new JSONObject(jsonResult);
-            JSONArray results = json.getJSONArray("results");
-            
-            if (results.length() > 0) {
-                JSONObject firstResult = results.getJSONObject(0);
-                
-                if (firstResult.has("series")) {
-                    JSONArray series = firstResult.getJSONArray("series");
-                    
-                    if (series.length() > 0) {
-                        JSONObject firstSeries = series.getJSONObject(0);
-                        
-                        // Check if series has error
-                        if (firstSeries.has("error")) {
-                            String errorMsg = firstSeries.getString("error");
-                            System.err.println("Series error: " + errorMsg);
-                            rawResultArea.setText("Query Error: " + errorMsg);
-                            resultsTable.getColumns().clear();
-                            resultsTable.getItems().clear();
-                            return;
-                        }
-                        
-                        JSONArray columns = firstSeries.getJSONArray("columns");
-                        JSONArray values = firstSeries.getJSONArray("values");
-                        
-                        // Clear existing table
-                        resultsTable.getColumns().clear();
-                        resultsTable.getItems().clear();
-                        
-                        // Create columns dynamically with Excel-like headers
-                        for (int i = 0; i < columns.length(); i++) {
-                            final int colIndex = i;
-                            String columnName = columns.getString(i);
-                            
-                            // Create column header with sorting and filtering
-                            VBox headerBox = createExcelLikeHeader(columnName, colIndex);
-                            
-                            TableColumn<ObservableList<String>, String> column = new TableColumn<>();
-                            column.setGraphic(headerBox);
-                            column.setCellValueFactory(data -> {
-                                ObservableList<String> row = data.getValue();
-                                if (row != null && colIndex < row.size()) {
-                                    return new SimpleStringProperty(row.get(colIndex));
-                                }
-                                return new SimpleStringProperty("");
-                            });
-                            
-                            // Make columns resizable
-                            column.setPrefWidth(180);
-                            column.setResizable(true);
-                            
-                            resultsTable.getColumns().add(column);
-                        }
-                        
-                        // Populate data
-                        allResultsData = FXCollections.observableArrayList();
-                        for (int i = 0; i < values.length(); i++) {
-                            JSONArray row = values.getJSONArray(i);
-                            ObservableList<String> rowData = FXCollections.observableArrayList();
-                            
-                            for (int j = 0; j < row.length(); j++) {
-                                Object value = row.get(j);
-                                rowData.add(value != null ? value.toString() : "");
-                            }
-                            
-                            allResultsData.add(rowData);
-                        }
-                        
-                        // Set data to table
-                        resultsTable.setItems(allResultsData);
-                        
-                        // Update record count
-                        updateRecordCount();
-                        
-                        // Switch to table tab
-                        resultsTabPane.getSelectionModel().select(0);
-                    } else {
-                        // No series - this can happen with some queries like SHOW MEASUREMENTS
-                        System.out.println("No series in result - query may have returned no data");
-                        rawResultArea.setText("Query executed successfully but returned no data.\n\nRaw response:\n" + jsonResult);
-                        resultsTable.getColumns().clear();
-                        resultsTable.getItems().clear();
-                    }
-                } else {
-                    // No series field - check if there's an error message
-                    if (firstResult.has("error")) {
-                        String errorMsg = firstResult.getString("error");
-                        System.err.println("Result error: " + errorMsg);
-                        rawResultArea.setText("Query Error: " + errorMsg);
-                        resultsTable.getColumns().clear();
-                        resultsTable.getItems().clear();
-                    } else {
-                        System.out.println("No series field in result");
-                        rawResultArea.setText("Query executed but no data structure found.\n\nRaw response:\n" + jsonResult);
-                        resultsTable.getColumns().clear();
-                        resultsTable.getItems().clear();
-                    }
-                }
-            } else {
-                System.out.println("No results in response");
-                rawResultArea.setText("No results in response.\n\nRaw response:\n" + jsonResult);
-                resultsTable.getColumns().clear();
-                resultsTable.getItems().clear();
+    private void showQueryCancelled(long rowsReceived) {
+        executeButton.setDisable(false);
+        progressIndicator.setVisible(false);
+        showRawResponse("Query cancelled after " + rowsReceived + " rows.");
+        if (!statusLabel.getText().startsWith("Query cancelled")) {
+            statusLabel.setText("Query cancelled");
+        }
+    }
+
+    /**
+     * Returns true if the throwable (or its cause) reports a cancelled query
+     */
+    private static boolean isCancellation(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof CancellationException) {
+                return true;
             }
-        } catch (JSONException e) {
-            System.err.println("Error parsing JSON: " + e.getMessage());
-            System.err.println("Raw response that caused error: " + jsonResult);
-            rawResultArea.setText("JSON Parsing Error: " + e.getMessage() + "\n\nRaw response:\n" + jsonResult);
-            resultsTable.getColumns().clear();
-            resultsTable.getItems().clear();
         }
+        return false;
     }
-    
+
     /**
-     * Creates an Excel-like column header with sorting and filtering controls
-     * Each header contains the column name and three control buttons:
-     * - Ascending sort (↑), Descending sort (↓), and Filter (🔍)
+     * Displays a result served from the query cache
      */
-    private VBox createExcelLikeHeader(String columnName, int columnIndex) {
-        // Create vertical container for header content
-        VBox headerBox = new VBox(2);
-        headerBox.setAlignment(Pos.CENTER);
-        
-        // Column name label with bold Arial font
-        Label nameLabel = new Label(columnName);
-        nameLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-        nameLabel.setAlignment(Pos.CENTER);
-        
-        // Horizontal row for control buttons
-        HBox controlsRow = new HBox(5);
-        controlsRow.setAlignment(Pos.CENTER);
-        
-        // Ascending sort button with up arrow and tooltip
-        Button sortAscButton = new Button("↑");
-        sortAscButton.setStyle("-fx-background-color: #E0E0E0; -fx-font-size: 10; -fx-min-width: 20; -fx-min-height: 20;");
+    private void showCachedResult(QueryResultCache.Entry cached, String query) {
+        QueryProfile profile = new QueryProfile(query, "Cache hit");
+        profileTableBuild(profile, () -> showResult(cached.getResult()));
+        finishProfile(profile, cached.getResult().getRowCount());
+        if (cached.getRawResponse() != null) {
+            showRawResponse(cached.getRawResponse());
+        } else {
+            showRawResponse("Result served from the query cache; the raw response was not retained for this query.");
+        }
+
+        executeButton.setDisable(false);
+        progressIndicator.setVisible(false);
+        statusLabel.setText("Query completed (cache hit, " + cached.getResult().getRowCount() + " rows, cached "
+            + (cached.getAgeMillis() / 1000) + " s ago)");
+    }
+
+    /**
+     * Runs a table update on the JavaFX thread and adds its time and allocation to the profile
+     */
+    private void profileTableBuild(QueryProfile profile, Runnable build) {
+        long allocatedBefore = QueryProfile.threadAllocatedBytes();
+        long start = System.nanoTime();
+        build.run();
+        profile.addPhase(QueryProfile.TABLE_BUILD, System.nanoTime() - start);
+        profile.addAllocatedSince(allocatedBefore);
+    }
+
+    /**
+     * Completes a profile once the table has been laid out for the next frame and shows it in the profiler tab
+     * Render covers the CSS and layout pass of the updated table up to that pulse
+     */
+    private void finishProfile(QueryProfile profile, long rows) {
+        Scene scene = mainStage.getScene();
+        long renderStart = System.nanoTime();
+        boolean[] done = new boolean[1];
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            if (done[0]) {
+                return;
+            }
+            done[0] = true;
+            profile.addPhase(QueryProfile.RENDER, System.nanoTime() - renderStart);
+            profile.finish(rows);
+            addProfile(profile);
+            System.out.println("Profile " + profile.describe());
+            // Pulse listeners must not be removed while the scene runs them
+            javafx.application.Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+        javafx.application.Platform.requestNextPulse();
+    }
+
+    /**
+     * Executes the query in streaming mode using chunked responses
+     * Each chunk is converted to rows on the worker thread and appended to the table as it arrives,
+     * so the first rows show up immediately and the raw response is never held in memory
+     */
+    private void executeQueryStreaming(String query, int chunkSize, Duration connectTimeout, Duration readTimeout,
+                                       QueryCancellation cancellation, QueryResultCache.Key cacheKey) {
+        // Start with an empty result that chunks are appended to
+        currentResult = null;
+        allRowIndices = null;
+        updateRecordCount();
+
+        long startTime = System.currentTimeMillis();
+        AtomicLong rowsReceived = new AtomicLong();
+        TransferStats transferStats = new TransferStats();
+        QueryProfile profile = new QueryProfile(query, "HTTP streaming");
+        AtomicLong parseNanos = new AtomicLong();
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                javafx.application.Platform.runLater(() -> {
+                    statusLabel.setText("Connecting to InfluxDB (streaming)...");
+                });
+
+                long allocatedBefore = QueryProfile.threadAllocatedBytes();
+                int chunkCount = executeQueryHTTPStreaming(protocol, host, token, database, query, skipSSLValidation, chunkSize,
+                    connectTimeout, readTimeout, cancellation, transferStats, chunk -> {
+                    // Convert the chunk off the FX thread; only the finished columns are handed over
+                    long parseStart = System.nanoTime();
+                    ColumnarResult chunkResult = parseChunk(chunk);
+                    parseNanos.addAndGet(System.nanoTime() - parseStart);
+                    if (chunkResult == null) {
+                        return;
+                    }
+
+                    long total = rowsReceived.addAndGet(chunkResult.getRowCount());
+                    javafx.application.Platform.runLater(() -> {
+                        profileTableBuild(profile, () -> appendResultToTable(chunkResult));
+                        statusLabel.setText("Streaming... " + total + " rows received");
+                    });
+                });
+                // Chunks are converted while the body downloads
+                profile.applyTransfer(transferStats, parseNanos.get());
+                profile.addPhase(QueryProfile.PARSE, parseNanos.get());
+                profile.addAllocatedSince(allocatedBefore);
+                return chunkCount;
+            } catch (CancellationException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }).thenAccept(chunkCount -> {
+            long elapsed = System.currentTimeMillis() - startTime;
+            javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
+                showRawResponse("Streaming mode: received " + rowsReceived.get() + " rows in " + chunkCount +
+                    " chunks (" + elapsed + " ms), " + transferStats.describe() +
+                    ".\n\nThe raw response is not retained in streaming mode to keep memory bounded.");
+                if (cacheKey != null) {
+                    cacheResult(cacheKey, null);
+                }
+                executeButton.setDisable(false);
+                progressIndicator.setVisible(false);
+                finishProfile(profile, rowsReceived.get());
+                statusLabel.setText("Query completed (streamed " + rowsReceived.get() + " rows in " + elapsed + " ms"
+                    + (cacheKey != null ? ", cache miss" : "") + ") - " + transferStats.describe());
+            });
+        }).exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
+                if (isCancellation(throwable)) {
+                    showQueryCancelled(rowsReceived.get());
+                    return;
+                }
+                executeButton.setDisable(false);
+                progressIndicator.setVisible(false);
+                statusLabel.setText("Query failed");
+
+                // Keep rows that already arrived, but report the failure
+                showRawResponse("Streaming query failed after " + rowsReceived.get() + " rows: " + cause.getMessage());
+                showAlert("Query Error", "Failed to execute query: " + cause.getMessage());
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Executes the query as parallel time windows
+     * Each window is fetched and parsed on its own worker thread; finished windows are appended to the
+     * table in time order as soon as all earlier windows are in, and the status bar shows per-window progress
+     */
+    private void executeQueryTimeWindows(TimeWindowFanOut fanOut, int parallelism, Duration connectTimeout, Duration readTimeout,
+                                         QueryCancellation cancellation, QueryResultCache.Key cacheKey) {
+        currentResult = null;
+        allRowIndices = null;
+        updateRecordCount();
+
+        int windowCount = fanOut.getWindowCount();
+        long startTime = System.currentTimeMillis();
+        long[] windowRows = new long[windowCount];
+        AtomicLong rowsReceived = new AtomicLong();
+        TransferStats transferStats = new TransferStats();
+        QueryProfile profile = new QueryProfile(activeQueryText, "Time windows (" + windowCount + " x " + parallelism + ")");
+        statusLabel.setText("Querying " + windowCount + " time windows, " + parallelism + " at a time...");
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                // Windows overlap in time, so their requests and parses are profiled as one parallel phase
+                long fanOutStart = System.nanoTime();
+                long totalRows = fanOut.execute(windowQuery -> {
+                    windowQueriesInFlight.add(windowQuery);
+                    String response;
+                    try {
+                        response = executeQueryHTTP(protocol, host, token, database, windowQuery, skipSSLValidation,
+                            connectTimeout, readTimeout, cancellation, transferStats);
+                    } finally {
+                        windowQueriesInFlight.remove(windowQuery);
+                    }
+                    if (response.startsWith("ERROR")) {
+                        throw new IOException(response);
+                    }
+                    return parseChunk(new JSONObject(response));
+                }, parallelism, cancellation, new TimeWindowFanOut.Listener() {
+                    @Override
+                    public void onWindowFinished(int window, long rows, int windowsDone, int windowsRunning) {
+                        windowRows[window] = rows;
+                        long total = rowsReceived.addAndGet(rows);
+                        javafx.application.Platform.runLater(() -> statusLabel.setText("Time windows: " + windowsDone + " of "
+                            + windowCount + " done, " + windowsRunning + " running - " + total + " rows received"));
+                    }
+
+                    @Override
+                    public void onWindowResult(int window, ColumnarResult result) {
+                        javafx.application.Platform.runLater(() -> profileTableBuild(profile, () -> appendResultToTable(result)));
+                    }
+                });
+                profile.addPhase("Parallel fetch + parse", System.nanoTime() - fanOutStart);
+                profile.applyBytes(transferStats);
+                return totalRows;
+            } catch (CancellationException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }).thenAccept(totalRows -> {
+            long elapsed = System.currentTimeMillis() - startTime;
+            javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
+                StringBuilder summary = new StringBuilder("Time-window mode: " + totalRows + " rows from " + windowCount
+                    + " windows (" + parallelism + " in parallel) in " + elapsed + " ms, " + transferStats.describe() + ".\n\n");
+                List<String> windowQueries = fanOut.getWindowQueries();
+                for (int window = 0; window < windowCount; window++) {
+                    summary.append("Window ").append(window + 1).append(": ").append(windowRows[window]).append(" rows - ")
+                        .append(windowQueries.get(window)).append("\n");
+                }
+                summary.append("\nThe raw responses are not retained in time-window mode.");
+                showRawResponse(summary.toString());
+                if (cacheKey != null) {
+                    cacheResult(cacheKey, null);
+                }
+                executeButton.setDisable(false);
+                progressIndicator.setVisible(false);
+                finishProfile(profile, totalRows);
+                statusLabel.setText("Query completed (" + totalRows + " rows from " + windowCount + " time windows in " + elapsed + " ms"
+                    + (cacheKey != null ? ", cache miss" : "") + ") - " + transferStats.describe());
+            });
+        }).exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
+                if (isCancellation(throwable)) {
+                    showQueryCancelled(rowsReceived.get());
+                    return;
+                }
+                executeButton.setDisable(false);
+                progressIndicator.setVisible(false);
+                statusLabel.setText("Query failed");
+
+                showRawResponse("Time-window query failed after " + rowsReceived.get() + " rows: " + cause.getMessage());
+                showAlert("Query Error", "Failed to execute query: " + cause.getMessage());
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Executes the query in paginated mode: only the first page is fetched now, further pages are
+     * fetched in the background as the table is scrolled towards the end
+     */
+    private void executeQueryPaginated(QueryPaginator paginator, Duration connectTimeout, Duration readTimeout,
+                                       QueryCancellation cancellation) {
+        currentResult = null;
+        allRowIndices = null;
+        updateRecordCount();
+
+        activePaginator = paginator;
+        statusLabel.setText("Fetching first page (" + paginator.getPageSize() + " rows, " + paginator.getStrategy() + ")...");
+        loadNextPage(paginator, connectTimeout, readTimeout, cancellation);
+    }
+
+    /**
+     * Loads the next page if the last visible row is within one page of the end of the loaded rows,
+     * so the next page is usually there before the user reaches it
+     */
+    private void loadNextPageIfNeeded() {
+        QueryPaginator paginator = activePaginator;
+        if (paginator == null || pageLoading || !paginator.hasMore() || paginator.getPagesLoaded() == 0) {
+            return;
+        }
+        if (!(resultsTable.lookup(".virtual-flow") instanceof VirtualFlow)) {
+            return;
+        }
+        IndexedCell<?> lastVisible = ((VirtualFlow<?>) resultsTable.lookup(".virtual-flow")).getLastVisibleCell();
+        int lastVisibleRow = lastVisible != null ? lastVisible.getIndex() : 0;
+        if (resultsTable.getItems().size() - 1 - lastVisibleRow < paginator.getPageSize()) {
+            loadNextPage(paginator, Duration.ofSeconds(connectTimeoutSpinner.getValue()),
+                Duration.ofSeconds(readTimeoutSpinner.getValue()), new QueryCancellation());
+        }
+    }
+
+    /**
+     * Fetches the next page in the background and appends it to the table
+     * One page is in flight at a time; a new query or cleared results discard pages still arriving
+     * Every page has its own cancellation handle, which is the running query while the page is in flight, so
+     * Cancel reaches later pages too and a finished page's exchange is not kept reachable by the next one
+     */
+    private void loadNextPage(QueryPaginator paginator, Duration connectTimeout, Duration readTimeout,
+                              QueryCancellation cancellation) {
+        pageLoading = true;
+        boolean firstPage = paginator.getPagesLoaded() == 0;
+        String pageQuery = paginator.nextPageQuery();
+        TransferStats transferStats = new TransferStats();
+        long startTime = System.currentTimeMillis();
+        QueryProfile profile = new QueryProfile(pageQuery, "Page " + (paginator.getPagesLoaded() + 1) + " (" + paginator.getStrategy() + ")");
+        System.out.println("Fetching page " + (paginator.getPagesLoaded() + 1) + ": " + pageQuery);
+        // Lets Cancel abort the page and kill the page query on the server
+        paginationCancellation = cancellation;
+        activeQuery = cancellation;
+        activeQueryText = pageQuery;
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                long allocatedBefore = QueryProfile.threadAllocatedBytes();
+                String response = executeQueryHTTP(protocol, host, token, database, pageQuery, skipSSLValidation,
+                    connectTimeout, readTimeout, cancellation, transferStats);
+                if (response.startsWith("ERROR")) {
+                    throw new IOException(response);
+                }
+                profile.applyTransfer(transferStats, 0);
+                long parseStart = System.nanoTime();
+                InfluxResponseParser.ParsedResponse parsed = parseChecked(new JSONObject(response));
+                ColumnarResult page = parsed.getResult();
+                profile.addPhase(QueryProfile.PARSE, System.nanoTime() - parseStart);
+                profile.addAllocatedSince(allocatedBefore);
+                paginator.onPageLoaded(page, parsed.getLargestSeriesRows());
+                return page;
+            } catch (CancellationException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }).whenComplete((page, throwable) -> javafx.application.Platform.runLater(() -> {
+            if (activePaginator != paginator) {
+                // Superseded by another query or cleared
+                return;
+            }
+            pageLoading = false;
+            finishQuery(cancellation);
+            if (paginationCancellation == cancellation) {
+                paginationCancellation = null;
+            }
+            if (firstPage) {
+                executeButton.setDisable(false);
+                progressIndicator.setVisible(false);
+            }
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                activePaginator = null;
+                if (isCancellation(throwable)) {
+                    showQueryCancelled(paginator.getRowsLoaded());
+                    return;
+                }
+                statusLabel.setText(firstPage ? "Query failed" : "Loading more rows failed after " + paginator.getRowsLoaded() + " rows");
+                showRawResponse("Paginated query failed after " + paginator.getRowsLoaded() + " rows: " + cause.getMessage());
+                if (firstPage) {
+                    showAlert("Query Error", "Failed to execute query: " + cause.getMessage());
+                }
+                return;
+            }
+
+            if (page != null) {
+                profileTableBuild(profile, () -> appendResultToTable(page));
+            }
+            finishProfile(profile, page != null ? page.getRowCount() : 0);
+            long elapsed = System.currentTimeMillis() - startTime;
+            showRawResponse("Paginated mode (" + paginator.getStrategy() + "): " + paginator.getPagesLoaded() + " pages, "
+                + paginator.getRowsLoaded() + " rows.\n\nLast page query: " + pageQuery
+                + "\n\nThe raw response is not retained in paginated mode.");
+            if (paginator.hasMore()) {
+                statusLabel.setText(paginator.getRowsLoaded() + " rows loaded, more available (page " + paginator.getPagesLoaded()
+                    + " in " + elapsed + " ms) - " + transferStats.describe());
+                // The table may not fill the view yet; check again once it has been laid out
+                javafx.application.Platform.runLater(this::loadNextPageIfNeeded);
+            } else {
+                activePaginator = null;
+                statusLabel.setText(paginator.getRowsLoaded() + " rows loaded, all " + paginator.getPagesLoaded() + " pages fetched - "
+                    + transferStats.describe());
+            }
+        }));
+    }
+
+    /**
+     * Stops fetching further pages of a paginated query, aborting the page in flight if there is one
+     */
+    private void stopPagination() {
+        activePaginator = null;
+        pageLoading = false;
+        if (paginationCancellation != null) {
+            paginationCancellation.cancel();
+            finishQuery(paginationCancellation);
+        }
+        paginationCancellation = null;
+    }
+
+    /**
+     * Executes the query as a live tail that refreshes until cancelled or replaced by another query
+     * The first refresh loads the kept window, later ones only the rows after the newest timestamp seen
+     */
+    private void executeQueryLiveTail(LiveTail liveTail, Duration connectTimeout, Duration readTimeout,
+                                      QueryCancellation cancellation) {
+        currentResult = null;
+        allRowIndices = null;
+        updateRecordCount();
+
+        activeLiveTail = liveTail;
+        statusLabel.setText("Live tail: loading the last " + liveTail.getRetentionNanos() / 60_000_000_000L + " minutes...");
+        runLiveTailRefresh(liveTail, connectTimeout, readTimeout, cancellation);
+    }
+
+    /**
+     * Runs one refresh of a live tail in the background and schedules the next one once it has finished
+     * Chunks are parsed on the worker thread and handed to the tail; the table picks them up on the next pulse
+     */
+    private void runLiveTailRefresh(LiveTail liveTail, Duration connectTimeout, Duration readTimeout,
+                                    QueryCancellation cancellation) {
+        activeQuery = cancellation;
+        String refreshQuery = liveTail.nextQuery(System.currentTimeMillis() * 1_000_000L);
+        activeQueryText = refreshQuery;
+        int refresh = liveTail.getRefreshes();
+        TransferStats transferStats = new TransferStats();
+        long startTime = System.currentTimeMillis();
+        AtomicLong rowsReceived = new AtomicLong();
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return executeQueryHTTPStreaming(protocol, host, token, database, refreshQuery, skipSSLValidation, DEFAULT_CHUNK_SIZE,
+                    connectTimeout, readTimeout, cancellation, transferStats, chunk -> {
+                    ColumnarResult batch = parseChunk(chunk);
+                    if (batch == null) {
+                        return;
+                    }
+                    rowsReceived.addAndGet(batch.getRowCount());
+                    if (liveTail.offer(batch)) {
+                        javafx.application.Platform.runLater(() -> scheduleLiveTailFlush(liveTail));
+                    }
+                });
+            } catch (CancellationException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }).whenComplete((chunkCount, throwable) -> javafx.application.Platform.runLater(() -> {
+            finishQuery(cancellation);
+            if (activeLiveTail != liveTail) {
+                // Stopped, or replaced by another query
+                return;
+            }
+            progressIndicator.setVisible(false);
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                stopLiveTail();
+                if (isCancellation(throwable)) {
+                    showQueryCancelled(liveTail.getRowsReceived());
+                    return;
+                }
+                executeButton.setDisable(false);
+                statusLabel.setText("Live tail failed after " + (refresh - 1) + " refreshes");
+                showRawResponse("Live tail refresh failed after " + liveTail.getRowsReceived() + " rows: " + cause.getMessage()
+                    + "\n\nRefresh query: " + refreshQuery);
+                showAlert("Query Error", "Live tail refresh failed: " + cause.getMessage());
+                return;
+            }
+
+            // Rows also expire while no new ones arrive
+            expireLiveTailRows(liveTail);
+            long elapsed = System.currentTimeMillis() - startTime;
+            showRawResponse("Live tail: refresh " + refresh + " returned " + rowsReceived.get() + " new rows in " + elapsed + " ms, "
+                + liveTail.getRowsReceived() + " rows received in total, " + transferStats.describe() + ".\n\nLast refresh query: "
+                + refreshQuery + "\n\nThe raw response is not retained in live tail mode.");
+            statusLabel.setText("Live tail: " + rowsReceived.get() + " new rows (refresh " + refresh + " in " + elapsed + " ms), next in "
+                + liveTail.getIntervalMillis() / 1000 + " s - " + transferStats.describe());
+
+            // Wait out the interval off the JavaFX thread; the Execute button stays disabled so Cancel can stop the tail
+            CompletableFuture.delayedExecutor(liveTail.getIntervalMillis(), TimeUnit.MILLISECONDS).execute(() ->
+                javafx.application.Platform.runLater(() -> {
+                    if (activeLiveTail == liveTail) {
+                        runLiveTailRefresh(liveTail, connectTimeout, readTimeout, new QueryCancellation());
+                    }
+                }));
+        }));
+    }
+
+    /**
+     * Moves the rows a live tail has received into the table on the next pulse
+     * However many chunks arrive in between, the table is updated at most once per frame
+     */
+    private void scheduleLiveTailFlush(LiveTail liveTail) {
+        Scene scene = mainStage.getScene();
+        boolean[] done = new boolean[1];
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            if (done[0]) {
+                return;
+            }
+            done[0] = true;
+            // Pulse listeners must not be removed while the scene runs them
+            javafx.application.Platform.runLater(() -> scene.removePreLayoutPulseListener(listener[0]));
+            ColumnarResult batch = liveTail.takePending();
+            if (activeLiveTail != liveTail || batch == null) {
+                return;
+            }
+            appendResultToTable(batch);
+            expireLiveTailRows(liveTail);
+        };
+        scene.addPreLayoutPulseListener(listener[0]);
+        javafx.application.Platform.requestNextPulse();
+    }
+
+    /**
+     * Replaces the displayed result with a compacted copy once enough of its rows have left the kept window
+     * The new result resets sorting and column filters; the global filter text is applied to it again
+     */
+    private void expireLiveTailRows(LiveTail liveTail) {
+        if (currentResult == null) {
+            return;
+        }
+        ColumnarResult compacted = liveTail.expire(currentResult, System.currentTimeMillis() * 1_000_000L);
+        if (compacted == null) {
+            return;
+        }
+        int selectedTab = resultsTabPane.getSelectionModel().getSelectedIndex();
+        showResult(compacted);
+        resultsTabPane.getSelectionModel().select(selectedTab);
+        if (!filterField.getText().isEmpty()) {
+            applyGlobalFilter();
+        }
+    }
+
+    /**
+     * Stops refreshing a live tail and aborts its refresh in flight; rows already shown stay in the table
+     * Returns false if no live tail was running
+     */
+    private boolean stopLiveTail() {
+        if (activeLiveTail == null) {
+            return false;
+        }
+        activeLiveTail = null;
+        QueryCancellation cancellation = activeQuery;
+        if (cancellation != null) {
+            cancellation.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Executes the query over Arrow Flight using the influxdb3-java client
+     * Record batches are converted straight from the Arrow vectors and appended to the table as they arrive
+     */
+    private void executeQueryFlight(String query, FlightQueryEngine.Language language, QueryCancellation cancellation,
+                                    QueryResultCache.Key cacheKey) {
+        // Start with an empty result that record batches are appended to
+        currentResult = null;
+        allRowIndices = null;
+        updateRecordCount();
+
+        long startTime = System.currentTimeMillis();
+        AtomicLong rowsReceived = new AtomicLong();
+        QueryProfile profile = new QueryProfile(query, "Arrow Flight (" + language + ")");
+
+        CompletableFuture.supplyAsync(() -> {
+            javafx.application.Platform.runLater(() -> {
+                statusLabel.setText("Connecting to InfluxDB (Arrow Flight)...");
+            });
+
+            // The Flight client does not expose connect or first-byte times; the stream is one phase
+            long allocatedBefore = QueryProfile.threadAllocatedBytes();
+            long streamStart = System.nanoTime();
+            long rowCount = getFlightEngine().execute(query, language, cancellation, batch -> {
+                long total = rowsReceived.addAndGet(batch.getRowCount());
+                javafx.application.Platform.runLater(() -> {
+                    profileTableBuild(profile, () -> appendResultToTable(batch));
+                    statusLabel.setText("Receiving record batches... " + total + " rows");
+                });
+            });
+            profile.addPhase("Flight stream", System.nanoTime() - streamStart);
+            profile.addAllocatedSince(allocatedBefore);
+            return rowCount;
+        }).thenAccept(rowCount -> {
+            long elapsed = System.currentTimeMillis() - startTime;
+            javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
+                showRawResponse("Arrow Flight (" + language + "): received " + rowCount + " rows in " + elapsed +
+                    " ms.\n\nFlight results are columnar record batches; there is no raw JSON response.");
+                if (cacheKey != null) {
+                    cacheResult(cacheKey, null);
+                }
+                executeButton.setDisable(false);
+                progressIndicator.setVisible(false);
+                finishProfile(profile, rowCount);
+                statusLabel.setText("Query completed (" + rowCount + " rows via Arrow Flight in " + elapsed + " ms"
+                    + (cacheKey != null ? ", cache miss" : "") + ")");
+            });
+        }).exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            javafx.application.Platform.runLater(() -> {
+                finishQuery(cancellation);
+                if (isCancellation(throwable)) {
+                    showQueryCancelled(rowsReceived.get());
+                    return;
+                }
+                executeButton.setDisable(false);
+                progressIndicator.setVisible(false);
+                statusLabel.setText("Query failed");
+
+                showRawResponse("Arrow Flight query failed after " + rowsReceived.get() + " rows: " + cause.getMessage());
+                showAlert("Query Error", "Failed to execute query: " + cause.getMessage());
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Returns the Flight engine for the current connection, creating it on first use
+     * The engine keeps its channel open so later queries skip the connection setup
+     */
+    private synchronized FlightQueryEngine getFlightEngine() {
+        if (flightEngine == null) {
+            flightEngine = new FlightQueryEngine(protocol, host, token, database, skipSSLValidation);
+        }
+        return flightEngine;
+    }
+
+    /**
+     * Converts one chunk of a chunked /query response into a columnar result
+     * All statements and series in the chunk are combined, with tag columns; returns null if the chunk carries no series
+     * Throws IllegalStateException if the chunk reports a statement or series error
+     */
+    private ColumnarResult parseChunk(JSONObject chunk) {
+        return parseChecked(chunk).getResult();
+    }
+
+    /**
+     * Parses a response or chunk, throwing IllegalStateException if it reports a statement or series error
+     */
+    private InfluxResponseParser.ParsedResponse parseChecked(JSONObject response) {
+        InfluxResponseParser.ParsedResponse parsed = InfluxResponseParser.parse(response);
+        if (!parsed.getErrors().isEmpty()) {
+            throw new IllegalStateException(String.join("; ", parsed.getErrors()));
+        }
+        return parsed;
+    }
+
+    /**
+     * Removes the displayed result and its columns from the table
+     */
+    private void clearResultTable() {
+        stopPagination();
+        stopLiveTail();
+        currentResult = null;
+        globalFilter = null;
+        resultFilters = null;
+        columnSorter = null;
+        resetSort();
+        filterGeneration.incrementAndGet();
+        allRowIndices = null;
+        // Rows held back for the previous result must not end up in the next one
+        heldBatches.clear();
+        pendingCacheKey = null;
+        pendingCacheResponse = null;
+        resultsTable.getColumns().clear();
+        resultsTable.setItems(FXCollections.observableArrayList());
+    }
+
+    /**
+     * Shows a complete result in the table, replacing whatever was displayed before
+     */
+    private void showResult(ColumnarResult result) {
+        currentResult = result;
+        globalFilter = null;
+        resultFilters = new ResultFilters(result);
+        columnSorter = new ColumnSorter(result);
+        resetSort();
+        filterGeneration.incrementAndGet();
+        allRowIndices = RowIndexList.identity(result.getRowCount());
+
+        resultsTable.getColumns().clear();
+        createResultColumns(result.getColumnNames());
+        resultsTable.setItems(allRowIndices);
+
+        updateRecordCount();
+        resultsTabPane.getSelectionModel().select(0);
+    }
+
+    /**
+     * Appends a batch of streamed rows to the displayed result
+     * The first batch defines the table; later batches extend it and may add columns
+     */
+    private void appendResultToTable(ColumnarResult batch) {
+        if (batch.getColumnCount() == 0) {
+            return;
+        }
+        if (backgroundReaders > 0) {
+            heldBatches.add(batch);
+            return;
+        }
+        if (currentResult == null) {
+            showResult(batch);
+            return;
+        }
+
+        int columnCount = currentResult.getColumnCount();
+        currentResult.appendAll(batch);
+        if (currentResult.getColumnCount() != columnCount) {
+            // The batch introduced new columns - rebuild the headers
+            resultsTable.getColumns().clear();
+            createResultColumns(currentResult.getColumnNames());
+        }
+
+        allRowIndices.growIdentity(currentResult.getRowCount());
+        updateRecordCount();
+        updateViewForAppendedRows();
+    }
+
+    /**
+     * Extends the active filters and sort order to rows appended after they were applied
+     * Column filters evaluate just the new rows; the global filter and the sort run again in the background
+     * (the global filter only re-checks its previous matches and the new rows), and show the new rows once done
+     */
+    private void updateViewForAppendedRows() {
+        boolean filtered = resultFilters != null && resultFilters.getActiveCount() > 0;
+        if (!filtered && sortPermutation == null) {
+            // The table shows the identity list, which has already grown
+            return;
+        }
+        if (filtered) {
+            resultFilters.extendColumnFilters();
+        }
+        publishFilteredRows();
+        if (filtered && resultFilters.isGlobalFilterBehind()) {
+            applyGlobalFilter();
+        }
+        if (sortPermutation != null && sortPermutation.length < currentResult.getRowCount()) {
+            sortColumn(sortColumnIndex, sortAscending);
+        }
+    }
+
+    /**
+     * Runs a job that reads the displayed result on a pool thread, then hands its outcome to the JavaFX thread
+     * Streamed rows are held back while the job runs and appended once no such job is left
+     */
+    private <T> void readResultInBackground(java.util.function.Supplier<T> job, java.util.function.BiConsumer<T, Throwable> onDone) {
+        backgroundReaders++;
+        CompletableFuture.supplyAsync(job).whenComplete((value, throwable) -> javafx.application.Platform.runLater(() -> {
+            try {
+                onDone.accept(value, throwable);
+            } finally {
+                backgroundReaders--;
+                if (backgroundReaders == 0 && !heldBatches.isEmpty()) {
+                    List<ColumnarResult> batches = new ArrayList<>(heldBatches);
+                    heldBatches.clear();
+                    batches.forEach(this::appendResultToTable);
+                }
+                if (pendingCacheKey != null) {
+                    cacheResult(pendingCacheKey, pendingCacheResponse);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Stores the displayed result of a finished query in the result cache
+     * While rows are still held back behind a background job the result is incomplete, so it is stored once
+     * the last job has finished and the held rows have been appended
+     */
+    private void cacheResult(QueryResultCache.Key key, String rawResponse) {
+        if (backgroundReaders > 0 || !heldBatches.isEmpty()) {
+            pendingCacheKey = key;
+            pendingCacheResponse = rawResponse;
+            return;
+        }
+        pendingCacheKey = null;
+        pendingCacheResponse = null;
+        if (currentResult != null) {
+            queryCache.put(key, currentResult, rawResponse);
+        }
+    }
+
+    /**
+     * Executes an InfluxDB query in chunked mode and hands every chunk to the given consumer
+     * Uses the shared keep-alive client of the connection profile
+     * Returns the number of chunks received, throws IOException on HTTP errors
+     */
+    private int executeQueryHTTPStreaming(String protocol, String host, String token, String database, String query,
+                                          boolean skipSSLValidation, int chunkSize, Duration connectTimeout, Duration readTimeout,
+                                          QueryCancellation cancellation, TransferStats transferStats,
+                                          Consumer<JSONObject> chunkConsumer) throws Exception {
+        return InfluxHttpClient.forProfile(protocol, host, skipSSLValidation, connectTimeout)
+            .queryChunked(token, database, query, chunkSize, readTimeout, cancellation, transferStats, chunkConsumer);
+    }
+
+    /**
+     * Executes an InfluxDB query using HTTP GET request
+     * Goes through the shared keep-alive client of the connection profile, so repeated queries
+     * reuse the open socket (and HTTP/2 where available) instead of reconnecting every time
+     * Returns the JSON response as a string, or "ERROR <code>: ..." on HTTP errors
+     */
+    private String executeQueryHTTP(String protocol, String host, String token, String database, String query, boolean skipSSLValidation) throws Exception {
+        return executeQueryHTTP(protocol, host, token, database, query, skipSSLValidation,
+            InfluxHttpClient.DEFAULT_CONNECT_TIMEOUT, InfluxHttpClient.DEFAULT_READ_TIMEOUT, new QueryCancellation(), new TransferStats());
+    }
+
+    /**
+     * Executes an InfluxDB query with the given timeouts that can be aborted through the cancellation handle
+     * Throws CancellationException if the query was cancelled
+     */
+    private String executeQueryHTTP(String protocol, String host, String token, String database, String query, boolean skipSSLValidation,
+                                    Duration connectTimeout, Duration readTimeout, QueryCancellation cancellation,
+                                    TransferStats transferStats) throws Exception {
+        try {
+            return InfluxHttpClient.forProfile(protocol, host, skipSSLValidation, connectTimeout)
+                .query(token, database, query, readTimeout, cancellation, transferStats);
+        } catch (CancellationException e) {
+            System.out.println("HTTP query cancelled");
+            throw e;
+        } catch (Exception e) {
+            System.err.println("HTTP connection exception: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    /**
+     * Parses JSON response and displays results in a table format
+     * Handles InfluxDB v1 API response structure with series and values; all statements and series
+     * are combined into one table with series name and tag columns where needed
+     * The response is parsed by the caller off the JavaFX thread; parseError is set if it was not valid JSON
+     * Returns the parse summary, or null if there was nothing to show
+     */
+    private InfluxResponseParser.ParsedResponse displayResultsInTable(String jsonResult, InfluxResponseParser.ParsedResponse parsed,
+                                                                      JSONException parseError) {
+        try {
+            // Check if response indicates an HTTP error
+            if (jsonResult.startsWith("ERROR")) {
+                System.err.println("HTTP Error response: " + jsonResult);
+                // Display error in raw results area for debugging
+                showRawResponse("HTTP Error: " + jsonResult);
+                // Clear table since there's no valid data to display
+                clearResultTable();
+                return null;
+            }
+            
+            // Debug logging - show first 200 characters of response
+            System.out.println("Raw response: " + jsonResult.substring(0, Math.min(200, jsonResult.length())));
+            
+            // Every statement and series has been combined into one table, with tag columns for GROUP BY series
+            if (parseError != null) {
+                throw parseError;
+            }
+            
+            if (parsed.getResult() == null) {
+                if (!parsed.getErrors().isEmpty()) {
+                    // Only errors - show them instead of a table
+                    String errorMsg = String.join("\n", parsed.getErrors());
+                    System.err.println("Query error: " + errorMsg);
+                    showRawResponse("Query Error: " + errorMsg);
+                } else if (parsed.getStatementCount() == 0) {
+                    System.out.println("No results in response");
+                    showRawResponse("No results in response.\n\nRaw response:\n" + jsonResult);
+                } else {
+                    // No series - this can happen with some queries like SHOW MEASUREMENTS
+                    System.out.println("No series in result - query may have returned no data");
+                    showRawResponse("Query executed successfully but returned no data.\n\nRaw response:\n" + jsonResult);
+                }
+                clearResultTable();
+                return null;
+            }
+            
+            // Some statements may have failed while others returned data - keep the data, log the errors
+            for (String error : parsed.getErrors()) {
+                System.err.println("Query error: " + error);
+            }
+            
+            // Populate typed columns and show them through the row index adapter
+            System.out.println("Parsed " + parsed.describe() + ", " + parsed.getResult().getRowCount() + " rows");
+            showResult(parsed.getResult());
+            return parsed;
+        } catch (JSONException e) {
+            System.err.println("Error parsing JSON: " + e.getMessage());
+            System.err.println("Raw response that caused error: " + jsonResult);
+            showRawResponse("JSON Parsing Error: " + e.getMessage() + "\n\nRaw response:\n" + jsonResult);
+            clearResultTable();
+            return null;
+        }
+    }
+    
+    /**
+     * Creates the table columns for the given column names
+     * Each column gets an Excel-like header; cells are formatted on demand from the columnar
+     * result, so only the rows currently on screen are ever turned into text
+     */
+    private void createResultColumns(List<String> columnNames) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            final int colIndex = i;
+            String columnName = columnNames.get(i);
+
+            // Create column header with sorting and filtering
+            VBox headerBox = createExcelLikeHeader(columnName, colIndex);
+
+            TableColumn<Integer, String> column = new TableColumn<>();
+            column.setGraphic(headerBox);
+            column.setCellValueFactory(data -> {
+                Integer row = data.getValue();
+                ColumnarResult result = currentResult;
+                if (row != null && result != null && colIndex < result.getColumnCount() && row < result.getRowCount()) {
+                    return new SimpleStringProperty(result.getDisplayValue(row, colIndex));
+                }
+                return new SimpleStringProperty("");
+            });
+
+            // Make columns resizable
+            column.setPrefWidth(180);
+            column.setResizable(true);
+
+            resultsTable.getColumns().add(column);
+        }
+    }
+
+    /**
+     * Creates an Excel-like column header with sorting and filtering controls
+     * Each header contains the column name and three control buttons:
+     * - Ascending sort (↑), Descending sort (↓), and Filter (🔍)
+     */
+    private VBox createExcelLikeHeader(String columnName, int columnIndex) {
+        // Create vertical container for header content
+        VBox headerBox = new VBox(2);
+        headerBox.setAlignment(Pos.CENTER);
+        
+        // Column name label with bold Arial font
+        Label nameLabel = new Label(columnName);
+        nameLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+        nameLabel.setAlignment(Pos.CENTER);
+        
+        // Horizontal row for control buttons
+        HBox controlsRow = new HBox(5);
+        controlsRow.setAlignment(Pos.CENTER);
+        
+        // Ascending sort button with up arrow and tooltip
+        Button sortAscButton = new Button("↑");
+        sortAscButton.setStyle("-fx-background-color: #E0E0E0; -fx-font-size: 10; -fx-min-width: 20; -fx-min-height: 20;");
         sortAscButton.setTooltip(new Tooltip("Sort ascending"));
         sortAscButton.setOnAction(e -> sortColumn(columnIndex, true));
         
@@ -1289,14 +2604,17 @@ public class InfluxDBJavaFXIDE extends Application {
     }
     
     private void updateRecordCount() {
-        int totalRecords = allResultsData != null ? allResultsData.size() : 0;
+        int totalRecords = currentResult != null ? currentResult.getRowCount() : 0;
         int filteredRecords = resultsTable.getItems().size();
         
         // Update the top record count label
-        if (totalRecords == filteredRecords) {
-            recordCountLabel.setText("Records: " + totalRecords);
+        String storageNote = currentResult != null && currentResult.isSpilled() ? " (spilled to disk)" : "";
+        int activeFilters = resultFilters != null ? resultFilters.getActiveCount() : 0;
+        String filterNote = activeFilters > 0 ? " (" + activeFilters + (activeFilters == 1 ? " filter)" : " filters)") : "";
+        if (totalRecords == filteredRecords && activeFilters == 0) {
+            recordCountLabel.setText("Records: " + totalRecords + storageNote);
         } else {
-            recordCountLabel.setText("Records: " + filteredRecords + " of " + totalRecords);
+            recordCountLabel.setText("Records: " + filteredRecords + " of " + totalRecords + filterNote + storageNote);
         }
         
         // Update the bottom record count display
@@ -1304,7 +2622,7 @@ public class InfluxDBJavaFXIDE extends Application {
         if (bottomRecordCount != null) {
             if (totalRecords == 0) {
                 bottomRecordCount.setText("No records");
-            } else if (totalRecords == filteredRecords) {
+            } else if (totalRecords == filteredRecords && activeFilters == 0) {
                 bottomRecordCount.setText(totalRecords + " records fetched");
             } else {
                 bottomRecordCount.setText(filteredRecords + " of " + totalRecords + " records (filtered)");
@@ -1312,32 +2630,42 @@ public class InfluxDBJavaFXIDE extends Application {
         }
     }
     
+    /**
+     * Sorts the table by a column, keeping the active filters
+     * The permutation is computed in the background by the result's ColumnSorter and cached per column,
+     * so switching direction or re-sorting a column does not sort again
+     */
     private void sortColumn(int columnIndex, boolean ascending) {
-        if (allResultsData == null) return;
+        if (currentResult == null || columnSorter == null) return;
         
-        // Create a copy of current data for sorting
-        ObservableList<ObservableList<String>> currentData = FXCollections.observableArrayList(resultsTable.getItems());
+        ColumnSorter sorter = columnSorter;
+        recordCountLabel.setText("Sorting...");
         
-        // Sort the data
-        currentData.sort((row1, row2) -> {
-            if (row1.size() <= columnIndex || row2.size() <= columnIndex) {
-                return 0;
+        readResultInBackground(() -> sorter.sort(columnIndex, ascending), (permutation, throwable) -> {
+            // Ignore sorts of a result that has been replaced meanwhile
+            if (sorter != columnSorter) {
+                return;
             }
-            
-            String value1 = row1.get(columnIndex);
-            String value2 = row2.get(columnIndex);
-            
-            int comparison = value1.compareToIgnoreCase(value2);
-            return ascending ? comparison : -comparison;
+            if (throwable != null) {
+                System.err.println("Sort failed: " + throwable.getMessage());
+                updateRecordCount();
+                return;
+            }
+            sortColumnIndex = columnIndex;
+            sortAscending = ascending;
+            sortPermutation = permutation;
+            publishFilteredRows();
         });
-        
-        // Update table with sorted data
-        resultsTable.setItems(currentData);
-        updateRecordCount();
+    }
+    
+    private void resetSort() {
+        sortColumnIndex = -1;
+        sortAscending = true;
+        sortPermutation = null;
     }
     
     private void showColumnFilter(int columnIndex, String columnName) {
-        if (allResultsData == null) return;
+        if (currentResult == null) return;
         
         // Create filter dialog
         Stage filterStage = new Stage();
@@ -1355,8 +2683,9 @@ public class InfluxDBJavaFXIDE extends Application {
         
         // Filter type selection
         ComboBox<String> filterTypeCombo = new ComboBox<>();
-        filterTypeCombo.getItems().addAll("Contains", "Starts with", "Ends with", "Equals", "Not equals");
-        filterTypeCombo.setValue("Contains");
+        filterTypeCombo.getItems().addAll(ResultFilters.CONTAINS, ResultFilters.STARTS_WITH,
+            ResultFilters.ENDS_WITH, ResultFilters.EQUALS, ResultFilters.NOT_EQUALS);
+        filterTypeCombo.setValue(ResultFilters.CONTAINS);
         
         // Filter value
         TextField filterValueField = new TextField();
@@ -1394,91 +2723,121 @@ public class InfluxDBJavaFXIDE extends Application {
         filterStage.showAndWait();
     }
     
+    /**
+     * Filters one column and combines it with the other active filters
+     * Only this column is evaluated (in the background); the other filters keep their row bitmaps
+     */
     private void applyColumnFilter(int columnIndex, String filterType, String filterValue) {
-        if (allResultsData == null || filterValue.isEmpty()) return;
+        if (currentResult == null || resultFilters == null) return;
+        if (filterValue.isEmpty()) {
+            clearColumnFilter(columnIndex);
+            return;
+        }
         
-        // Apply the filter
-        ObservableList<ObservableList<String>> filteredData = FXCollections.observableArrayList();
+        ColumnarResult result = currentResult;
+        ResultFilters filters = resultFilters;
+        recordCountLabel.setText("Filtering...");
         
-        for (ObservableList<String> row : allResultsData) {
-            if (row.size() > columnIndex) {
-                String cellValue = row.get(columnIndex).toLowerCase();
-                String searchValue = filterValue.toLowerCase();
-                
-                boolean matches = false;
-                switch (filterType) {
-                    case "Contains":
-                        matches = cellValue.contains(searchValue);
-                        break;
-                    case "Starts with":
-                        matches = cellValue.startsWith(searchValue);
-                        break;
-                    case "Ends with":
-                        matches = cellValue.endsWith(searchValue);
-                        break;
-                    case "Equals":
-                        matches = cellValue.equals(searchValue);
-                        break;
-                    case "Not equals":
-                        matches = !cellValue.equals(searchValue);
-                        break;
-                }
-                
-                if (matches) {
-                    filteredData.add(row);
-                }
+        readResultInBackground(() -> ResultFilters.evaluate(result, columnIndex, filterType, filterValue), (bitmap, throwable) -> {
+            // Ignore results for a result that has been replaced meanwhile
+            if (filters != resultFilters) {
+                return;
             }
-        }
-        
-        resultsTable.setItems(filteredData);
-        updateRecordCount();
+            if (throwable != null) {
+                System.err.println("Column filter failed: " + throwable.getMessage());
+                updateRecordCount();
+                return;
+            }
+            filters.setColumnFilter(columnIndex, filterType, filterValue, bitmap);
+            publishFilteredRows();
+        });
     }
     
     private void clearColumnFilter(int columnIndex) {
-        // Reset to show all data (respecting global filter)
-        if (filterField.getText().isEmpty()) {
-            resultsTable.setItems(allResultsData);
+        if (resultFilters == null) return;
+        
+        // Drop only this column's bitmap; the global filter and other columns stay as they are
+        resultFilters.clearColumnFilter(columnIndex);
+        publishFilteredRows();
+    }
+    
+    /**
+     * Shows the rows passing all active filters, or every row if none is active
+     */
+    private void publishFilteredRows() {
+        RowBitmap visible = resultFilters != null ? resultFilters.visibleBitmap() : null;
+        if (sortPermutation != null) {
+            // Walk the sort order and keep the visible rows
+            int[] rows = new int[visible != null ? visible.cardinality() : sortPermutation.length];
+            int count = 0;
+            for (int row : sortPermutation) {
+                if (visible == null || visible.get(row)) {
+                    rows[count++] = row;
+                }
+            }
+            resultsTable.setItems(RowIndexList.of(rows, count));
+        } else if (visible == null) {
+            resultsTable.setItems(allRowIndices);
         } else {
-            applyGlobalFilter();
+            int[] rows = visible.toRows();
+            resultsTable.setItems(RowIndexList.of(rows, rows.length));
         }
         updateRecordCount();
     }
     
+    /**
+     * Applies the global filter text to the current result
+     * The scan runs in the background on the result's filter index; only the newest run publishes its matches
+     */
     private void applyGlobalFilter() {
-        if (allResultsData == null) return;
+        if (currentResult == null || resultFilters == null) return;
         
-        String filterText = filterField.getText().toLowerCase();
+        String filterText = filterField.getText();
+        int generation = filterGeneration.incrementAndGet();
         
         if (filterText.isEmpty()) {
-            // Show all data
-            resultsTable.setItems(allResultsData);
-        } else {
-            // Filter data across all columns
-            ObservableList<ObservableList<String>> filteredData = FXCollections.observableArrayList();
-            
-            for (ObservableList<String> row : allResultsData) {
-                boolean matches = false;
-                for (String cell : row) {
-                    if (cell.toLowerCase().contains(filterText)) {
-                        matches = true;
-                        break;
-                    }
-                }
-                if (matches) {
-                    filteredData.add(row);
-                }
-            }
-            
-            resultsTable.setItems(filteredData);
+            // Remove the global filter; column filters still apply
+            resultFilters.setGlobalMatches(null);
+            publishFilteredRows();
+            return;
         }
         
-        updateRecordCount();
+        if (globalFilter == null || globalFilter.getResult() != currentResult) {
+            globalFilter = new GlobalFilter(currentResult);
+        }
+        GlobalFilter filter = globalFilter;
+        recordCountLabel.setText("Filtering...");
+        
+        // Filter data across all columns off the JavaFX thread
+        readResultInBackground(() -> filter.filter(filterText, () -> filterGeneration.get() != generation), (matches, throwable) -> {
+            if (throwable != null) {
+                System.err.println("Global filter failed: " + throwable.getMessage());
+            }
+            // Drop results of superseded runs or of a result that has been replaced meanwhile
+            if (generation != filterGeneration.get() || filter.getResult() != currentResult) {
+                return;
+            }
+            if (matches != null) {
+                resultFilters.setGlobalMatches(matches);
+                publishFilteredRows();
+            } else {
+                updateRecordCount();
+            }
+        });
     }
     
     private void clearAllFilters() {
+        filterDebounce.stop();
+        filterGeneration.incrementAndGet();
         filterField.clear();
-        resultsTable.setItems(allResultsData);
-        updateRecordCount();
+        if (resultFilters != null) {
+            resultFilters.clearAll();
+        }
+        if (allRowIndices != null) {
+            publishFilteredRows();
+        } else {
+            updateRecordCount();
+        }
     }
     
     /**
@@ -1528,14 +2887,16 @@ public class InfluxDBJavaFXIDE extends Application {
     
 
     private void clearResults() {
-        rawResultArea.clear();
-        resultsTable.getColumns().clear();
-        resultsTable.getItems().clear();
+        showRawResponse("");
+        if (stopLiveTail()) {
+            executeButton.setDisable(false);
+            progressIndicator.setVisible(false);
+        }
+        clearResultTable();
         
         // Reset filter controls
         filterField.clear();
         recordCountLabel.setText("Records: 0");
-        allResultsData = null;
         
         // Reset bottom record count display
         Label bottomRecordCount = (Label) mainStage.getScene().lookup("#bottomRecordCount");
@@ -1555,84 +2916,103 @@ public class InfluxDBJavaFXIDE extends Application {
     }
 
     /**
-     * Exports the current table data to a CSV file
+     * Exports the current table data to CSV, gzipped CSV, Parquet, Arrow IPC or line protocol
      * Respects current filtering and sorting applied to the results
-     * Shows file chooser dialog and handles CSV formatting with proper escaping
-     * Uses multi-threading to keep UI responsive during export
+     * The view is snapshotted on the FX thread and written by the ResultExporter matching the chosen
+     * file type in the background, with live rows/s progress in the status bar
      */
-    private void exportToCSV() {
+    private void exportResults() {
         try {
             // Check if there's data to export (respects current filtering)
-            if (resultsTable.getItems().isEmpty()) {
+            if (currentResult == null || resultsTable.getItems().isEmpty()) {
                 showAlert("Export Error", "No data to export. Please run a query first.");
                 return;
             }
             
-            // Create file chooser dialog for saving CSV file
+            // Create file chooser dialog; the selected filter decides the format
             FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Export to CSV");
-            fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("CSV Files", "*.csv")
-            );
+            fileChooser.setTitle("Export Results");
+            FileChooser.ExtensionFilter csvFilter = new FileChooser.ExtensionFilter("CSV Files", "*.csv");
+            FileChooser.ExtensionFilter gzipFilter = new FileChooser.ExtensionFilter("Gzipped CSV Files", "*.csv.gz");
+            FileChooser.ExtensionFilter parquetFilter = new FileChooser.ExtensionFilter("Parquet Files", "*.parquet");
+            FileChooser.ExtensionFilter arrowFilter = new FileChooser.ExtensionFilter("Arrow IPC / Feather Files", "*.arrow", "*.feather");
+            FileChooser.ExtensionFilter lineProtocolFilter = new FileChooser.ExtensionFilter("Line Protocol Files", "*.lp", "*.lp.gz");
+            FileChooser.ExtensionFilter jsonLinesFilter = new FileChooser.ExtensionFilter("JSON Lines Files", "*.jsonl", "*.jsonl.gz");
+            fileChooser.getExtensionFilters().addAll(csvFilter, gzipFilter, parquetFilter, arrowFilter, lineProtocolFilter, jsonLinesFilter);
             
             // Generate default filename based on current record count
             int recordCount = resultsTable.getItems().size();
-            String fileName = "influxdb_export_" + recordCount + "_records.csv";
-            fileChooser.setInitialFileName(fileName);
+            String fileName = "influxdb_export_" + recordCount + "_records";
+            fileChooser.setInitialFileName(fileName + ".csv");
             
             // Show save dialog and get selected file
-            File file = fileChooser.showSaveDialog(mainStage);
-            if (file != null) {
+            File selectedFile = fileChooser.showSaveDialog(mainStage);
+            if (selectedFile != null) {
+                // Add the extension of the selected filter if the name has none of the known ones
+                File file = withExtension(selectedFile, fileChooser);
+                
+                // Capture the current view on the FX thread; streamed rows are held back until the export is done
+                ColumnarResult result = currentResult;
+                int[] rows = ((RowIndexList) resultsTable.getItems()).toRowArray();
+                int totalRecords = result.getRowCount();
+                ResultExporter exporter;
+                String lowerName = file.getName().toLowerCase();
+                if (lowerName.endsWith(".lp") || lowerName.endsWith(".lp.gz")) {
+                    // Line protocol needs to know which columns are tags
+                    exporter = showLineProtocolDialog(result, rows, file);
+                    if (exporter == null) {
+                        return;
+                    }
+                } else {
+                    exporter = ResultExporter.forFile(file, result, rows);
+                }
+                String formatName = exporter.getFormatName();
+                
                 // Show progress indicator and update status
                 progressIndicator.setVisible(true);
-                statusLabel.setText("Exporting CSV...");
+                statusLabel.setText("Exporting " + formatName + "...");
+                long startNanos = System.nanoTime();
+                AtomicLong lastProgressNanos = new AtomicLong();
                 
-                // Export CSV data in background thread to keep UI responsive
-                CompletableFuture.runAsync(() -> {
+                // Export in background thread to keep UI responsive
+                readResultInBackground(() -> {
                     try {
-                        // Write CSV data
-                        try (java.io.PrintWriter writer = new java.io.PrintWriter(file)) {
-                            // Write header
-                            StringBuilder header = new StringBuilder();
-                            for (TableColumn<ObservableList<String>, ?> column : resultsTable.getColumns()) {
-                                if (header.length() > 0) header.append(",");
-                                header.append("\"").append(column.getText()).append("\"");
+                        long bytesWritten = exporter.export(file, (rowsWritten, bytes) -> {
+                            // Report live throughput at most a few times per second
+                            long now = System.nanoTime();
+                            if (now - lastProgressNanos.get() < 200_000_000L && rowsWritten < rows.length) {
+                                return;
                             }
-                            writer.println(header.toString());
-                            
-                            // Write data rows (current filtered/sorted data)
-                            for (ObservableList<String> row : resultsTable.getItems()) {
-                                StringBuilder csvRow = new StringBuilder();
-                                for (String cell : row) {
-                                    if (csvRow.length() > 0) csvRow.append(",");
-                                    // Escape quotes and wrap in quotes if contains comma or newline
-                                    String escapedCell = cell.replace("\"", "\"\"");
-                                    if (escapedCell.contains(",") || escapedCell.contains("\n") || escapedCell.contains("\"")) {
-                                        csvRow.append("\"").append(escapedCell).append("\"");
-                                    } else {
-                                        csvRow.append(escapedCell);
-                                    }
-                                }
-                                writer.println(csvRow.toString());
-                            }
-                        }
+                            lastProgressNanos.set(now);
+                            long rowsPerSecond = rowsWritten * 1_000_000_000L / Math.max(1, now - startNanos);
+                            javafx.application.Platform.runLater(() -> statusLabel.setText(
+                                "Exporting " + formatName + "... " + rowsWritten + " of " + rows.length + " rows ("
+                                    + rowsPerSecond + " rows/s, " + TransferStats.formatBytes(bytes) + " written)"));
+                        });
+                        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+                        System.out.println("Exported " + rows.length + " rows as " + formatName + " ("
+                            + TransferStats.formatBytes(bytesWritten) + ") to " + file + " in " + elapsedMillis + " ms");
                         
                         // Update UI on JavaFX thread after successful export
                         javafx.application.Platform.runLater(() -> {
                             progressIndicator.setVisible(false);
                             
-                            String exportMessage = "Data exported to CSV successfully: " + file.getName();
-                            if (allResultsData != null && allResultsData.size() != recordCount) {
-                                exportMessage += " (" + recordCount + " of " + allResultsData.size() + " records)";
+                            String exportMessage = "Data exported to " + formatName + " successfully: " + file.getName();
+                            if (totalRecords != recordCount) {
+                                exportMessage += " (" + recordCount + " of " + totalRecords + " records)";
+                            }
+                            if (exporter instanceof LineProtocolExporter && ((LineProtocolExporter) exporter).getSkippedRows() > 0) {
+                                exportMessage += ", " + ((LineProtocolExporter) exporter).getSkippedRows() + " rows without fields skipped";
                             }
+                            exportMessage += " in " + elapsedMillis + " ms";
                             statusLabel.setText(exportMessage);
                             
                             // Show success dialog
                             Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
                             successAlert.setTitle("Export Successful");
-                            successAlert.setHeaderText("CSV Export Complete");
+                            successAlert.setHeaderText(formatName + " Export Complete");
                             successAlert.setContentText("Data has been successfully exported to:\n" + file.getAbsolutePath() + 
-                                "\n\nRecords exported: " + recordCount);
+                                "\n\nRecords exported: " + recordCount + "\nFile size: " + TransferStats.formatBytes(bytesWritten));
                             successAlert.showAndWait();
                         });
                         
@@ -1641,15 +3021,274 @@ public class InfluxDBJavaFXIDE extends Application {
                         javafx.application.Platform.runLater(() -> {
                             progressIndicator.setVisible(false);
                             statusLabel.setText("Export failed");
-                            showAlert("Export Error", "Failed to export CSV: " + e.getMessage());
+                            showAlert("Export Error", "Failed to export " + formatName + ": " + e.getMessage());
                         });
                     }
+                    return null;
+                }, (ignored, throwable) -> {
+                    // The export reports its own outcome
                 });
                 
             }
         } catch (Exception e) {
-            showAlert("Export Error", "Failed to export CSV: " + e.getMessage());
+            showAlert("Export Error", "Failed to export results: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Asks how the result maps onto line protocol: measurement, tag / field / skipped columns and lines per file
+     * Tag columns are preselected from SHOW TAG KEYS of the measurement, loaded in the background
+     * Returns null if the dialog was cancelled
+     */
+    private LineProtocolExporter showLineProtocolDialog(ColumnarResult result, int[] rows, File file) {
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.initOwner(mainStage);
+        dialog.setTitle("Line Protocol Export");
+        
+        VBox layout = new VBox(10);
+        layout.setPadding(new Insets(20));
+        
+        Label titleLabel = new Label("Export " + rows.length + " rows as line protocol");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+        
+        // Measurement: fixed name (from the query) or per row from a column such as the series name
+        TextField measurementField = new TextField(LineProtocolExporter.measurementFromQuery(queryArea.getText()));
+        measurementField.setPromptText("Measurement name");
+        ComboBox<String> measurementColumnCombo = new ComboBox<>();
+        measurementColumnCombo.getItems().add(LINE_PROTOCOL_FIXED_MEASUREMENT);
+        for (String name : result.getColumnNames()) {
+            if (result.getColumn(result.indexOfColumn(name)).getType() == ColumnarResult.ColumnType.STRING) {
+                measurementColumnCombo.getItems().add(name);
+            }
+        }
+        measurementColumnCombo.setValue(result.indexOfColumn(InfluxResponseParser.NAME_COLUMN) >= 0
+            ? InfluxResponseParser.NAME_COLUMN : LINE_PROTOCOL_FIXED_MEASUREMENT);
+        HBox measurementRow = new HBox(10, new Label("Measurement:"), measurementField, new Label("or from column:"), measurementColumnCombo);
+        measurementRow.setAlignment(Pos.CENTER_LEFT);
+        
+        // Role of every column; the time column always becomes the timestamp
+        GridPane rolesGrid = new GridPane();
+        rolesGrid.setHgap(10);
+        rolesGrid.setVgap(5);
+        java.util.Map<String, ComboBox<String>> roleCombos = new java.util.LinkedHashMap<>();
+        int gridRow = 0;
+        for (String name : result.getColumnNames()) {
+            ColumnarResult.Column column = result.getColumn(result.indexOfColumn(name));
+            if ("time".equals(name) && column.getType() == ColumnarResult.ColumnType.TIME) {
+                continue;
+            }
+            ComboBox<String> roleCombo = new ComboBox<>();
+            roleCombo.getItems().addAll(LINE_PROTOCOL_TAG, LINE_PROTOCOL_FIELD, LINE_PROTOCOL_SKIP);
+            roleCombo.setValue(LINE_PROTOCOL_FIELD);
+            roleCombos.put(name, roleCombo);
+            rolesGrid.add(new Label(name), 0, gridRow);
+            rolesGrid.add(new Label(column.getType().toString().toLowerCase()), 1, gridRow);
+            rolesGrid.add(roleCombo, 2, gridRow);
+            gridRow++;
+        }
+        ScrollPane rolesScroll = new ScrollPane(rolesGrid);
+        rolesScroll.setPrefHeight(Math.min(300, 35 * gridRow + 10));
+        rolesScroll.setFitToWidth(true);
+        
+        // Schema types of the fields, so integer-valued columns of float fields stay floats
+        java.util.Map<String, String> fieldTypes = new java.util.HashMap<>();
+        Label schemaLabel = new Label();
+        schemaLabel.setStyle("-fx-text-fill: #666666;");
+        Button loadTagsButton = new Button("Load Schema");
+        loadTagsButton.setOnAction(e -> loadExportSchema(measurementField.getText(), roleCombos, fieldTypes, schemaLabel));
+        HBox schemaRow = new HBox(10, loadTagsButton, schemaLabel);
+        schemaRow.setAlignment(Pos.CENTER_LEFT);
+        
+        // Lines per output file; 0 writes everything into one file
+        Spinner<Integer> batchSpinner = new Spinner<>(0, Integer.MAX_VALUE, 0, 100000);
+        batchSpinner.setEditable(true);
+        batchSpinner.setPrefWidth(130);
+        HBox batchRow = new HBox(10, new Label("Lines per file (0 = one file):"), batchSpinner);
+        batchRow.setAlignment(Pos.CENTER_LEFT);
+        
+        LineProtocolExporter[] chosen = new LineProtocolExporter[1];
+        Button exportButton = new Button("Export");
+        exportButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
+        exportButton.setOnAction(e -> {
+            String measurementColumn = measurementColumnCombo.getValue();
+            if (measurementField.getText().trim().isEmpty() && LINE_PROTOCOL_FIXED_MEASUREMENT.equals(measurementColumn)) {
+                showAlert("Line Protocol Export", "Enter a measurement name or choose a measurement column.");
+                return;
+            }
+            LineProtocolExporter.Mapping mapping = new LineProtocolExporter.Mapping().measurement(measurementField.getText().trim());
+            if (!LINE_PROTOCOL_FIXED_MEASUREMENT.equals(measurementColumn)) {
+                mapping.measurementColumn(measurementColumn);
+            }
+            roleCombos.forEach((name, combo) -> {
+                if (LINE_PROTOCOL_TAG.equals(combo.getValue())) {
+                    mapping.tag(name);
+                } else if (LINE_PROTOCOL_SKIP.equals(combo.getValue())) {
+                    mapping.skip(name);
+                }
+            });
+            fieldTypes.forEach(mapping::fieldType);
+            chosen[0] = new LineProtocolExporter(result, rows, mapping, batchSpinner.getValue(),
+                file.getName().toLowerCase().endsWith(".gz"));
+            dialog.close();
+        });
+        Button cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(e -> dialog.close());
+        HBox buttonBox = new HBox(10, exportButton, cancelButton);
+        buttonBox.setAlignment(Pos.CENTER_RIGHT);
+        
+        layout.getChildren().addAll(titleLabel, measurementRow, new Label("Columns:"), rolesScroll, schemaRow, batchRow, buttonBox);
+        dialog.setScene(new Scene(layout, 620, Math.min(620, 330 + 35 * gridRow)));
+        
+        // Preselect tag columns and pick up field types from the schema of the measurement
+        if (!measurementField.getText().isEmpty()) {
+            loadExportSchema(measurementField.getText(), roleCombos, fieldTypes, schemaLabel);
+        }
+        dialog.showAndWait();
+        return chosen[0];
+    }
+    
+    /**
+     * Brings the schema cache up to date in the background
+     * measurementsResponse is a SHOW MEASUREMENTS answer already at hand (or null); only refreshes the user
+     * asked for are reported in the status bar
+     */
+    private void refreshSchema(String measurementsResponse, long maxAgeMillis, boolean reportStatus) {
+        if (reportStatus) {
+            statusLabel.setText("Refreshing schema...");
+        }
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return schemaCache.refresh(InfluxHttpClient.forProfile(protocol, host, skipSSLValidation), token,
+                    measurementsResponse, maxAgeMillis);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((summary, throwable) -> javafx.application.Platform.runLater(() -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                System.err.println("Schema refresh failed: " + cause.getMessage());
+                if (reportStatus) {
+                    statusLabel.setText("Schema refresh failed: " + cause.getMessage());
+                }
+                return;
+            }
+            System.out.println("Schema cache: " + summary);
+            if (reportStatus) {
+                statusLabel.setText("Schema: " + summary);
+            }
+        }));
+    }
+    
+    /**
+     * Completes the word at the caret from the schema cache
+     * A single candidate is inserted directly, several are offered in a popup at the caret
+     */
+    private void showCompletions() {
+        SchemaCache.Completion completion = schemaCache.complete(queryArea.getText(), queryArea.getCaretPosition());
+        java.util.Map<String, String> candidates = completion.getCandidates();
+        if (candidates.isEmpty()) {
+            statusLabel.setText(schemaCache.getMeasurements().isEmpty() ? "Schema not loaded yet" : "No completions");
+            return;
         }
+        if (candidates.size() == 1) {
+            insertCompletion(completion, candidates.keySet().iterator().next());
+            return;
+        }
+        
+        completionMenu.getItems().clear();
+        candidates.entrySet().stream().limit(MAX_COMPLETIONS).forEach(candidate -> {
+            MenuItem item = new MenuItem(candidate.getKey() + "  (" + candidate.getValue() + ")");
+            item.setMnemonicParsing(false);
+            item.setOnAction(e -> insertCompletion(completion, candidate.getKey()));
+            completionMenu.getItems().add(item);
+        });
+        
+        // The skin reports the caret position on screen through the input method requests
+        Point2D caret = queryArea.getInputMethodRequests() != null ? queryArea.getInputMethodRequests().getTextLocation(0) : null;
+        if (caret != null) {
+            completionMenu.show(queryArea, caret.getX(), caret.getY());
+        } else {
+            completionMenu.show(queryArea, Side.BOTTOM, 0, 0);
+        }
+    }
+    
+    private void insertCompletion(SchemaCache.Completion completion, String candidate) {
+        if (completion.getEnd() > queryArea.getLength()) {
+            return;
+        }
+        queryArea.replaceText(completion.getStart(), completion.getEnd(), candidate);
+        queryArea.positionCaret(completion.getStart() + candidate.length());
+    }
+    
+    /**
+     * Runs SHOW TAG KEYS and SHOW FIELD KEYS for the measurement in the background, marks matching columns as tags
+     * and records the field types for the export
+     * A schema already in the schema cache is used without asking the server
+     */
+    private void loadExportSchema(String measurement, java.util.Map<String, ComboBox<String>> roleCombos,
+            java.util.Map<String, String> fieldTypes, Label schemaLabel) {
+        if (host == null || measurement.trim().isEmpty()) {
+            schemaLabel.setText("Not connected - choose tag columns by hand");
+            return;
+        }
+        SchemaCache.Measurement cached = schemaCache != null ? schemaCache.getMeasurements().get(measurement.trim()) : null;
+        if (cached != null && !cached.getTagKeys().isEmpty() && !cached.getFieldTypes().isEmpty()) {
+            applyExportSchema(cached.getTagKeys(), cached.getFieldTypes(), roleCombos, fieldTypes, schemaLabel);
+            return;
+        }
+        schemaLabel.setText("Loading schema of " + measurement + "...");
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                InfluxHttpClient client = InfluxHttpClient.forProfile(protocol, host, skipSSLValidation);
+                return new java.util.AbstractMap.SimpleEntry<>(client.tagKeys(token, database, measurement),
+                    client.fieldKeys(token, database, measurement));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((schema, throwable) -> javafx.application.Platform.runLater(() -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                schemaLabel.setText("Could not load schema: " + cause.getMessage());
+                return;
+            }
+            applyExportSchema(schema.getKey(), schema.getValue(), roleCombos, fieldTypes, schemaLabel);
+        }));
+    }
+    
+    private static void applyExportSchema(java.util.Set<String> tagKeys, java.util.Map<String, String> schemaFieldTypes,
+            java.util.Map<String, ComboBox<String>> roleCombos, java.util.Map<String, String> fieldTypes, Label schemaLabel) {
+        int matched = 0;
+        for (java.util.Map.Entry<String, ComboBox<String>> entry : roleCombos.entrySet()) {
+            if (tagKeys.contains(entry.getKey())) {
+                entry.getValue().setValue(LINE_PROTOCOL_TAG);
+                matched++;
+            }
+        }
+        fieldTypes.clear();
+        fieldTypes.putAll(schemaFieldTypes);
+        schemaLabel.setText(tagKeys.size() + " tag keys in schema, " + matched + " matched to columns, "
+            + schemaFieldTypes.size() + " field types");
+    }
+    
+    /**
+     * Appends the first extension of the selected filter unless the file already ends with an extension
+     * of any of the chooser's filters
+     */
+    private static File withExtension(File file, FileChooser fileChooser) {
+        FileChooser.ExtensionFilter selected = fileChooser.getSelectedExtensionFilter();
+        if (selected == null) {
+            return file;
+        }
+        String name = file.getName().toLowerCase();
+        for (FileChooser.ExtensionFilter filter : fileChooser.getExtensionFilters()) {
+            for (String pattern : filter.getExtensions()) {
+                if (name.endsWith(pattern.substring(1))) {
+                    return file;
+                }
+            }
+        }
+        return new File(file.getParentFile(), file.getName() + selected.getExtensions().get(0).substring(1));
     }
     
     /**
@@ -1665,8 +3304,8 @@ public class InfluxDBJavaFXIDE extends Application {
                 settingsDir.mkdirs();
             }
             
-            // Create properties object and populate with connection details
-            Properties props = new Properties();
+            // Start from the existing settings so other preferences are kept, then update connection details
+            Properties props = loadSettings();
             props.setProperty("protocol", protocol);
             props.setProperty("host", host);
             props.setProperty("database", database);
@@ -1694,6 +3333,9 @@ public class InfluxDBJavaFXIDE extends Application {
         props.setProperty("host", "");
         props.setProperty("database", "");
         props.setProperty("skipSSLValidation", "false");
+        props.setProperty("cache.maxMB", DEFAULT_CACHE_MAX_MB);
+        props.setProperty("cache.ttlSeconds", DEFAULT_CACHE_TTL_SECONDS);
+        props.setProperty("storage.spillThresholdMB", DEFAULT_SPILL_THRESHOLD_MB);
         
         try {
             // Check if settings file exists in user home directory
@@ -1716,6 +3358,72 @@ public class InfluxDBJavaFXIDE extends Application {
         return props;
     }
 
+    /**
+     * Releases long-lived query resources when the application exits
+     */
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (flightEngine != null) {
+                try {
+                    flightEngine.close();
+                } catch (Exception e) {
+                    System.err.println("Failed to close Flight client: " + e.getMessage());
+                }
+                flightEngine = null;
+            }
+        }
+    }
+
+    /**
+     * Creates the query result cache from the cache.maxMB and cache.ttlSeconds settings
+     * Falls back to the defaults if a value is not a valid number
+     */
+    private QueryResultCache createQueryCache(Properties settings) {
+        long maxMB;
+        long ttlSeconds;
+        try {
+            maxMB = Long.parseLong(settings.getProperty("cache.maxMB", DEFAULT_CACHE_MAX_MB).trim());
+            ttlSeconds = Long.parseLong(settings.getProperty("cache.ttlSeconds", DEFAULT_CACHE_TTL_SECONDS).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid cache settings, using defaults: " + e.getMessage());
+            maxMB = Long.parseLong(DEFAULT_CACHE_MAX_MB);
+            ttlSeconds = Long.parseLong(DEFAULT_CACHE_TTL_SECONDS);
+        }
+        System.out.println("Query cache: " + maxMB + " MB budget, " + ttlSeconds + " s TTL");
+        return new QueryResultCache(maxMB * 1024 * 1024, ttlSeconds * 1000);
+    }
+
+    /**
+     * Applies the storage.spillThresholdMB setting and removes spill files left by earlier runs
+     */
+    private void configureSpillStorage(Properties settings) {
+        long thresholdMB;
+        try {
+            thresholdMB = Long.parseLong(settings.getProperty("storage.spillThresholdMB", DEFAULT_SPILL_THRESHOLD_MB).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid spill threshold, using default: " + e.getMessage());
+            thresholdMB = Long.parseLong(DEFAULT_SPILL_THRESHOLD_MB);
+        }
+        SpillStorage.setThresholdBytes(thresholdMB * 1024 * 1024);
+        SpillStorage.cleanUpStaleSegments();
+        System.out.println("Results spill to disk beyond " + thresholdMB + " MB of heap per result");
+    }
+
+    /**
+     * Reads the schema.maxAgeMinutes setting in milliseconds
+     */
+    private long readSchemaMaxAge(Properties settings) {
+        long minutes;
+        try {
+            minutes = Long.parseLong(settings.getProperty("schema.maxAgeMinutes", DEFAULT_SCHEMA_MAX_AGE_MINUTES).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid schema max age, using default: " + e.getMessage());
+            minutes = Long.parseLong(DEFAULT_SCHEMA_MAX_AGE_MINUTES);
+        }
+        return minutes * 60 * 1000;
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
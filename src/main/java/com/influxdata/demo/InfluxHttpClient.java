@@ -0,0 +1,656 @@
+package com.influxdata.demo;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Long-lived HTTP transport for the InfluxDB v1 /query endpoint
+ * One instance exists per connection profile (protocol, host, SSL mode, connect timeout); it wraps a shared
+ * java.net.http.HttpClient that keeps sockets alive between queries and negotiates HTTP/2
+ * when the server supports it, so only the first query pays for TCP and TLS setup
+ * Responses are requested gzip-compressed and decompressed on the fly as the body is read
+ */
+public class InfluxHttpClient {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(10);
+    private static final String USER_AGENT = "InfluxDB-IDE/1.0";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    // Shared clients, one per connection profile
+    private static final Map<String, InfluxHttpClient> PROFILES = new ConcurrentHashMap<>();
+    // Closes response bodies that stop delivering data for longer than the read timeout
+    private static final ScheduledExecutorService BODY_WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "influx-body-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+
+    private InfluxHttpClient(String protocol, String host, boolean skipSSLValidation, Duration connectTimeout) {
+        this.baseUrl = protocol + "://" + host;
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL);
+
+        if ("https".equalsIgnoreCase(protocol) && skipSSLValidation) {
+            System.out.println("SSL Certificate validation will be skipped for " + host);
+            // Scoped to this client: the trust manager skips the certificate and host checks, nothing JVM-wide is changed
+            SSLParameters parameters = new SSLParameters();
+            parameters.setEndpointIdentificationAlgorithm(null);
+            builder.sslContext(trustAllContext()).sslParameters(parameters);
+        }
+
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * Returns the shared client for a connection profile, creating it on first use
+     */
+    public static InfluxHttpClient forProfile(String protocol, String host, boolean skipSSLValidation) {
+        return forProfile(protocol, host, skipSSLValidation, DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Returns the shared client for a connection profile with the given connect timeout
+     * The connect timeout is fixed per HttpClient, so each distinct timeout gets its own pooled client
+     */
+    public static InfluxHttpClient forProfile(String protocol, String host, boolean skipSSLValidation, Duration connectTimeout) {
+        String key = protocol.toLowerCase() + "://" + host + "|" + skipSSLValidation + "|" + connectTimeout.toMillis();
+        return PROFILES.computeIfAbsent(key, k -> new InfluxHttpClient(protocol, host, skipSSLValidation, connectTimeout));
+    }
+
+    /**
+     * Executes a query and returns the JSON response body
+     * On an HTTP error the result is "ERROR <code>: <details>" instead, matching what the UI expects
+     */
+    public String query(String token, String database, String query) throws IOException, InterruptedException {
+        return query(token, database, query, DEFAULT_READ_TIMEOUT, new QueryCancellation(), new TransferStats());
+    }
+
+    /**
+     * Executes a query that can be aborted through the given cancellation handle
+     * The read timeout bounds the wait for the response headers (InfluxDB answers once the query has been evaluated)
+     * and every pause in the body after them; null or zero means no limit. Throws HttpTimeoutException when it
+     * runs out and CancellationException if the query was cancelled
+     * The body is decoded straight from the (decompressing) stream into the result text; byte counts go to stats
+     */
+    public String query(String token, String database, String query, Duration readTimeout,
+                        QueryCancellation cancellation, TransferStats stats) throws IOException, InterruptedException {
+        HttpRequest request = buildRequest(token, database, query, "", readTimeout);
+
+        HttpResponse<InputStream> response = send(request, cancellation, stats);
+        System.out.println("Response Code: " + response.statusCode() + " (" + response.version() + ", "
+            + (stats.getTimeToFirstByteNanos() / 1_000_000) + " ms to headers)");
+
+        try (InputStream body = openBody(response, readTimeout, cancellation, stats)) {
+            String text = readText(body);
+            stats.markBodyRead();
+            System.out.println("Transfer: " + stats.describe());
+            if (response.statusCode() != 200) {
+                String errorResult = formatError(response.statusCode(), text);
+                System.out.println("Error response: " + errorResult);
+                return errorResult;
+            }
+            System.out.println("Success response length: " + text.length());
+            return text;
+        } catch (IOException e) {
+            cancellation.throwIfCancelled();
+            throw e;
+        }
+    }
+
+    /**
+     * Executes a query in chunked mode and hands every chunk to the given consumer
+     * Sends chunked=true&chunk_size=N and reads the response with a streaming JSON tokenizer,
+     * so only one chunk is materialized at a time regardless of the total result size
+     * Returns the number of chunks received, throws IOException on HTTP errors
+     */
+    public int queryChunked(String token, String database, String query, int chunkSize,
+                            Consumer<JSONObject> chunkConsumer) throws IOException, InterruptedException {
+        return queryChunked(token, database, query, chunkSize, DEFAULT_READ_TIMEOUT, new QueryCancellation(),
+            new TransferStats(), chunkConsumer);
+    }
+
+    /**
+     * Chunked query that can be aborted through the given cancellation handle
+     * Cancelling closes the response stream, so the chunk loop stops at the next read
+     * Throws CancellationException if the query was cancelled
+     */
+    public int queryChunked(String token, String database, String query, int chunkSize, Duration readTimeout,
+                            QueryCancellation cancellation, TransferStats stats, Consumer<JSONObject> chunkConsumer)
+            throws IOException, InterruptedException {
+        HttpRequest request = buildRequest(token, database, query, "&chunked=true&chunk_size=" + chunkSize, readTimeout);
+
+        HttpResponse<InputStream> response = send(request, cancellation, stats);
+        System.out.println("Response Code: " + response.statusCode() + " (" + response.version() + ")");
+
+        try (InputStream body = openBody(response, readTimeout, cancellation, stats)) {
+            if (response.statusCode() != 200) {
+                throw new IOException(formatError(response.statusCode(), readText(body)));
+            }
+
+            // Chunks arrive as consecutive JSON objects; the tokenizer pulls one value at a time from the
+            // decompressing stream, so neither the compressed nor the decoded response is ever held in full
+            int chunkCount = 0;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+            JSONTokener tokener = new JSONTokener(reader);
+            while (true) {
+                char next = tokener.nextClean();
+                if (next == 0) {
+                    break; // End of stream
+                }
+                tokener.back();
+
+                Object value = tokener.nextValue();
+                if (value instanceof JSONObject) {
+                    chunkConsumer.accept((JSONObject) value);
+                    chunkCount++;
+                }
+            }
+
+            stats.markBodyRead();
+            System.out.println("Streaming response complete: " + chunkCount + " chunks, " + stats.describe());
+            return chunkCount;
+        } catch (IOException | RuntimeException e) {
+            // A closed stream surfaces as a read or tokenizer error - report it as the cancellation it is
+            cancellation.throwIfCancelled();
+            if (e.getCause() instanceof HttpTimeoutException) {
+                throw (HttpTimeoutException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Asks the server to stop a running query (best effort)
+     * Looks the statement up with SHOW QUERIES and issues KILL QUERY for every matching qid on the database
+     * The server lists statements as it re-serialized them (spacing around operators, keyword case, identifier
+     * quotes), so statements are compared by killMatchKey. Returns the number of queries killed
+     */
+    public int killQuery(String token, String database, String query) throws IOException, InterruptedException {
+        return killQueries(token, database, List.of(query));
+    }
+
+    /**
+     * Asks the server to stop any of several running queries (best effort), with a single SHOW QUERIES lookup
+     * Returns the number of queries killed
+     */
+    public int killQueries(String token, String database, Collection<String> queries) throws IOException, InterruptedException {
+        String response = query(token, database, "SHOW QUERIES");
+        if (response.startsWith("ERROR")) {
+            throw new IOException(response);
+        }
+
+        // SHOW QUERIES returns qid, query, database, duration (and status on newer servers)
+        Set<String> wanted = new HashSet<>();
+        for (String query : queries) {
+            wanted.add(killMatchKey(query));
+        }
+        int killed = 0;
+        JSONObject result = new JSONObject(response).getJSONArray("results").getJSONObject(0);
+        if (!result.has("series")) {
+            return 0;
+        }
+        JSONObject series = result.getJSONArray("series").getJSONObject(0);
+        List<Object> columns = series.getJSONArray("columns").toList();
+        int qidIndex = columns.indexOf("qid");
+        int queryIndex = columns.indexOf("query");
+        int databaseIndex = columns.indexOf("database");
+        JSONArray values = series.optJSONArray("values");
+        if (values == null || qidIndex < 0 || queryIndex < 0) {
+            return 0;
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < values.length(); i++) {
+            JSONArray row = values.getJSONArray(i);
+            String runningQuery = row.optString(queryIndex, "");
+            String runningDatabase = databaseIndex >= 0 ? row.optString(databaseIndex, "") : database;
+            if (!runningDatabase.equals(database)) {
+                continue;
+            }
+            candidates.add(row.opt(qidIndex) + ": " + runningQuery);
+            if (wanted.contains(killMatchKey(runningQuery))) {
+                long qid = row.getLong(qidIndex);
+                String killResult = execute(token, database, "KILL QUERY " + qid);
+                System.out.println("KILL QUERY " + qid + ": " + (killResult.startsWith("ERROR") ? killResult : "OK"));
+                if (!killResult.startsWith("ERROR")) {
+                    killed++;
+                }
+            }
+        }
+        if (killed == 0) {
+            System.out.println("KILL QUERY: no running query on " + database + " matched " + queries
+                + (candidates.isEmpty() ? ", none running" : ", running: " + candidates));
+        }
+        return killed;
+    }
+
+    /**
+     * Comparison form of a statement: whitespace, double quotes and a trailing semicolon dropped and letters
+     * lower-cased outside single-quoted string literals, which are kept as written
+     */
+    static String killMatchKey(String query) {
+        StringBuilder key = new StringBuilder(query.length());
+        boolean inLiteral = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (inLiteral) {
+                key.append(c);
+                if (c == '\\' && i + 1 < query.length()) {
+                    key.append(query.charAt(++i));
+                } else if (c == '\'') {
+                    inLiteral = false;
+                }
+            } else if (c == '\'') {
+                key.append(c);
+                inLiteral = true;
+            } else if (!Character.isWhitespace(c) && c != '"') {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        while (key.length() > 0 && key.charAt(key.length() - 1) == ';') {
+            key.setLength(key.length() - 1);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the tag keys of a measurement from SHOW TAG KEYS, throws IOException on HTTP or query errors
+     */
+    public Set<String> tagKeys(String token, String database, String measurement) throws IOException, InterruptedException {
+        ColumnarResult tags = showKeys(token, database, "SHOW TAG KEYS FROM ", measurement);
+        Set<String> tagKeys = new HashSet<>();
+        int keyColumn = tags != null ? tags.indexOfColumn("tagKey") : -1;
+        if (keyColumn >= 0) {
+            for (int row = 0; row < tags.getRowCount(); row++) {
+                tagKeys.add(tags.getDisplayValue(row, keyColumn));
+            }
+        }
+        return tagKeys;
+    }
+
+    /**
+     * Returns the field keys of a measurement mapped to their type (float, integer, string, boolean) from SHOW FIELD KEYS,
+     * throws IOException on HTTP or query errors
+     */
+    public Map<String, String> fieldKeys(String token, String database, String measurement) throws IOException, InterruptedException {
+        ColumnarResult fields = showKeys(token, database, "SHOW FIELD KEYS FROM ", measurement);
+        Map<String, String> fieldTypes = new HashMap<>();
+        int keyColumn = fields != null ? fields.indexOfColumn("fieldKey") : -1;
+        int typeColumn = fields != null ? fields.indexOfColumn("fieldType") : -1;
+        if (keyColumn >= 0 && typeColumn >= 0) {
+            for (int row = 0; row < fields.getRowCount(); row++) {
+                // A field written with different types in different shards is listed once per type; the first wins
+                fieldTypes.putIfAbsent(fields.getDisplayValue(row, keyColumn), fields.getDisplayValue(row, typeColumn));
+            }
+        }
+        return fieldTypes;
+    }
+
+    private ColumnarResult showKeys(String token, String database, String statement, String measurement)
+            throws IOException, InterruptedException {
+        String response = query(token, database, statement + "\"" + measurement.trim().replace("\"", "\\\"") + "\"");
+        if (response.startsWith("ERROR")) {
+            throw new IOException(response);
+        }
+        InfluxResponseParser.ParsedResponse parsed = InfluxResponseParser.parse(new JSONObject(response));
+        if (!parsed.getErrors().isEmpty()) {
+            throw new IOException(String.join("; ", parsed.getErrors()));
+        }
+        return parsed.getResult();
+    }
+
+    /**
+     * Executes a statement that InfluxDB only accepts via POST (e.g. KILL QUERY)
+     * Returns the response body, or "ERROR <code>: <details>" on HTTP errors
+     */
+    public String execute(String token, String database, String statement) throws IOException, InterruptedException {
+        String form = String.format("p=%s&db=%s&q=%s",
+            URLEncoder.encode(token, StandardCharsets.UTF_8),
+            URLEncoder.encode(database, StandardCharsets.UTF_8),
+            URLEncoder.encode(statement, StandardCharsets.UTF_8));
+
+        System.out.println("HTTP POST: " + baseUrl + "/query db=" + database + " q=" + statement);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/query"))
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .header("Accept", "application/json")
+            .header("User-Agent", USER_AGENT)
+            .timeout(DEFAULT_READ_TIMEOUT)
+            .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() != 200) {
+            return formatError(response.statusCode(), response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * Sends the request asynchronously and waits for the response headers
+     * Cancelling aborts the exchange, which also releases the underlying connection
+     */
+    private HttpResponse<InputStream> send(HttpRequest request, QueryCancellation cancellation, TransferStats stats)
+            throws IOException, InterruptedException {
+        stats.markRequestSent();
+        CompletableFuture<HttpResponse<InputStream>> future =
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        cancellation.onCancel(() -> future.cancel(true));
+
+        try {
+            HttpResponse<InputStream> response = future.get();
+            stats.markHeadersReceived();
+            return response;
+        } catch (CancellationException e) {
+            throw new CancellationException("Query cancelled");
+        } catch (ExecutionException e) {
+            cancellation.throwIfCancelled();
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Returns the decoded response body stream and arranges for cancellation to close it
+     * Gzip bodies are inflated as they are read; bytes are counted on both sides of the decompressor
+     * Closing the stream makes a blocked read fail immediately, which is also how a stalled body is ended once
+     * no bytes have arrived for the read timeout (the request timeout only covers the wait for the headers)
+     */
+    private static InputStream openBody(HttpResponse<InputStream> response, Duration readTimeout,
+                                        QueryCancellation cancellation, TransferStats stats) throws IOException {
+        InputStream raw = response.body();
+        cancellation.onCancel(() -> {
+            try {
+                raw.close();
+            } catch (IOException e) {
+                System.err.println("Error closing response stream: " + e.getMessage());
+            }
+        });
+        InputStream watched = readTimeout != null && !readTimeout.isZero() ? new IdleTimeoutInputStream(raw, readTimeout) : raw;
+
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("identity").trim().toLowerCase();
+        InputStream wire = new CountingInputStream(watched, stats::addWireBytes);
+        if (!"gzip".equals(encoding)) {
+            // Uncompressed: wire and decoded byte counts are the same
+            stats.setContentEncoding("identity");
+            return new CountingInputStream(wire, stats::addDecodedBytes);
+        }
+
+        stats.setContentEncoding(encoding);
+        return new CountingInputStream(new GZIPInputStream(wire, STREAM_BUFFER_SIZE), stats::addDecodedBytes);
+    }
+
+    /**
+     * Reads the decoded body as UTF-8 text through a reader, without first buffering all bytes
+     */
+    static String readText(InputStream body) throws IOException {
+        StringBuilder text = new StringBuilder();
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        char[] buffer = new char[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, read);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Input stream that reports the number of bytes read through it
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongConsumer counter;
+
+        CountingInputStream(InputStream in, LongConsumer counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counter.accept(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counter.accept(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counter.accept(skipped);
+            return skipped;
+        }
+    }
+
+    /**
+     * Input stream that closes itself once no bytes have arrived for the timeout
+     * A watchdog checks the time since the last read a few times per timeout; the read blocked on the closed stream
+     * then fails with HttpTimeoutException. Closing the stream stops the watchdog
+     */
+    private static final class IdleTimeoutInputStream extends FilterInputStream {
+        private final long timeoutNanos;
+        private final ScheduledFuture<?> watchdog;
+        private volatile long lastActivityNanos = System.nanoTime();
+        private volatile boolean timedOut;
+
+        IdleTimeoutInputStream(InputStream in, Duration timeout) {
+            super(in);
+            this.timeoutNanos = timeout.toNanos();
+            long period = Math.max(TimeUnit.MILLISECONDS.toNanos(50), timeoutNanos / 4);
+            this.watchdog = BODY_WATCHDOG.scheduleWithFixedDelay(this::check, period, period, TimeUnit.NANOSECONDS);
+        }
+
+        private void check() {
+            if (System.nanoTime() - lastActivityNanos < timeoutNanos) {
+                return;
+            }
+            timedOut = true;
+            watchdog.cancel(false);
+            try {
+                in.close();
+            } catch (IOException e) {
+                System.err.println("Error closing stalled response stream: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return progress(super.read());
+            } catch (IOException e) {
+                throw timeoutOr(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return progress(super.read(b, off, len));
+            } catch (IOException e) {
+                throw timeoutOr(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            watchdog.cancel(false);
+            super.close();
+        }
+
+        private int progress(int result) throws IOException {
+            if (result == -1 && timedOut) {
+                throw timeoutOr(null);
+            }
+            lastActivityNanos = System.nanoTime();
+            return result;
+        }
+
+        private IOException timeoutOr(IOException e) {
+            if (!timedOut) {
+                return e;
+            }
+            HttpTimeoutException timeout = new HttpTimeoutException(
+                "No response data received for " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+            if (e != null) {
+                timeout.initCause(e);
+            }
+            return timeout;
+        }
+    }
+
+    /**
+     * Builds the GET request for the v1 /query endpoint
+     * p=token, db=database, q=query plus any extra encoded parameters
+     * A null or zero read timeout leaves the request without a time limit
+     */
+    private HttpRequest buildRequest(String token, String database, String query, String extraParams, Duration readTimeout) {
+        String params = String.format("p=%s&db=%s&q=%s",
+            URLEncoder.encode(token, StandardCharsets.UTF_8),
+            URLEncoder.encode(database, StandardCharsets.UTF_8),
+            URLEncoder.encode(query, StandardCharsets.UTF_8)
+        ) + extraParams;
+
+        // Debug logging for troubleshooting (token is never logged in full)
+        System.out.println("HTTP Request: " + baseUrl + "/query db=" + database + " q=" + query);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + "/query?" + params))
+            .GET()
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", "gzip")
+            .header("User-Agent", USER_AGENT);
+        if (readTimeout != null && !readTimeout.isZero()) {
+            builder.timeout(readTimeout);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds the "ERROR <code>: ..." message for a failed response
+     * Uses the server's error body when present, otherwise a generic hint for the status code
+     */
+    static String formatError(int statusCode, String body) {
+        StringBuilder response = new StringBuilder();
+        if (body != null && !body.isEmpty()) {
+            response.append(body);
+        } else {
+            response.append("HTTP ").append(statusCode).append(" Error");
+            if (statusCode == 401) {
+                response.append(" - Unauthorized. Check your API token.");
+            } else if (statusCode == 403) {
+                response.append(" - Forbidden. Check your permissions.");
+            } else if (statusCode == 404) {
+                response.append(" - Not Found. Check the endpoint URL.");
+            } else if (statusCode >= 500) {
+                response.append(" - Server Error. Try again later.");
+            }
+        }
+        return "ERROR " + statusCode + ": " + response;
+    }
+
+    /**
+     * Creates an SSL context that accepts any server certificate for any host name
+     * Only used when the user explicitly chose to skip SSL validation. The trust manager is an extended one,
+     * so JSSE hands the host name check to it (where it is skipped) instead of wrapping it with its own check
+     */
+    private static SSLContext trustAllContext() {
+        TrustManager[] trustAll = { new X509ExtendedTrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        } };
+
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, trustAll, new SecureRandom());
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not create SSL context: " + e.getMessage(), e);
+        }
+    }
+}
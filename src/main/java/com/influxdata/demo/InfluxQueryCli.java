@@ -0,0 +1,572 @@
+package com.influxdata.demo;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless batch mode: runs one query or a file of queries against a connection profile and streams the
+ * results to stdout or a file as CSV, JSON Lines or line protocol
+ * Uses the IDE's shared HTTP client, chunked transport, response parser and exporters but never loads JavaFX,
+ * so it starts quickly on servers without a display. Every chunk is written as soon as it is parsed, so memory
+ * stays flat for any result size; client logging is silenced (or sent to stderr with --verbose) and timings
+ * go to stderr, leaving stdout to the data
+ * Exit codes: 0 success, 1 a query failed, 2 bad arguments or profile, 3 output not writable, 130 interrupted
+ */
+public final class InfluxQueryCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_QUERY_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+    static final int EXIT_OUTPUT_FAILED = 3;
+    static final int EXIT_INTERRUPTED = 130;
+
+    static final String FORMAT_CSV = "csv";
+    static final String FORMAT_JSON_LINES = "jsonl";
+    static final String FORMAT_LINE_PROTOCOL = "lp";
+
+    // The IDE saves protocol, host, database and skipSSLValidation here (never the token)
+    private static final String DEFAULT_PROFILE = System.getProperty("user.home") + File.separator + ".influxdb-ide"
+        + File.separator + "settings.properties";
+    private static final String TOKEN_ENVIRONMENT_VARIABLE = "INFLUX_TOKEN";
+    private static final int DEFAULT_CHUNK_SIZE = 10000;
+    private static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+    private static final int DEFAULT_READ_TIMEOUT_SECONDS = 60;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+        "Usage: java -cp influx-simple-1.0.0.jar com.influxdata.demo.InfluxQueryCli [options] [query]",
+        "",
+        "Queries:",
+        "  -q, --query TEXT          InfluxQL query to run (repeatable; a bare argument works too)",
+        "  -f, --file PATH           File of queries separated by ';' ('-' reads stdin, '--' lines are comments)",
+        "",
+        "Connection (overrides the profile):",
+        "  -p, --profile FILE        Properties with protocol, host, database, skipSSLValidation and token",
+        "                            (default ~/.influxdb-ide/settings.properties, as saved by the IDE)",
+        "      --protocol http|https",
+        "  -H, --host HOST:PORT",
+        "  -d, --database NAME",
+        "  -t, --token TOKEN         API token (default $" + TOKEN_ENVIRONMENT_VARIABLE + ", then the profile)",
+        "  -k, --insecure            Skip SSL certificate validation",
+        "      --connect-timeout S   Connect timeout in seconds (default " + DEFAULT_CONNECT_TIMEOUT_SECONDS + ")",
+        "      --read-timeout S      Seconds to wait for the response or its next data, 0 = no limit (default " + DEFAULT_READ_TIMEOUT_SECONDS + ")",
+        "      --chunk-size N        Rows per streamed chunk (default " + DEFAULT_CHUNK_SIZE + ")",
+        "",
+        "Output:",
+        "  -F, --format FORMAT       csv (default), jsonl or lp (line protocol)",
+        "  -o, --output FILE         Write to a file instead of stdout; a .gz name compresses",
+        "      --measurement NAME    Line protocol measurement (default: the FROM clause, or the series name column)",
+        "      --tags A,B            Line protocol tag columns (default: SHOW TAG KEYS of the measurement)",
+        "",
+        "Other:",
+        "      --continue-on-error   Run the remaining queries after one fails",
+        "      --quiet               No timing output",
+        "  -v, --verbose             Show HTTP client logging on stderr",
+        "  -h, --help                Show this help",
+        "",
+        "Exit codes: 0 success, 1 a query failed, 2 bad arguments, 3 output not writable, 130 interrupted");
+
+    private final PrintStream err;
+
+    private String protocol;
+    private String host;
+    private String database;
+    private String token;
+    private boolean skipSSLValidation;
+    private final List<String> queries = new ArrayList<>();
+    private String format = FORMAT_CSV;
+    private String output;
+    private String measurement;
+    private Set<String> tags;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int connectTimeoutSeconds = DEFAULT_CONNECT_TIMEOUT_SECONDS;
+    private int readTimeoutSeconds = DEFAULT_READ_TIMEOUT_SECONDS;
+    private boolean continueOnError;
+    private boolean quiet;
+    private boolean verbose;
+    private boolean help;
+
+    // Cancelled by the shutdown hook on Ctrl-C so the response stream closes right away
+    private volatile QueryCancellation activeQuery;
+
+    private InfluxQueryCli(PrintStream err) {
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the command line and returns the exit code
+     */
+    static int run(String[] args) {
+        // Data goes to the real stdout; the client's System.out logging must not mix into it
+        OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+        PrintStream err = System.err;
+        InfluxQueryCli cli = new InfluxQueryCli(err);
+        try {
+            cli.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            err.println("Run with --help for usage.");
+            return EXIT_USAGE;
+        }
+        if (cli.help) {
+            System.out.println(USAGE);
+            return EXIT_OK;
+        }
+        System.setOut(cli.verbose ? err : new PrintStream(OutputStream.nullOutputStream()));
+        return cli.execute(stdout);
+    }
+
+    /**
+     * Reads the options; the profile is loaded first so that explicit options override it
+     */
+    private void parseArguments(String[] args) {
+        List<String[]> options = new ArrayList<>();
+        String profile = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("-")) {
+                options.add(new String[] {"--query", arg});
+                continue;
+            }
+            String name = arg;
+            String value = null;
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 0) {
+                name = arg.substring(0, equals);
+                value = arg.substring(equals + 1);
+            }
+            if (takesValue(name) && value == null) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException(name + " needs a value");
+                }
+                value = args[++i];
+            }
+            if ("-p".equals(name) || "--profile".equals(name)) {
+                profile = value;
+            } else {
+                options.add(new String[] {name, value});
+            }
+        }
+
+        loadProfile(profile);
+        token = System.getenv(TOKEN_ENVIRONMENT_VARIABLE) != null ? System.getenv(TOKEN_ENVIRONMENT_VARIABLE) : token;
+        for (String[] option : options) {
+            applyOption(option[0], option[1]);
+        }
+        if (help) {
+            return;
+        }
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("no query given (use --query or --file)");
+        }
+        if (host == null || host.trim().isEmpty()) {
+            throw new IllegalArgumentException("no host given (use --host or a profile)");
+        }
+        if (!"http".equalsIgnoreCase(protocol) && !"https".equalsIgnoreCase(protocol)) {
+            throw new IllegalArgumentException("protocol must be http or https: " + protocol);
+        }
+    }
+
+    private static boolean takesValue(String name) {
+        switch (name) {
+            case "-q":
+            case "--query":
+            case "-f":
+            case "--file":
+            case "-p":
+            case "--profile":
+            case "--protocol":
+            case "-H":
+            case "--host":
+            case "-d":
+            case "--database":
+            case "-t":
+            case "--token":
+            case "--connect-timeout":
+            case "--read-timeout":
+            case "--chunk-size":
+            case "-F":
+            case "--format":
+            case "-o":
+            case "--output":
+            case "--measurement":
+            case "--tags":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void applyOption(String name, String value) {
+        switch (name) {
+            case "-q":
+            case "--query":
+                queries.add(value);
+                break;
+            case "-f":
+            case "--file":
+                queries.addAll(splitStatements(readQueryFile(value)));
+                break;
+            case "--protocol":
+                protocol = value.toLowerCase(Locale.ROOT);
+                break;
+            case "-H":
+            case "--host":
+                host = value;
+                break;
+            case "-d":
+            case "--database":
+                database = value;
+                break;
+            case "-t":
+            case "--token":
+                token = value;
+                break;
+            case "-k":
+            case "--insecure":
+                skipSSLValidation = true;
+                break;
+            case "--connect-timeout":
+                connectTimeoutSeconds = parseCount(name, value, 1);
+                break;
+            case "--read-timeout":
+                readTimeoutSeconds = parseCount(name, value, 0);
+                break;
+            case "--chunk-size":
+                chunkSize = parseCount(name, value, 1);
+                break;
+            case "-F":
+            case "--format":
+                format = value.toLowerCase(Locale.ROOT);
+                if (!FORMAT_CSV.equals(format) && !FORMAT_JSON_LINES.equals(format) && !FORMAT_LINE_PROTOCOL.equals(format)) {
+                    throw new IllegalArgumentException("unknown format " + value + " (csv, jsonl or lp)");
+                }
+                break;
+            case "-o":
+            case "--output":
+                output = value;
+                break;
+            case "--measurement":
+                measurement = value;
+                break;
+            case "--tags":
+                tags = new HashSet<>();
+                for (String tag : value.split(",")) {
+                    if (!tag.trim().isEmpty()) {
+                        tags.add(tag.trim());
+                    }
+                }
+                break;
+            case "--continue-on-error":
+                continueOnError = true;
+                break;
+            case "--quiet":
+                quiet = true;
+                break;
+            case "-v":
+            case "--verbose":
+                verbose = true;
+                break;
+            case "-h":
+            case "--help":
+                help = true;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + name);
+        }
+    }
+
+    private static int parseCount(String name, String value, int minimum) {
+        try {
+            int count = Integer.parseInt(value.trim());
+            if (count >= minimum) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(name + " must be a whole number of at least " + minimum + ": " + value);
+    }
+
+    /**
+     * Reads connection settings from a properties file; a missing default profile is not an error
+     */
+    private void loadProfile(String path) {
+        File file = new File(path != null ? path : DEFAULT_PROFILE);
+        Properties profile = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                profile.load(in);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("cannot read profile " + file + ": " + e.getMessage());
+            }
+        } else if (path != null) {
+            throw new IllegalArgumentException("profile not found: " + file);
+        }
+        protocol = profile.getProperty("protocol", "http").trim().toLowerCase(Locale.ROOT);
+        host = profile.getProperty("host", "").trim();
+        database = profile.getProperty("database", "").trim();
+        skipSSLValidation = Boolean.parseBoolean(profile.getProperty("skipSSLValidation", "false").trim());
+        token = profile.getProperty("token", "").trim();
+    }
+
+    private static String readQueryFile(String path) {
+        try {
+            byte[] bytes = "-".equals(path) ? System.in.readAllBytes() : Files.readAllBytes(Paths.get(path));
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot read query file " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Splits a script into statements at semicolons outside quotes, comments and parentheses
+     * Comment lines are dropped and empty statements skipped
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        int start = 0;
+        while (start < script.length()) {
+            int end = QueryPaginator.findKeyword(script, ";", start);
+            if (end < 0) {
+                end = script.length();
+            }
+            StringBuilder statement = new StringBuilder();
+            for (String line : script.substring(start, end).split("\r?\n")) {
+                if (!line.trim().startsWith("--") && !line.trim().isEmpty()) {
+                    statement.append(statement.length() > 0 ? "\n" : "").append(line.trim());
+                }
+            }
+            if (statement.length() > 0) {
+                statements.add(statement.toString());
+            }
+            start = end + 1;
+        }
+        return statements;
+    }
+
+    /**
+     * Opens the output, runs the queries and closes the output again
+     */
+    private int execute(OutputStream stdout) {
+        // Ctrl-C closes the running response stream instead of leaving the JVM blocked on a read
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            QueryCancellation query = activeQuery;
+            if (query != null) {
+                query.cancel();
+            }
+        }, "query-cli-shutdown"));
+
+        WritableByteChannel channel;
+        try {
+            channel = output == null ? Channels.newChannel(stdout) : FileChannel.open(Paths.get(output),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            err.println("Error: cannot open output " + output + ": " + describe(e));
+            return EXIT_OUTPUT_FAILED;
+        }
+        boolean gzip = output != null && output.toLowerCase(Locale.ROOT).endsWith(".gz");
+        int exitCode = runQueries(new ResultWriter(channel, format, gzip));
+        try {
+            channel.close();
+        } catch (IOException e) {
+            err.println("Error: cannot close output: " + describe(e));
+            return exitCode == EXIT_OK ? EXIT_OUTPUT_FAILED : exitCode;
+        }
+        return exitCode;
+    }
+
+    /**
+     * Runs every query in order, streaming its chunks into the writer
+     */
+    private int runQueries(ResultWriter writer) {
+        InfluxHttpClient client = InfluxHttpClient.forProfile(protocol, host, skipSSLValidation,
+            Duration.ofSeconds(connectTimeoutSeconds));
+        Duration readTimeout = readTimeoutSeconds > 0 ? Duration.ofSeconds(readTimeoutSeconds) : null;
+        long startNanos = System.nanoTime();
+        long totalRows = 0;
+        int failed = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            String query = queries.get(i);
+            String label = queries.size() > 1 ? "Query " + (i + 1) + "/" + queries.size() : "Query";
+            QueryCancellation cancellation = new QueryCancellation();
+            activeQuery = cancellation;
+            TransferStats stats = new TransferStats();
+            AtomicLong rows = new AtomicLong();
+            long queryStart = System.nanoTime();
+            long bytesBefore = writer.getBytesWritten();
+            long skippedBefore = writer.getSkippedRows();
+            try {
+                LineProtocolExporter.Mapping mapping = FORMAT_LINE_PROTOCOL.equals(format)
+                    ? lineProtocolMapping(client, query) : null;
+                int chunks = client.queryChunked(token, database, query, chunkSize, readTimeout, cancellation, stats, chunk -> {
+                    ColumnarResult result = parseChunk(chunk);
+                    if (result != null && result.getColumnCount() > 0) {
+                        writer.write(result, mapping);
+                        rows.addAndGet(result.getRowCount());
+                    }
+                });
+                totalRows += rows.get();
+                long skipped = writer.getSkippedRows() - skippedBefore;
+                if (!quiet) {
+                    err.println(label + ": " + rows.get() + " rows in " + chunks + (chunks == 1 ? " chunk, " : " chunks, ")
+                        + millis(System.nanoTime() - queryStart) + " ms (" + millis(stats.getTimeToFirstByteNanos())
+                        + " ms to first byte), " + stats.describe() + ", wrote "
+                        + TransferStats.formatBytes(writer.getBytesWritten() - bytesBefore)
+                        + (skipped > 0 ? ", " + skipped + " rows without fields skipped" : ""));
+                }
+            } catch (UncheckedIOException e) {
+                err.println("Error: cannot write output: " + describe(e.getCause()));
+                return EXIT_OUTPUT_FAILED;
+            } catch (CancellationException e) {
+                return EXIT_INTERRUPTED;
+            } catch (Exception e) {
+                failed++;
+                err.println(label + " failed: " + describe(e) + (queries.size() > 1 ? " [" + query + "]" : ""));
+                if (!continueOnError) {
+                    break;
+                }
+            } finally {
+                activeQuery = null;
+            }
+        }
+        if (!quiet && queries.size() > 1) {
+            err.println("Done: " + (queries.size() - failed) + " of " + queries.size() + " queries succeeded, "
+                + totalRows + " rows in " + millis(System.nanoTime() - startNanos) + " ms");
+        }
+        return failed > 0 ? EXIT_QUERY_FAILED : EXIT_OK;
+    }
+
+    /**
+     * Line protocol mapping of a query: measurement from --measurement or the FROM clause (the series name column
+     * wins where a result has one), tags from --tags or SHOW TAG KEYS and field types from SHOW FIELD KEYS
+     */
+    private LineProtocolExporter.Mapping lineProtocolMapping(InfluxHttpClient client, String query) throws InterruptedException {
+        String name = measurement != null ? measurement : LineProtocolExporter.measurementFromQuery(query);
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("cannot tell the measurement of the query; pass --measurement");
+        }
+        LineProtocolExporter.Mapping mapping = new LineProtocolExporter.Mapping()
+            .measurement(name)
+            .measurementColumn(InfluxResponseParser.NAME_COLUMN)
+            .skip(InfluxResponseParser.STATEMENT_COLUMN);
+        Set<String> tagColumns = tags;
+        if (tagColumns == null) {
+            try {
+                tagColumns = client.tagKeys(token, database, name);
+            } catch (IOException e) {
+                err.println("Warning: cannot load tag keys of " + name + " (" + describe(e) + "); writing all columns as fields");
+                tagColumns = new HashSet<>();
+            }
+        }
+        tagColumns.forEach(mapping::tag);
+        try {
+            client.fieldKeys(token, database, name).forEach(mapping::fieldType);
+        } catch (IOException e) {
+            err.println("Warning: cannot load field types of " + name + " (" + describe(e) + "); integer values are written as integers");
+        }
+        return mapping;
+    }
+
+    /**
+     * Converts one chunk; statement errors fail the query
+     */
+    private static ColumnarResult parseChunk(JSONObject chunk) {
+        InfluxResponseParser.ParsedResponse parsed = InfluxResponseParser.parse(chunk);
+        if (!parsed.getErrors().isEmpty()) {
+            throw new IllegalStateException(String.join("; ", parsed.getErrors()));
+        }
+        return parsed.getResult();
+    }
+
+    /**
+     * Error text for the user; file system errors carry only the path as their message
+     */
+    private static String describe(Exception e) {
+        if (e.getMessage() == null) {
+            return e.getClass().getSimpleName();
+        }
+        return e instanceof FileSystemException ? e.getClass().getSimpleName() + ": " + e.getMessage() : e.getMessage();
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * Writes parsed chunks to the output channel in the chosen format
+     * CSV repeats its header only when the columns change from one chunk or query to the next
+     */
+    private static final class ResultWriter {
+        private final WritableByteChannel channel;
+        private final String format;
+        private final boolean gzip;
+        private List<String> csvColumns;
+        private long bytesWritten;
+        private long skippedRows;
+
+        ResultWriter(WritableByteChannel channel, String format, boolean gzip) {
+            this.channel = channel;
+            this.format = format;
+            this.gzip = gzip;
+        }
+
+        void write(ColumnarResult result, LineProtocolExporter.Mapping mapping) {
+            int[] rows = new int[result.getRowCount()];
+            Arrays.setAll(rows, row -> row);
+            try {
+                if (FORMAT_JSON_LINES.equals(format)) {
+                    bytesWritten += new JsonLinesExporter(result, rows, gzip).writeTo(channel, null);
+                } else if (FORMAT_LINE_PROTOCOL.equals(format)) {
+                    LineProtocolExporter exporter = new LineProtocolExporter(result, rows, mapping, 0, gzip);
+                    bytesWritten += exporter.writeTo(channel, null);
+                    skippedRows += exporter.getSkippedRows();
+                } else {
+                    List<String> columns = new ArrayList<>(result.getColumnNames());
+                    bytesWritten += new CsvExporter(result, rows, gzip).writeTo(channel, !columns.equals(csvColumns), null);
+                    csvColumns = columns;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        long getSkippedRows() {
+            return skippedRows;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.influxdata.demo;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Converts InfluxDB v1 /query JSON responses into one columnar result
+ * Every statement and every series is read and combined into a single table; the series name,
+ * the statement number and the GROUP BY tags become extra columns whenever they tell rows apart
+ * The JSON text is tokenized into a JSONObject by the caller on one thread, which is the bulk of the parse
+ * time for a large response; only the conversion of that tree into columns runs in parallel (one series per
+ * task) for large multi-series responses
+ */
+public class InfluxResponseParser {
+
+    public static final String STATEMENT_COLUMN = "statement";
+    public static final String NAME_COLUMN = "name";
+
+    // Below this many rows in total, parsing on one thread beats the cost of forking
+    private static final int PARALLEL_ROW_THRESHOLD = 10000;
+
+    /**
+     * Outcome of parsing a response: the combined result (null if there were no series),
+     * how many series and statements it came from, the row count of its largest series and any statement or series errors
+     */
+    public static final class ParsedResponse {
+        private final ColumnarResult result;
+        private final int seriesCount;
+        private final int statementCount;
+        private final int largestSeriesRows;
+        private final List<String> errors;
+
+        private ParsedResponse(ColumnarResult result, int seriesCount, int statementCount, int largestSeriesRows, List<String> errors) {
+            this.result = result;
+            this.seriesCount = seriesCount;
+            this.statementCount = statementCount;
+            this.largestSeriesRows = largestSeriesRows;
+            this.errors = errors;
+        }
+
+        public ColumnarResult getResult() {
+            return result;
+        }
+
+        public int getSeriesCount() {
+            return seriesCount;
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        /**
+         * Rows of the series with the most rows; LIMIT and OFFSET apply per series, so this tells whether a page was full
+         */
+        public int getLargestSeriesRows() {
+            return largestSeriesRows;
+        }
+
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * Short summary for the status bar, e.g. "12 series from 2 statements"
+         */
+        public String describe() {
+            String text = seriesCount + " series from " + statementCount
+                + (statementCount == 1 ? " statement" : " statements");
+            if (!errors.isEmpty()) {
+                text += ", " + errors.size() + (errors.size() == 1 ? " error" : " errors");
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Parses every statement and series of a response
+     * Statement and series errors are collected rather than thrown, so the series that did succeed are still shown
+     */
+    public static ParsedResponse parse(JSONObject response) {
+        List<String> errors = new ArrayList<>();
+        if (response.has("error")) {
+            errors.add(response.getString("error"));
+        }
+
+        JSONArray results = response.optJSONArray("results");
+        int statementCount = results != null ? results.length() : 0;
+
+        // First pass: find all series and what distinguishes them
+        List<JSONObject> seriesList = new ArrayList<>();
+        List<Integer> seriesStatements = new ArrayList<>();
+        Set<Integer> statementsWithSeries = new HashSet<>();
+        Set<String> seriesNames = new HashSet<>();
+        long totalRows = 0;
+        int largestSeriesRows = 0;
+
+        for (int r = 0; r < statementCount; r++) {
+            JSONObject result = results.getJSONObject(r);
+            int statementId = result.optInt("statement_id", r);
+            if (result.has("error")) {
+                errors.add("Statement " + statementId + ": " + result.getString("error"));
+            }
+
+            JSONArray series = result.optJSONArray("series");
+            if (series == null) {
+                continue;
+            }
+            for (int s = 0; s < series.length(); s++) {
+                JSONObject seriesJson = series.getJSONObject(s);
+                if (seriesJson.has("error")) {
+                    errors.add("Statement " + statementId + ": " + seriesJson.getString("error"));
+                    continue;
+                }
+                seriesList.add(seriesJson);
+                seriesStatements.add(statementId);
+                statementsWithSeries.add(statementId);
+                seriesNames.add(seriesJson.optString("name", ""));
+
+                JSONArray values = seriesJson.optJSONArray("values");
+                int seriesRows = values != null ? values.length() : 0;
+                totalRows += seriesRows;
+                largestSeriesRows = Math.max(largestSeriesRows, seriesRows);
+            }
+        }
+
+        if (seriesList.isEmpty()) {
+            return new ParsedResponse(null, 0, statementCount, 0, errors);
+        }
+
+        // Only add statement and name columns when they actually differ between series
+        boolean addStatement = statementsWithSeries.size() > 1;
+        boolean addName = seriesNames.size() > 1;
+
+        List<Map<String, String>> constantColumns = new ArrayList<>(seriesList.size());
+        for (int i = 0; i < seriesList.size(); i++) {
+            JSONObject seriesJson = seriesList.get(i);
+            Map<String, String> constants = new LinkedHashMap<>();
+            if (addStatement) {
+                constants.put(STATEMENT_COLUMN, String.valueOf(seriesStatements.get(i)));
+            }
+            if (addName) {
+                constants.put(NAME_COLUMN, seriesJson.optString("name", ""));
+            }
+
+            JSONObject tags = seriesJson.optJSONObject("tags");
+            if (tags != null) {
+                for (String key : new TreeSet<>(tags.keySet())) {
+                    constants.put(key, tags.isNull(key) ? null : tags.get(key).toString());
+                }
+            }
+            constantColumns.add(constants);
+        }
+
+        // Second pass: convert each already tokenized series into columns, in parallel when there is enough work to share
+        IntStream indices = IntStream.range(0, seriesList.size());
+        if (seriesList.size() > 1 && totalRows >= PARALLEL_ROW_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        List<ColumnarResult> parts = indices
+            .mapToObj(i -> ColumnarResult.fromJsonSeries(seriesList.get(i), constantColumns.get(i)))
+            .collect(Collectors.toList());
+
+        // Combine in response order; columns are matched by name and missing ones null-filled
+        ColumnarResult combined = parts.get(0);
+        for (int i = 1; i < parts.size(); i++) {
+            combined.appendAll(parts.get(i));
+        }
+        return new ParsedResponse(combined, seriesList.size(), statementCount, largestSeriesRows, errors);
+    }
+}
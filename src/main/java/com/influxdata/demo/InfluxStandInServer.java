@@ -0,0 +1,590 @@
+package com.influxdata.demo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the InfluxDB v1 /query endpoint, for offline end-to-end and throughput tests
+ * Answers queries with a generated result of the configured size, series count and field types (or replays a
+ * recorded response file), honours chunked=true / chunk_size and Accept-Encoding: gzip like the real server,
+ * and can wait before answering and between chunks. Without GROUP BY the rows form one time-ordered series with
+ * a host column (so several rows share each timestamp); with GROUP BY every host is its own tagged series.
+ * A SELECT from several measurements (FROM a, b) answers with the rows once per measurement, the n-th measurement
+ * (from 0) spaced n + 1 times the interval apart, each measurement its own series as the real server returns them.
+ * The field list of a SELECT is ignored, but LIMIT / OFFSET and integer or RFC3339 time bounds are applied, so paginated and time-window queries see
+ * consistent pages (rows always come in ascending time order). Values are derived from the row position, and
+ * responses are written while they are generated, so results larger than the heap can be served
+ */
+public class InfluxStandInServer implements AutoCloseable {
+
+    public static final String NUMERIC = "numeric";
+    public static final String STRING = "string";
+    public static final String MIXED = "mixed";
+
+    // First timestamp and spacing of the generated rows
+    public static final long START_NANOS = 1_700_000_000_000_000_000L;
+    public static final long INTERVAL_NANOS = 1_000_000_000L;
+
+    // Distinct values of generated string fields
+    private static final int STRING_CARDINALITY = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Pattern LIMIT = Pattern.compile("(?i)\\bLIMIT\\s+(\\d+)");
+    private static final Pattern OFFSET = Pattern.compile("(?i)\\bOFFSET\\s+(\\d+)");
+    private static final Pattern TIME_BOUND = Pattern.compile("(?i)\\btime\\s*(>=|>|<=|<|=)\\s*(?:(-?\\d+)(?![\\w.])|'([^']*)')");
+
+    private String measurement = "cpu";
+    private long rows = 1000;
+    private int fields = 5;
+    private int series = 1;
+    private String fieldType = NUMERIC;
+    private long latencyMillis;
+    private long chunkDelayMillis;
+    private boolean gzip = true;
+    private String token;
+    private File replayFile;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private volatile String lastQuery;
+
+    public InfluxStandInServer measurement(String measurement) {
+        this.measurement = measurement;
+        return this;
+    }
+
+    /**
+     * Total rows of a query without LIMIT or time bounds, spread evenly over the series
+     */
+    public InfluxStandInServer rows(long rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    /**
+     * Field columns field_0 .. field_N-1
+     */
+    public InfluxStandInServer fields(int fields) {
+        this.fields = fields;
+        return this;
+    }
+
+    /**
+     * Number of hosts, i.e. series under GROUP BY
+     */
+    public InfluxStandInServer series(int series) {
+        this.series = Math.max(1, series);
+        return this;
+    }
+
+    /**
+     * NUMERIC (floats, every third field an integer), STRING, or MIXED (alternating)
+     */
+    public InfluxStandInServer fieldType(String fieldType) {
+        this.fieldType = fieldType;
+        return this;
+    }
+
+    /**
+     * Time the server "evaluates" a query before sending the response headers
+     */
+    public InfluxStandInServer latencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Pause between the chunks of a chunked response
+     */
+    public InfluxStandInServer chunkDelayMillis(long chunkDelayMillis) {
+        this.chunkDelayMillis = chunkDelayMillis;
+        return this;
+    }
+
+    /**
+     * Whether responses are gzip-compressed for clients that accept it
+     */
+    public InfluxStandInServer gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * Token every request must carry; null accepts any
+     */
+    public InfluxStandInServer token(String token) {
+        this.token = token;
+        return this;
+    }
+
+    /**
+     * Answers every query with the contents of a recorded response file instead of generated rows
+     */
+    public InfluxStandInServer replay(File replayFile) {
+        this.replayFile = replayFile;
+        return this;
+    }
+
+    /**
+     * Starts listening on the loopback interface; port 0 picks a free port
+     */
+    public InfluxStandInServer start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "stand-in-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/query", this::handle);
+        server.start();
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * host:port to connect to, as entered in the connection dialog
+     */
+    public String getAddress() {
+        return "localhost:" + getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Response bytes sent over the socket (after compression)
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public String getLastQuery() {
+        return lastQuery;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * Renders the response to a query as bytes, without a server, e.g. for parser benchmarks
+     */
+    byte[] render(String query, boolean chunked, int chunkSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writeResponse(writer, query, chunked, chunkSize);
+        }
+        return out.toByteArray();
+    }
+
+    private boolean hasAuthorizationToken(HttpExchange exchange) {
+        // The v1 API takes the token as p=, the v2 compatibility endpoints as a Token or Bearer header
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && (header.equals("Token " + token) || header.equals("Bearer " + token));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            Map<String, String> params = parseParams(exchange.getRequestURI().getRawQuery());
+            if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                try (InputStream body = exchange.getRequestBody()) {
+                    params.putAll(parseParams(new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+                }
+            }
+            String query = params.getOrDefault("q", "");
+            lastQuery = query;
+            if (token != null && !token.equals(params.get("p")) && !hasAuthorizationToken(exchange)) {
+                sendError(exchange, 401, "authorization failed");
+                return;
+            }
+            if (query.trim().isEmpty()) {
+                sendError(exchange, 400, "missing required parameter \"q\"");
+                return;
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            boolean compress = gzip && String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (compress) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, 0);
+
+            OutputStream out = new FilterOutputStream(exchange.getResponseBody()) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytesSent.addAndGet(len);
+                }
+            };
+            if (compress) {
+                out = new GZIPOutputStream(out, BUFFER_SIZE, true);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                if (replayFile != null) {
+                    writer.write(new String(Files.readAllBytes(replayFile.toPath()), StandardCharsets.UTF_8));
+                } else {
+                    boolean chunked = "true".equalsIgnoreCase(params.get("chunked"));
+                    int chunkSize = chunked ? Integer.parseInt(params.getOrDefault("chunk_size", "10000")) : 0;
+                    writeResponse(writer, query, chunked, chunkSize);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The client went away, e.g. a cancelled query
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = ("{\"error\":" + JSONObject.quote(message) + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> parseParams(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Writes the whole response: schema queries get a small fixed answer, everything else generated rows
+     */
+    private void writeResponse(Writer writer, String query, boolean chunked, int chunkSize) throws IOException {
+        String upper = query.trim().toUpperCase(Locale.ROOT);
+        if (upper.startsWith("SHOW MEASUREMENTS") || upper.startsWith("SHOW TABLES")) {
+            writer.write("{\"results\":[{\"statement_id\":0,\"series\":[{\"name\":\"measurements\",\"columns\":[\"name\"],\"values\":[["
+                + JSONObject.quote(measurement) + "]]}]}]}");
+        } else if (upper.startsWith("SHOW FIELD KEYS")) {
+            writer.write("{\"results\":[{\"statement_id\":0,\"series\":[{\"name\":" + JSONObject.quote(measurement)
+                + ",\"columns\":[\"fieldKey\",\"fieldType\"],\"values\":[");
+            for (int f = 0; f < fields; f++) {
+                writer.write((f > 0 ? "," : "") + "[\"field_" + f + "\",\"" + fieldKeyType(f) + "\"]");
+            }
+            writer.write("]}]}]}");
+        } else if (upper.startsWith("SHOW TAG KEYS")) {
+            writer.write("{\"results\":[{\"statement_id\":0,\"series\":[{\"name\":" + JSONObject.quote(measurement)
+                + ",\"columns\":[\"tagKey\"],\"values\":[[\"host\"]]}]}]}");
+        } else if (upper.startsWith("SHOW") || upper.startsWith("KILL")) {
+            writer.write("{\"results\":[{\"statement_id\":0}]}");
+        } else {
+            writeRows(writer, query, chunked, chunkSize);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Writes the selected rows as one series (host as a column) or, with GROUP BY, one series per host,
+     * for every measurement of the FROM clause
+     * In chunked mode every chunk is a complete response object of at most chunkSize rows, all but the
+     * last marked partial
+     */
+    private void writeRows(Writer writer, String query, boolean chunked, int chunkSize) throws IOException {
+        String[] measurements = fromMeasurements(query);
+        boolean[] anyRows = new boolean[1];
+        for (int m = 0; m < measurements.length; m++) {
+            writeMeasurementRows(writer, query, measurements[m], INTERVAL_NANOS * (m + 1), chunked, chunkSize, anyRows);
+        }
+        writer.write(anyRows[0] ? "]}]}" : "{\"results\":[{\"statement_id\":0}]}");
+    }
+
+    /**
+     * Measurements of the FROM clause; a single one is answered under the configured measurement name
+     */
+    private String[] fromMeasurements(String query) {
+        int from = QueryPaginator.findKeyword(query, "FROM", 0);
+        if (from < 0) {
+            return new String[] {measurement};
+        }
+        int end = QueryPaginator.firstOf(query, from, query.length(),
+            "WHERE", "GROUP", "ORDER", "LIMIT", "OFFSET", "SLIMIT", "SOFFSET", "FILL", "TZ");
+        String[] names = query.substring(from + "FROM".length(), end).split(",");
+        if (names.length < 2) {
+            return new String[] {measurement};
+        }
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].trim().replaceAll("^\"|\"$", "");
+        }
+        return names;
+    }
+
+    private void writeMeasurementRows(Writer writer, String query, String name, long interval, boolean chunked,
+                                      int chunkSize, boolean[] anyRowsWritten) throws IOException {
+        boolean groupBy = QueryPaginator.findKeyword(query, "GROUP", 0) >= 0;
+        long limit = matchedNumber(LIMIT, query, Long.MAX_VALUE);
+        long offset = matchedNumber(OFFSET, query, 0);
+        long[] bounds = timeBounds(query);
+        // Timestamp positions in range; without GROUP BY each position holds one row per host
+        long firstPosition = Math.max(0, ceilDiv(bounds[0] - START_NANOS, interval));
+        long endPosition = Math.floorDiv(bounds[1] - START_NANOS, interval) + 1;
+
+        String seriesPrefix = "{\"name\":" + JSONObject.quote(name) + ",";
+        StringBuilder columns = new StringBuilder("\"columns\":[\"time\"").append(groupBy ? "" : ",\"host\"");
+        for (int f = 0; f < fields; f++) {
+            columns.append(",\"field_").append(f).append('"');
+        }
+        columns.append("],\"values\":[");
+
+        // Row ranges [from, to) per output series: positions per host under GROUP BY, merged row numbers otherwise
+        int seriesCount = groupBy ? series : 1;
+        long[] from = new long[seriesCount];
+        long[] to = new long[seriesCount];
+        for (int s = 0; s < seriesCount; s++) {
+            long available = groupBy ? rows / series + (s < rows % series ? 1 : 0) : rows;
+            long scale = groupBy ? 1 : series;
+            long start = Math.min(available, Math.max(0, firstPosition) * scale);
+            long end = Math.min(available, Math.max(0, Math.min(endPosition, Long.MAX_VALUE / scale)) * scale);
+            from[s] = Math.min(end, start + offset);
+            to[s] = end - from[s] > limit ? from[s] + limit : end;
+        }
+
+        boolean anyRows = anyRowsWritten[0];
+        boolean open = false;
+        long rowsInChunk = 0;
+        for (int s = 0; s < seriesCount; s++) {
+            if (from[s] >= to[s]) {
+                continue;
+            }
+            for (long row = from[s]; row < to[s]; row++) {
+                if (!open) {
+                    if (anyRows) {
+                        // Previous chunk done; more rows follow
+                        writer.write(chunked ? "],\"partial\":true}]}\n" : ",");
+                        if (chunked && chunkDelayMillis > 0) {
+                            writer.flush();
+                            pause(chunkDelayMillis);
+                        }
+                    }
+                    if (chunked || !anyRows) {
+                        writer.write("{\"results\":[{\"statement_id\":0,\"series\":[");
+                    }
+                    writer.write(seriesPrefix);
+                    if (groupBy) {
+                        writer.write("\"tags\":{\"host\":\"host-" + s + "\"},");
+                    }
+                    writer.write(columns.toString());
+                    open = true;
+                    anyRows = true;
+                    rowsInChunk = 0;
+                } else {
+                    writer.write(',');
+                }
+                long host = groupBy ? s : row % series;
+                long position = groupBy ? row : row / series;
+                writeRow(writer, host, position, interval, !groupBy);
+                rowsInChunk++;
+                if (chunked && rowsInChunk >= chunkSize) {
+                    writer.write("]}");
+                    open = false;
+                }
+            }
+            if (open) {
+                writer.write("]}");
+                open = false;
+            }
+        }
+        anyRowsWritten[0] = anyRows;
+    }
+
+    private void writeRow(Writer writer, long host, long position, long interval, boolean hostColumn) throws IOException {
+        writer.write("[\"");
+        writer.write(ColumnarResult.formatTime(START_NANOS + position * interval));
+        writer.write('"');
+        if (hostColumn) {
+            writer.write(",\"host-" + host + "\"");
+        }
+        for (int f = 0; f < fields; f++) {
+            long hash = mix(host * 0x9E3779B97F4A7C15L + position * 0xBF58476D1CE4E5B9L + f);
+            writer.write(',');
+            String type = fieldKeyType(f);
+            if ("string".equals(type)) {
+                writer.write("\"value-" + Math.floorMod(hash, STRING_CARDINALITY) + "\"");
+            } else if ("integer".equals(type)) {
+                writer.write(Long.toString(Math.floorMod(hash, 100_000)));
+            } else {
+                writer.write(Double.toString(Math.floorMod(hash, 100_000_000) / 100.0));
+            }
+        }
+        writer.write(']');
+    }
+
+    /**
+     * InfluxDB type of generated field f, as SHOW FIELD KEYS reports it
+     */
+    private String fieldKeyType(int f) {
+        if (STRING.equals(fieldType) || (MIXED.equals(fieldType) && f % 2 == 1)) {
+            return "string";
+        }
+        return f % 3 == 2 ? "integer" : "float";
+    }
+
+    /**
+     * Inclusive [lower, upper] time range of the query's time conditions
+     */
+    private static long[] timeBounds(String query) {
+        long lower = Long.MIN_VALUE / 2;
+        long upper = Long.MAX_VALUE / 2;
+        Matcher bound = TIME_BOUND.matcher(query);
+        while (bound.find()) {
+            Long value = bound.group(2) != null ? Long.valueOf(bound.group(2)) : ColumnarResult.parseTime(bound.group(3));
+            if (value == null) {
+                continue;
+            }
+            switch (bound.group(1)) {
+                case ">":
+                    lower = Math.max(lower, value + 1);
+                    break;
+                case ">=":
+                    lower = Math.max(lower, value);
+                    break;
+                case "<":
+                    upper = Math.min(upper, value - 1);
+                    break;
+                case "<=":
+                    upper = Math.min(upper, value);
+                    break;
+                default:
+                    lower = Math.max(lower, value);
+                    upper = Math.min(upper, value);
+                    break;
+            }
+        }
+        return new long[] {lower, upper};
+    }
+
+    private static long matchedNumber(Pattern pattern, String query, long absent) {
+        Matcher matcher = pattern.matcher(query);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : absent;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+
+    private static void pause(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    /**
+     * Runs a stand-alone stand-in, e.g. to point the IDE at: --port 8086 --rows 1000000 --series 10 --fields 5
+     * --field-type numeric|string|mixed --latency-ms 0 --chunk-delay-ms 0 --token T --replay FILE --no-gzip
+     */
+    public static void main(String[] args) throws IOException {
+        InfluxStandInServer standIn = new InfluxStandInServer();
+        int port = 8086;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--no-gzip".equals(option)) {
+                standIn.gzip(false);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "--measurement":
+                    standIn.measurement(value);
+                    break;
+                case "--rows":
+                    standIn.rows(Long.parseLong(value));
+                    break;
+                case "--series":
+                    standIn.series(Integer.parseInt(value));
+                    break;
+                case "--fields":
+                    standIn.fields(Integer.parseInt(value));
+                    break;
+                case "--field-type":
+                    standIn.fieldType(value);
+                    break;
+                case "--latency-ms":
+                    standIn.latencyMillis(Long.parseLong(value));
+                    break;
+                case "--chunk-delay-ms":
+                    standIn.chunkDelayMillis(Long.parseLong(value));
+                    break;
+                case "--token":
+                    standIn.token(value);
+                    break;
+                case "--replay":
+                    standIn.replay(new File(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        standIn.start(port);
+        System.out.println("InfluxDB stand-in listening on http://" + standIn.getAddress() + " (" + standIn.rows + " rows, "
+            + standIn.series + " series, " + standIn.fields + " " + standIn.fieldType + " fields) - Ctrl-C to stop");
+    }
+}
@@ -0,0 +1,119 @@
+package com.influxdata.demo;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes result rows as JSON Lines: one JSON object per row, keyed by column name, meant to run off the JavaFX thread
+ * Times are RFC3339 strings, numbers and booleans keep their JSON type, nulls (and NaN / infinite doubles, which
+ * JSON cannot hold) are written as null. Keys and string dictionaries are encoded once, rows are formatted by a
+ * ChunkPipeline in parallel chunks, optionally gzip-compressed
+ */
+public class JsonLinesExporter implements ResultExporter {
+
+    private static final byte[] TRUE_BYTES = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_BYTES = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_BYTES = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final ColumnarResult result;
+    private final int[] rows;
+    private final boolean gzip;
+
+    /**
+     * Creates an exporter for the given rows of a result, in the given order
+     */
+    public JsonLinesExporter(ColumnarResult result, int[] rows, boolean gzip) {
+        this.result = result;
+        this.rows = rows;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public String getFormatName() {
+        return gzip ? "gzipped JSON Lines" : "JSON Lines";
+    }
+
+    /**
+     * Writes all rows to the file, replacing it, and returns the number of bytes written
+     */
+    @Override
+    public long export(File file, ProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return writeTo(channel, listener);
+        }
+    }
+
+    /**
+     * Writes all rows to an open channel such as stdout and returns the number of bytes written
+     */
+    public long writeTo(WritableByteChannel channel, ProgressListener listener) throws IOException {
+        int columnCount = result.getColumnCount();
+        // "{"key": for the first column, ,"key": for the others
+        byte[][] keys = new byte[columnCount][];
+        byte[][][] dictionaries = new byte[columnCount][][];
+        for (int c = 0; c < columnCount; c++) {
+            ColumnarResult.Column column = result.getColumn(c);
+            keys[c] = ((c == 0 ? "{" : ",") + JSONObject.quote(column.getName()) + ":").getBytes(StandardCharsets.UTF_8);
+            if (column.getType() == ColumnarResult.ColumnType.STRING) {
+                List<String> dictionary = column.getDictionary();
+                byte[][] encoded = new byte[dictionary.size()][];
+                for (int code = 0; code < encoded.length; code++) {
+                    encoded[code] = JSONObject.quote(dictionary.get(code)).getBytes(StandardCharsets.UTF_8);
+                }
+                dictionaries[c] = encoded;
+            }
+        }
+        return new ChunkPipeline(gzip).writeRows(channel, 0, rows.length,
+            (from, to, out) -> formatRows(from, to, keys, dictionaries, out), listener);
+    }
+
+    private void formatRows(int from, int to, byte[][] keys, byte[][][] dictionaries, ByteChunk out) {
+        int columnCount = keys.length;
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            for (int c = 0; c < columnCount; c++) {
+                out.write(keys[c]);
+                ColumnarResult.Column column = result.getColumn(c);
+                if (column.isNull(row)) {
+                    out.write(NULL_BYTES);
+                    continue;
+                }
+                switch (column.getType()) {
+                    case STRING:
+                        out.write(dictionaries[c][column.getStringCode(row)]);
+                        break;
+                    case LONG:
+                        out.writeLong(column.getLong(row));
+                        break;
+                    case BOOLEAN:
+                        out.write(column.getBoolean(row) ? TRUE_BYTES : FALSE_BYTES);
+                        break;
+                    case TIME:
+                        out.write('"');
+                        out.writeAscii(ColumnarResult.formatTime(column.getLong(row)));
+                        out.write('"');
+                        break;
+                    default: {
+                        double value = column.getDouble(row);
+                        if (Double.isNaN(value) || Double.isInfinite(value)) {
+                            out.write(NULL_BYTES);
+                        } else {
+                            out.writeAscii(Double.toString(value));
+                        }
+                        break;
+                    }
+                }
+            }
+            out.write('}');
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.influxdata.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes result rows as InfluxDB line protocol for bulk re-ingestion, meant to run off the JavaFX thread
+ * The mapping says which columns are tags, which are skipped, where the measurement comes from and the
+ * schema type of the fields; the time column becomes the nanosecond timestamp and every other column a typed
+ * field (integers with the i suffix, strings quoted). JSON writes whole floats like 20.0 as 20, so a float
+ * field whose exported values are all whole reads back as integers; its schema type keeps it a float. Output can be split into files of at most batchLines lines
+ * (name-00001.lp, name-00002.lp, ...) and gzip-compressed. Rows are streamed through a ChunkPipeline,
+ * so memory use does not grow with the number of rows
+ */
+public class LineProtocolExporter implements ResultExporter {
+
+    private static final byte[] TRUE_BYTES = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_BYTES = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final Pattern FROM_MEASUREMENT =
+        Pattern.compile("(?i)\\bFROM\\s+(?:(?:\"[^\"]*\"|[^\\s,;.\"]+)\\.)*(?:\"([^\"]*)\"|([^\\s,;.\"]+))");
+
+    /**
+     * How result columns map onto line protocol
+     */
+    public static final class Mapping {
+        private String measurement = "";
+        private String measurementColumn;
+        private final Set<String> tagColumns = new HashSet<>();
+        private final Set<String> skippedColumns = new HashSet<>();
+        private final Map<String, String> fieldTypes = new HashMap<>();
+
+        /**
+         * Measurement for rows without a measurement column value
+         */
+        public Mapping measurement(String measurement) {
+            this.measurement = measurement;
+            return this;
+        }
+
+        /**
+         * Takes the measurement of each row from a column, such as the series name column
+         */
+        public Mapping measurementColumn(String column) {
+            this.measurementColumn = column;
+            return this;
+        }
+
+        public Mapping tag(String column) {
+            tagColumns.add(column);
+            return this;
+        }
+
+        public Mapping skip(String column) {
+            skippedColumns.add(column);
+            return this;
+        }
+
+        /**
+         * Declares the schema type of a field (float, integer, unsigned, string, boolean) as SHOW FIELD KEYS reports it
+         * Integer-valued columns of float fields are then written as floats
+         */
+        public Mapping fieldType(String column, String type) {
+            fieldTypes.put(column, type);
+            return this;
+        }
+    }
+
+    private final ColumnarResult result;
+    private final int[] rows;
+    private final Mapping mapping;
+    private final int batchLines;
+    private final boolean gzip;
+
+    // Rows that had no field value and could not be written
+    private final AtomicLong skippedRows = new AtomicLong();
+
+    /**
+     * Creates an exporter for the given rows of a result, in the given order
+     * batchLines of 0 writes a single file
+     */
+    public LineProtocolExporter(ColumnarResult result, int[] rows, Mapping mapping, int batchLines, boolean gzip) {
+        this.result = result;
+        this.rows = rows;
+        this.mapping = mapping;
+        this.batchLines = batchLines;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public String getFormatName() {
+        return gzip ? "gzipped line protocol" : "line protocol";
+    }
+
+    /**
+     * Number of rows left out of the last export because all their fields were null
+     */
+    public long getSkippedRows() {
+        return skippedRows.get();
+    }
+
+    /**
+     * Returns the file that holds the given batch; a single batch is written to the file itself
+     */
+    public static File batchFile(File file, int batch, boolean multipleBatches) {
+        if (!multipleBatches) {
+            return file;
+        }
+        String name = file.getName();
+        String lower = name.toLowerCase();
+        int extensionStart = lower.endsWith(".lp.gz") ? name.length() - 6
+            : lower.endsWith(".gz") ? name.length() - 3
+            : name.lastIndexOf('.') > 0 ? name.lastIndexOf('.') : name.length();
+        String suffix = String.format("-%05d", batch + 1);
+        return new File(file.getParentFile(), name.substring(0, extensionStart) + suffix + name.substring(extensionStart));
+    }
+
+    /**
+     * Writes all rows, split into batch files if needed, and returns the number of bytes written
+     */
+    @Override
+    public long export(File file, ProgressListener listener) throws IOException {
+        Plan plan = new Plan();
+        skippedRows.set(0);
+        int linesPerFile = batchLines > 0 ? batchLines : Math.max(1, rows.length);
+        boolean multipleBatches = rows.length > linesPerFile;
+
+        ChunkPipeline pipeline = new ChunkPipeline(gzip);
+        long bytesWritten = 0;
+        int batch = 0;
+        int from = 0;
+        do {
+            int to = Math.min(rows.length, from + linesPerFile);
+            File batchFile = batchFile(file, batch, multipleBatches);
+            try (FileChannel channel = FileChannel.open(batchFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long bytesBefore = bytesWritten;
+                bytesWritten += pipeline.writeRows(channel, from, to, (chunkFrom, chunkTo, out) -> formatRows(plan, chunkFrom, chunkTo, out),
+                    listener == null ? null : (rowsWritten, bytes) -> listener.onProgress(rowsWritten, bytesBefore + bytes));
+            }
+            from = to;
+            batch++;
+        } while (from < rows.length);
+        if (skippedRows.get() > 0) {
+            System.out.println("Line protocol export skipped " + skippedRows.get() + " rows without field values");
+        }
+        return bytesWritten;
+    }
+
+    /**
+     * Writes all rows to an open channel such as stdout, ignoring batchLines, and returns the number of bytes written
+     */
+    public long writeTo(WritableByteChannel channel, ProgressListener listener) throws IOException {
+        Plan plan = new Plan();
+        skippedRows.set(0);
+        return new ChunkPipeline(gzip).writeRows(channel, 0, rows.length,
+            (chunkFrom, chunkTo, out) -> formatRows(plan, chunkFrom, chunkTo, out), listener);
+    }
+
+    /**
+     * Extracts the measurement of the first FROM clause, without database and retention policy
+     */
+    public static String measurementFromQuery(String query) {
+        Matcher matcher = FROM_MEASUREMENT.matcher(query);
+        if (!matcher.find()) {
+            return "";
+        }
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    }
+
+    /**
+     * Pre-escaped keys and string values of every mapped column
+     */
+    private final class Plan {
+        final int timeColumn;
+        final int measurementColumn;
+        final byte[] measurement;
+        // Tag columns in key order, so lines carry sorted tags as InfluxDB prefers
+        final int[] tagColumns;
+        final int[] fieldColumns;
+        // ",key=" for tags, "key=" for fields
+        final byte[][] keys;
+        // Escaped dictionary of every STRING column in the role it is used in
+        final byte[][][] strings;
+        // Suffix of each integer-valued field: i, u for unsigned fields, nothing for float fields
+        final byte[][] longSuffixes;
+
+        Plan() {
+            int columnCount = result.getColumnCount();
+            int time = result.indexOfColumn("time");
+            timeColumn = time >= 0 && result.getColumn(time).getType() == ColumnarResult.ColumnType.TIME ? time : -1;
+            measurementColumn = mapping.measurementColumn != null ? result.indexOfColumn(mapping.measurementColumn) : -1;
+            measurement = escape(mapping.measurement, false).getBytes(StandardCharsets.UTF_8);
+
+            TreeSet<String> tagNames = new TreeSet<>();
+            List<Integer> fields = new ArrayList<>();
+            for (int c = 0; c < columnCount; c++) {
+                String name = result.getColumn(c).getName();
+                if (c == timeColumn || c == measurementColumn || mapping.skippedColumns.contains(name)) {
+                    continue;
+                }
+                if (mapping.tagColumns.contains(name)) {
+                    tagNames.add(name);
+                } else {
+                    fields.add(c);
+                }
+            }
+            tagColumns = tagNames.stream().mapToInt(result::indexOfColumn).toArray();
+            fieldColumns = fields.stream().mapToInt(Integer::intValue).toArray();
+
+            keys = new byte[columnCount][];
+            strings = new byte[columnCount][][];
+            longSuffixes = new byte[columnCount][];
+            for (int c : tagColumns) {
+                keys[c] = ("," + escape(result.getColumn(c).getName(), true) + "=").getBytes(StandardCharsets.UTF_8);
+                strings[c] = encodeDictionary(c, value -> escape(value, true));
+            }
+            for (int c : fieldColumns) {
+                keys[c] = (escape(result.getColumn(c).getName(), true) + "=").getBytes(StandardCharsets.UTF_8);
+                if (result.getColumn(c).getType() == ColumnarResult.ColumnType.STRING) {
+                    strings[c] = encodeDictionary(c, LineProtocolExporter::quote);
+                }
+                String schemaType = mapping.fieldTypes.getOrDefault(result.getColumn(c).getName(), "");
+                longSuffixes[c] = "float".equalsIgnoreCase(schemaType) ? new byte[0]
+                    : "unsigned".equalsIgnoreCase(schemaType) ? new byte[] {'u'} : new byte[] {'i'};
+            }
+            if (measurementColumn >= 0 && result.getColumn(measurementColumn).getType() == ColumnarResult.ColumnType.STRING) {
+                strings[measurementColumn] = encodeDictionary(measurementColumn, value -> escape(value, false));
+            }
+        }
+
+        private byte[][] encodeDictionary(int columnIndex, UnaryOperator<String> encoder) {
+            ColumnarResult.Column column = result.getColumn(columnIndex);
+            if (column.getType() != ColumnarResult.ColumnType.STRING) {
+                return null;
+            }
+            List<String> dictionary = column.getDictionary();
+            byte[][] encoded = new byte[dictionary.size()][];
+            for (int code = 0; code < encoded.length; code++) {
+                encoded[code] = encoder.apply(dictionary.get(code)).getBytes(StandardCharsets.UTF_8);
+            }
+            return encoded;
+        }
+    }
+
+    private void formatRows(Plan plan, int from, int to, ByteChunk out) {
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            int lineStart = out.length;
+
+            // Measurement and tags; empty tag values cannot be written and are left out
+            if (!writeMeasurement(plan, row, out)) {
+                skippedRows.incrementAndGet();
+                continue;
+            }
+            for (int c : plan.tagColumns) {
+                ColumnarResult.Column column = result.getColumn(c);
+                if (column.isNull(row)) {
+                    continue;
+                }
+                byte[] value = plan.strings[c] != null
+                    ? plan.strings[c][column.getStringCode(row)]
+                    : escape(column.getDisplayValue(row), true).getBytes(StandardCharsets.UTF_8);
+                if (value.length > 0) {
+                    out.write(plan.keys[c]);
+                    out.write(value);
+                }
+            }
+
+            // Fields; a line needs at least one
+            int fieldCount = 0;
+            for (int c : plan.fieldColumns) {
+                ColumnarResult.Column column = result.getColumn(c);
+                if (column.isNull(row)) {
+                    continue;
+                }
+                if (column.getType() == ColumnarResult.ColumnType.DOUBLE) {
+                    double value = column.getDouble(row);
+                    if (Double.isNaN(value) || Double.isInfinite(value)) {
+                        // Line protocol has no representation for these
+                        continue;
+                    }
+                }
+                out.write(fieldCount == 0 ? ' ' : ',');
+                out.write(plan.keys[c]);
+                switch (column.getType()) {
+                    case LONG:
+                        out.writeLong(column.getLong(row));
+                        out.write(plan.longSuffixes[c]);
+                        break;
+                    case DOUBLE:
+                        out.writeAscii(Double.toString(column.getDouble(row)));
+                        break;
+                    case BOOLEAN:
+                        out.write(column.getBoolean(row) ? TRUE_BYTES : FALSE_BYTES);
+                        break;
+                    case STRING:
+                        out.write(plan.strings[c][column.getStringCode(row)]);
+                        break;
+                    default:
+                        // A second timestamp column is kept as its RFC3339 text
+                        out.write(quote(column.getDisplayValue(row)).getBytes(StandardCharsets.UTF_8));
+                        break;
+                }
+                fieldCount++;
+            }
+            if (fieldCount == 0) {
+                out.length = lineStart;
+                skippedRows.incrementAndGet();
+                continue;
+            }
+
+            if (plan.timeColumn >= 0 && !result.getColumn(plan.timeColumn).isNull(row)) {
+                out.write(' ');
+                out.writeLong(result.getColumn(plan.timeColumn).getLong(row));
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Writes the measurement of a row; returns false if the row has none
+     */
+    private boolean writeMeasurement(Plan plan, int row, ByteChunk out) {
+        if (plan.measurementColumn >= 0) {
+            ColumnarResult.Column column = result.getColumn(plan.measurementColumn);
+            if (!column.isNull(row)) {
+                byte[] value = plan.strings[plan.measurementColumn] != null
+                    ? plan.strings[plan.measurementColumn][column.getStringCode(row)]
+                    : escape(column.getDisplayValue(row), false).getBytes(StandardCharsets.UTF_8);
+                if (value.length > 0) {
+                    out.write(value);
+                    return true;
+                }
+            }
+        }
+        if (plan.measurement.length == 0) {
+            return false;
+        }
+        out.write(plan.measurement);
+        return true;
+    }
+
+    /**
+     * Escapes a measurement (commas and spaces) or a tag key, tag value or field key (also equals signs)
+     * Line breaks cannot appear in line protocol and are written as \n
+     */
+    static String escape(String value, boolean escapeEquals) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            boolean special = ch == ',' || ch == ' ' || (escapeEquals && ch == '=') || ch == '\n' || ch == '\r';
+            if (special && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (ch == '\n') {
+                    escaped.append("\\n");
+                } else if (ch == '\r') {
+                    escaped.append("\\r");
+                } else {
+                    if (special) {
+                        escaped.append('\\');
+                    }
+                    escaped.append(ch);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    /**
+     * Quotes a string field value, escaping backslashes and double quotes
+     * Line breaks stay as they are: InfluxDB accepts them inside a quoted field value and unescapes only \" and \\
+     */
+    static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,169 @@
+package com.influxdata.demo;
+
+import java.util.Locale;
+
+/**
+ * Re-runs a single SELECT on an interval and keeps a bounded window of its newest rows
+ * The first run loads the retention window (time > now - retention); every later run only asks for rows newer
+ * than the newest timestamp seen so far (time > cursor), so a refresh transfers just the new points. Points that
+ * reach the server with a timestamp at or before the cursor are not picked up.
+ * Fetched batches are merged into one pending batch that the display takes at most once per frame, and rows that
+ * fall out of the retention window (or past the row limit) are dropped by compacting the result once they make up
+ * a quarter of it, so memory stays bounded and the copy is amortized over many refreshes
+ * offer() is called by the fetching thread, everything else by the thread that owns the displayed result
+ */
+public class LiveTail {
+
+    public static final int DEFAULT_MAX_ROWS = 1_000_000;
+
+    // Expired rows are dropped once they make up this fraction (1/n) of the result
+    private static final int COMPACT_FRACTION = 4;
+
+    private final String query;
+    private final long intervalMillis;
+    private final long retentionNanos;
+    private final int maxRows;
+
+    // Newest timestamp received so far, Long.MIN_VALUE before the first row
+    private long cursor = Long.MIN_VALUE;
+    private ColumnarResult pending;
+    private long rowsReceived;
+    private int refreshes;
+
+    private LiveTail(String query, long intervalMillis, long retentionNanos, int maxRows) {
+        this.query = query;
+        this.intervalMillis = intervalMillis;
+        this.retentionNanos = retentionNanos;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Returns a live tail of the query, or null if it cannot be tailed
+     * Only a single raw SELECT in ascending time order qualifies: no GROUP BY time() buckets (the newest bucket
+     * is still filling), no LIMIT, OFFSET, SLIMIT, SOFFSET or INTO
+     */
+    public static LiveTail create(String query, long intervalMillis, long retentionNanos, int maxRows) {
+        String trimmed = query.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        int from = QueryPaginator.findKeyword(trimmed, "FROM", 0);
+        if (intervalMillis <= 0 || retentionNanos <= 0 || maxRows <= 0 || from < 0
+                || !trimmed.regionMatches(true, 0, "SELECT", 0, 6) || QueryPaginator.findKeyword(trimmed, ";", 0) >= 0) {
+            return null;
+        }
+        for (String keyword : new String[] {"LIMIT", "OFFSET", "SLIMIT", "SOFFSET", "INTO"}) {
+            if (QueryPaginator.findKeyword(trimmed, keyword, 0) >= 0) {
+                return null;
+            }
+        }
+        int group = QueryPaginator.findKeyword(trimmed, "GROUP", from);
+        if (group >= 0) {
+            String groupBy = trimmed.substring(group, QueryPaginator.firstOf(trimmed, group, trimmed.length(),
+                "ORDER", "FILL", "SLIMIT", "SOFFSET", "TZ"));
+            if (groupBy.toLowerCase(Locale.ROOT).matches("(?s).*\\btime\\s*\\(.*")) {
+                return null;
+            }
+        }
+        int order = QueryPaginator.findKeyword(trimmed, "ORDER", from);
+        if (order >= 0 && !trimmed.substring(order, QueryPaginator.firstOf(trimmed, order, trimmed.length(), "TZ"))
+                .toUpperCase(Locale.ROOT).matches("(?s)ORDER\\s+BY\\s+TIME(\\s+ASC)?\\s*")) {
+            return null;
+        }
+        return new LiveTail(trimmed, intervalMillis, retentionNanos, maxRows);
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public long getRetentionNanos() {
+        return retentionNanos;
+    }
+
+    public synchronized long getRowsReceived() {
+        return rowsReceived;
+    }
+
+    public synchronized int getRefreshes() {
+        return refreshes;
+    }
+
+    /**
+     * Builds the query for the next refresh: the retention window on the first run, rows after the cursor later
+     */
+    public synchronized String nextQuery(long nowNanos) {
+        refreshes++;
+        long after = cursor != Long.MIN_VALUE ? cursor : nowNanos - retentionNanos;
+        return QueryPaginator.addCondition(query, "time > " + after);
+    }
+
+    /**
+     * Hands over a fetched batch and moves the cursor past its newest timestamp
+     * Returns true if the batch is the first one since the last takePending(), i.e. a display update must be scheduled
+     * Throws IllegalStateException if the batch has no timestamps to advance the cursor by
+     */
+    public synchronized boolean offer(ColumnarResult batch) {
+        int timeColumn = batch.indexOfColumn("time");
+        if (timeColumn < 0 || batch.getColumn(timeColumn).getType() != ColumnarResult.ColumnType.TIME) {
+            throw new IllegalStateException("Live tail needs rows with a time column");
+        }
+        ColumnarResult.Column times = batch.getColumn(timeColumn);
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            if (!times.isNull(row) && times.getLong(row) > cursor) {
+                cursor = times.getLong(row);
+            }
+        }
+        rowsReceived += batch.getRowCount();
+
+        if (pending == null) {
+            pending = batch;
+            return true;
+        }
+        pending.appendAll(batch);
+        return false;
+    }
+
+    /**
+     * Returns all batches offered since the last call merged into one, or null if there are none
+     */
+    public synchronized ColumnarResult takePending() {
+        ColumnarResult batch = pending;
+        pending = null;
+        return batch;
+    }
+
+    /**
+     * Returns a compacted copy of the result without the rows older than the retention window, or null if the
+     * result should be kept as is because too few rows have expired yet
+     * Beyond the row limit the oldest remaining rows (in row order) are dropped as well
+     */
+    public ColumnarResult expire(ColumnarResult result, long nowNanos) {
+        int timeColumn = result.indexOfColumn("time");
+        if (timeColumn < 0 || result.getColumn(timeColumn).getType() != ColumnarResult.ColumnType.TIME) {
+            return null;
+        }
+        ColumnarResult.Column times = result.getColumn(timeColumn);
+        int rowCount = result.getRowCount();
+        long cutoff = nowNanos - retentionNanos;
+        int[] kept = new int[rowCount];
+        int keptCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!times.isNull(row) && times.getLong(row) > cutoff) {
+                kept[keptCount++] = row;
+            }
+        }
+
+        int dropped = rowCount - keptCount;
+        int overLimit = Math.max(0, keptCount - maxRows);
+        if (dropped + overLimit == 0 || (dropped + overLimit) * COMPACT_FRACTION < rowCount
+                && rowCount <= maxRows + maxRows / COMPACT_FRACTION) {
+            return null;
+        }
+        if (overLimit > 0) {
+            System.arraycopy(kept, overLimit, kept, 0, keptCount - overLimit);
+            keptCount -= overLimit;
+        }
+        return result.selectRows(kept, keptCount);
+    }
+}
@@ -0,0 +1,598 @@
+package com.influxdata.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes result rows as a Parquet file, readable by Spark, pandas / pyarrow, DuckDB and Polars
+ * Self-contained writer for flat schemas (the format is written directly; no Hadoop dependency):
+ * every column is OPTIONAL, time becomes an INT64 UTC timestamp (microseconds when no value has
+ * sub-microsecond precision, so Spark can read it, nanoseconds otherwise), integers INT64, floats
+ * DOUBLE, booleans BOOLEAN and strings UTF-8 BYTE_ARRAY. String columns with few distinct values are
+ * dictionary-encoded. Pages are GZIP-compressed and the columns of a row group are encoded in parallel
+ */
+public class ParquetExporter implements ResultExporter {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    // Rows per row group and per data page
+    private static final int ROW_GROUP_ROWS = 1 << 20;
+    private static final int PAGE_ROWS = 1 << 16;
+
+    // Physical types
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+
+    // Encodings
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+
+    // Page types, repetition, converted types and the compression codec
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    private static final int CODEC_GZIP = 2;
+
+    private final ColumnarResult result;
+    private final int[] rows;
+
+    /**
+     * Creates an exporter for the given rows of a result, in the given order
+     */
+    public ParquetExporter(ColumnarResult result, int[] rows) {
+        this.result = result;
+        this.rows = rows;
+    }
+
+    @Override
+    public String getFormatName() {
+        return "Parquet";
+    }
+
+    /**
+     * How one result column is written
+     */
+    private static final class ColumnPlan {
+        final ColumnarResult.Column column;
+        final int physicalType;
+        // UTF-8 dictionary of STRING columns
+        byte[][] strings;
+        boolean dictionaryEncoded;
+        // TIME columns whose values are all whole microseconds
+        boolean timeMicros;
+
+        ColumnPlan(ColumnarResult.Column column, int physicalType) {
+            this.column = column;
+            this.physicalType = physicalType;
+        }
+    }
+
+    /**
+     * Encoded pages of one column in one row group, plus what the footer needs to know about them
+     */
+    private static final class EncodedChunk {
+        final ByteChunk bytes = new ByteChunk();
+        int dictionaryPageBytes;
+        long uncompressedBytes;
+        int valueCount;
+    }
+
+    @Override
+    public long export(File file, ProgressListener listener) throws IOException {
+        int columnCount = result.getColumnCount();
+        ColumnPlan[] plans = new ColumnPlan[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            plans[c] = plan(result.getColumn(c));
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(channel, MAGIC, MAGIC.length);
+
+            // Footer metadata of every row group, collected while writing
+            ThriftWriter rowGroups = new ThriftWriter(new ByteChunk(64 * 1024));
+            int rowGroupCount = 0;
+            for (int from = 0; from < rows.length; from += ROW_GROUP_ROWS) {
+                int to = Math.min(rows.length, from + ROW_GROUP_ROWS);
+                int groupFrom = from;
+
+                // Encode all columns of the row group in parallel, then write them in column order
+                List<CompletableFuture<EncodedChunk>> futures = new ArrayList<>();
+                for (ColumnPlan plan : plans) {
+                    futures.add(CompletableFuture.supplyAsync(() -> encodeChunk(plan, groupFrom, to)));
+                }
+
+                rowGroups.structBegin();
+                rowGroups.listField(1, ThriftWriter.STRUCT, columnCount);
+                long groupBytes = 0;
+                for (int c = 0; c < columnCount; c++) {
+                    EncodedChunk chunk = join(futures.get(c));
+                    long chunkOffset = channel.position();
+                    write(channel, chunk.bytes.data, chunk.bytes.length);
+                    writeColumnChunkMetadata(rowGroups, plans[c], chunk, chunkOffset);
+                    groupBytes += chunk.uncompressedBytes;
+                }
+                rowGroups.i64(2, groupBytes);
+                rowGroups.i64(3, to - from);
+                rowGroups.structEnd();
+                rowGroupCount++;
+
+                if (listener != null) {
+                    listener.onProgress(to, channel.position());
+                }
+            }
+
+            ByteChunk footer = new ByteChunk(64 * 1024);
+            writeFileMetadata(new ThriftWriter(footer), plans, rowGroupCount, rowGroups.out);
+            write(channel, footer.data, footer.length);
+            ByteChunk trailer = new ByteChunk(8);
+            trailer.writeIntLE(footer.length);
+            trailer.write(MAGIC);
+            write(channel, trailer.data, trailer.length);
+            return channel.position();
+        }
+    }
+
+    private ColumnPlan plan(ColumnarResult.Column column) {
+        switch (column.getType()) {
+            case TIME: {
+                ColumnPlan plan = new ColumnPlan(column, TYPE_INT64);
+                plan.timeMicros = true;
+                for (int row : rows) {
+                    if (!column.isNull(row) && column.getLong(row) % 1000 != 0) {
+                        plan.timeMicros = false;
+                        break;
+                    }
+                }
+                return plan;
+            }
+            case LONG:
+                return new ColumnPlan(column, TYPE_INT64);
+            case DOUBLE:
+                return new ColumnPlan(column, TYPE_DOUBLE);
+            case BOOLEAN:
+                return new ColumnPlan(column, TYPE_BOOLEAN);
+            default: {
+                ColumnPlan plan = new ColumnPlan(column, TYPE_BYTE_ARRAY);
+                List<String> dictionary = column.getDictionary();
+                plan.strings = new byte[dictionary.size()][];
+                for (int code = 0; code < plan.strings.length; code++) {
+                    plan.strings[code] = dictionary.get(code).getBytes(StandardCharsets.UTF_8);
+                }
+                // An all-null column has no dictionary to write
+                plan.dictionaryEncoded = plan.strings.length > 0 && plan.strings.length <= ArrowExporter.MAX_DICTIONARY_SIZE;
+                return plan;
+            }
+        }
+    }
+
+    /**
+     * Encodes the rows [from, to) of one column: an optional dictionary page followed by data pages
+     */
+    private EncodedChunk encodeChunk(ColumnPlan plan, int from, int to) {
+        EncodedChunk chunk = new EncodedChunk();
+        chunk.valueCount = to - from;
+        ByteChunk page = new ByteChunk();
+        ByteChunk compressed = new ByteChunk();
+        ByteChunk header = new ByteChunk(256);
+
+        if (plan.dictionaryEncoded) {
+            page.reset();
+            for (byte[] value : plan.strings) {
+                page.writeIntLE(value.length);
+                page.write(value);
+            }
+            int before = chunk.bytes.length;
+            writePage(chunk, page, compressed, header, PAGE_DICTIONARY, ENCODING_PLAIN, plan.strings.length);
+            chunk.dictionaryPageBytes = chunk.bytes.length - before;
+        }
+
+        for (int pageFrom = from; pageFrom < to; pageFrom += PAGE_ROWS) {
+            int pageTo = Math.min(to, pageFrom + PAGE_ROWS);
+            page.reset();
+            encodeDefinitionLevels(plan.column, pageFrom, pageTo, page);
+            encodeValues(plan, pageFrom, pageTo, page);
+            writePage(chunk, page, compressed, header, PAGE_DATA,
+                plan.dictionaryEncoded ? ENCODING_RLE_DICTIONARY : ENCODING_PLAIN, pageTo - pageFrom);
+        }
+        return chunk;
+    }
+
+    /**
+     * Compresses a page and appends it with its header to the chunk
+     */
+    private static void writePage(EncodedChunk chunk, ByteChunk page, ByteChunk compressed, ByteChunk header,
+                                  int pageType, int encoding, int valueCount) {
+        compressed.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 65536)) {
+            gzip.write(page.data, 0, page.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        header.reset();
+        ThriftWriter thrift = new ThriftWriter(header);
+        thrift.structBegin();
+        thrift.i32(1, pageType);
+        thrift.i32(2, page.length);
+        thrift.i32(3, compressed.length);
+        if (pageType == PAGE_DICTIONARY) {
+            thrift.structField(7);
+            thrift.i32(1, valueCount);
+            thrift.i32(2, encoding);
+            thrift.structEnd();
+        } else {
+            thrift.structField(5);
+            thrift.i32(1, valueCount);
+            thrift.i32(2, encoding);
+            thrift.i32(3, ENCODING_RLE);
+            thrift.i32(4, ENCODING_RLE);
+            thrift.structEnd();
+        }
+        thrift.structEnd();
+
+        chunk.bytes.write(header.data, 0, header.length);
+        chunk.bytes.write(compressed.data, 0, compressed.length);
+        chunk.uncompressedBytes += header.length + page.length;
+    }
+
+    /**
+     * Writes the definition levels (1 = value present, 0 = null) with their 4-byte length prefix
+     */
+    private void encodeDefinitionLevels(ColumnarResult.Column column, int from, int to, ByteChunk out) {
+        int[] levels = new int[to - from];
+        for (int i = from; i < to; i++) {
+            levels[i - from] = column.isNull(rows[i]) ? 0 : 1;
+        }
+        int lengthPosition = out.length;
+        out.writeIntLE(0);
+        writeHybrid(levels, levels.length, 1, out);
+        int length = out.length - lengthPosition - 4;
+        for (int b = 0; b < 4; b++) {
+            out.data[lengthPosition + b] = (byte) (length >>> (8 * b));
+        }
+    }
+
+    /**
+     * Writes the non-null values of the rows [from, to)
+     */
+    private void encodeValues(ColumnPlan plan, int from, int to, ByteChunk out) {
+        ColumnarResult.Column column = plan.column;
+        switch (column.getType()) {
+            case TIME:
+                for (int i = from; i < to; i++) {
+                    if (!column.isNull(rows[i])) {
+                        long nanos = column.getLong(rows[i]);
+                        out.writeLongLE(plan.timeMicros ? nanos / 1000 : nanos);
+                    }
+                }
+                break;
+            case LONG:
+                for (int i = from; i < to; i++) {
+                    if (!column.isNull(rows[i])) {
+                        out.writeLongLE(column.getLong(rows[i]));
+                    }
+                }
+                break;
+            case DOUBLE:
+                for (int i = from; i < to; i++) {
+                    if (!column.isNull(rows[i])) {
+                        out.writeLongLE(Double.doubleToRawLongBits(column.getDouble(rows[i])));
+                    }
+                }
+                break;
+            case BOOLEAN: {
+                // Bit-packed, least significant bit first
+                int bits = 0;
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    if (!column.isNull(rows[i])) {
+                        if (column.getBoolean(rows[i])) {
+                            bits |= 1 << (count & 7);
+                        }
+                        if ((++count & 7) == 0) {
+                            out.write(bits);
+                            bits = 0;
+                        }
+                    }
+                }
+                if ((count & 7) != 0) {
+                    out.write(bits);
+                }
+                break;
+            }
+            default:
+                if (plan.dictionaryEncoded) {
+                    int[] codes = new int[to - from];
+                    int count = 0;
+                    for (int i = from; i < to; i++) {
+                        if (!column.isNull(rows[i])) {
+                            codes[count++] = column.getStringCode(rows[i]);
+                        }
+                    }
+                    int bitWidth = Math.max(1, 32 - Integer.numberOfLeadingZeros(plan.strings.length - 1));
+                    out.write(bitWidth);
+                    writeHybrid(codes, count, bitWidth, out);
+                } else {
+                    for (int i = from; i < to; i++) {
+                        if (!column.isNull(rows[i])) {
+                            byte[] value = plan.strings[column.getStringCode(rows[i])];
+                            out.writeIntLE(value.length);
+                            out.write(value);
+                        }
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * Writes values with the RLE / bit-packing hybrid encoding
+     * Runs of 8 or more equal values become RLE runs; everything else is bit-packed in groups of 8
+     */
+    static void writeHybrid(int[] values, int count, int bitWidth, ByteChunk out) {
+        int byteWidth = (bitWidth + 7) / 8;
+        int i = 0;
+        while (i < count) {
+            int run = runLength(values, count, i);
+            if (run >= 8) {
+                out.writeVarint((long) run << 1);
+                for (int b = 0; b < byteWidth; b++) {
+                    out.write(values[i] >>> (8 * b));
+                }
+                i += run;
+                continue;
+            }
+
+            // Bit-pack groups of 8 until the next long run starts; the last group is padded with zeros
+            int start = i;
+            int groups = 0;
+            do {
+                i += 8;
+                groups++;
+            } while (i < count && runLength(values, count, i) < 8);
+            out.writeVarint(((long) groups << 1) | 1);
+            long buffer = 0;
+            int bufferedBits = 0;
+            for (int v = start; v < start + groups * 8; v++) {
+                long value = v < count ? values[v] : 0;
+                buffer |= value << bufferedBits;
+                bufferedBits += bitWidth;
+                while (bufferedBits >= 8) {
+                    out.write((int) buffer);
+                    buffer >>>= 8;
+                    bufferedBits -= 8;
+                }
+            }
+            i = Math.min(i, count);
+        }
+    }
+
+    private static int runLength(int[] values, int count, int start) {
+        int end = start + 1;
+        while (end < count && values[end] == values[start]) {
+            end++;
+        }
+        return end - start;
+    }
+
+    private static void writeColumnChunkMetadata(ThriftWriter thrift, ColumnPlan plan, EncodedChunk chunk, long chunkOffset) {
+        long dataPageOffset = chunkOffset + chunk.dictionaryPageBytes;
+        thrift.structBegin();
+        thrift.i64(2, chunkOffset);
+        thrift.structField(3);
+        thrift.i32(1, plan.physicalType);
+        if (plan.dictionaryEncoded) {
+            thrift.listField(2, ThriftWriter.I32, 3);
+            thrift.listI32(ENCODING_PLAIN);
+            thrift.listI32(ENCODING_RLE);
+            thrift.listI32(ENCODING_RLE_DICTIONARY);
+        } else {
+            thrift.listField(2, ThriftWriter.I32, 2);
+            thrift.listI32(ENCODING_PLAIN);
+            thrift.listI32(ENCODING_RLE);
+        }
+        thrift.listField(3, ThriftWriter.BINARY, 1);
+        thrift.listString(plan.column.getName());
+        thrift.i32(4, CODEC_GZIP);
+        thrift.i64(5, chunk.valueCount);
+        thrift.i64(6, chunk.uncompressedBytes);
+        thrift.i64(7, chunk.bytes.length);
+        thrift.i64(9, dataPageOffset);
+        if (plan.dictionaryEncoded) {
+            thrift.i64(11, chunkOffset);
+        }
+        thrift.structEnd();
+        thrift.structEnd();
+    }
+
+    private void writeFileMetadata(ThriftWriter thrift, ColumnPlan[] plans, int rowGroupCount, ByteChunk rowGroups) {
+        thrift.structBegin();
+        thrift.i32(1, 1);
+
+        // Schema: a root element followed by one element per column
+        thrift.listField(2, ThriftWriter.STRUCT, plans.length + 1);
+        thrift.structBegin();
+        thrift.string(4, "schema");
+        thrift.i32(5, plans.length);
+        thrift.structEnd();
+        for (ColumnPlan plan : plans) {
+            thrift.structBegin();
+            thrift.i32(1, plan.physicalType);
+            thrift.i32(3, REPETITION_OPTIONAL);
+            thrift.string(4, plan.column.getName());
+            if (plan.physicalType == TYPE_BYTE_ARRAY) {
+                thrift.i32(6, CONVERTED_UTF8);
+                thrift.structField(10);
+                thrift.structField(1);
+                thrift.structEnd();
+                thrift.structEnd();
+            } else if (plan.column.getType() == ColumnarResult.ColumnType.TIME) {
+                if (plan.timeMicros) {
+                    thrift.i32(6, CONVERTED_TIMESTAMP_MICROS);
+                }
+                // LogicalType TIMESTAMP(isAdjustedToUTC = true, unit = MICROS or NANOS)
+                thrift.structField(10);
+                thrift.structField(8);
+                thrift.bool(1, true);
+                thrift.structField(2);
+                thrift.structField(plan.timeMicros ? 2 : 3);
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            thrift.structEnd();
+        }
+
+        thrift.i64(3, rows.length);
+        thrift.listField(4, ThriftWriter.STRUCT, rowGroupCount);
+        thrift.raw(rowGroups);
+        thrift.string(6, "InfluxDB Java IDE");
+        thrift.structEnd();
+    }
+
+    private static void write(FileChannel channel, byte[] data, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static EncodedChunk join(CompletableFuture<EncodedChunk> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Minimal Thrift compact protocol writer for the Parquet page headers and footer
+     */
+    static final class ThriftWriter {
+        static final int I32 = 5;
+        static final int I64 = 6;
+        static final int BINARY = 8;
+        static final int STRUCT = 12;
+        private static final int BOOLEAN_TRUE = 1;
+        private static final int BOOLEAN_FALSE = 2;
+        private static final int LIST = 9;
+
+        final ByteChunk out;
+        // Last field id per open struct; field headers encode the delta to it
+        private int[] fieldIds = new int[16];
+        private int depth;
+
+        ThriftWriter(ByteChunk out) {
+            this.out = out;
+        }
+
+        void structBegin() {
+            if (++depth == fieldIds.length) {
+                fieldIds = Arrays.copyOf(fieldIds, depth * 2);
+            }
+            fieldIds[depth] = 0;
+        }
+
+        void structEnd() {
+            out.write(0);
+            depth--;
+        }
+
+        private void fieldHeader(int id, int type) {
+            int delta = id - fieldIds[depth];
+            if (delta > 0 && delta <= 15) {
+                out.write((delta << 4) | type);
+            } else {
+                out.write(type);
+                out.writeVarint(zigzag(id));
+            }
+            fieldIds[depth] = id;
+        }
+
+        void i32(int id, int value) {
+            fieldHeader(id, I32);
+            out.writeVarint(zigzag(value));
+        }
+
+        void i64(int id, long value) {
+            fieldHeader(id, I64);
+            out.writeVarint(zigzag(value));
+        }
+
+        void bool(int id, boolean value) {
+            fieldHeader(id, value ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+        }
+
+        void string(int id, String value) {
+            fieldHeader(id, BINARY);
+            listString(value);
+        }
+
+        /**
+         * Starts a struct-valued field; close it with structEnd
+         */
+        void structField(int id) {
+            fieldHeader(id, STRUCT);
+            structBegin();
+        }
+
+        /**
+         * Starts a list field; the elements follow (structs via structBegin / structEnd)
+         */
+        void listField(int id, int elementType, int size) {
+            fieldHeader(id, LIST);
+            if (size < 15) {
+                out.write((size << 4) | elementType);
+            } else {
+                out.write(0xF0 | elementType);
+                out.writeVarint(size);
+            }
+        }
+
+        void listI32(int value) {
+            out.writeVarint(zigzag(value));
+        }
+
+        void listString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        /**
+         * Appends already encoded elements, such as structs written by another writer
+         */
+        void raw(ByteChunk encoded) {
+            out.write(encoded.data, 0, encoded.length);
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+}
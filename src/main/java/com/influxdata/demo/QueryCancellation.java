@@ -0,0 +1,70 @@
+package com.influxdata.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cancellation handle for one running query
+ * The transport registers the actions that abort its request (cancel the exchange, close the response stream),
+ * and cancel() runs them from any thread, so a blocked socket read returns immediately
+ */
+public class QueryCancellation {
+
+    private final List<Runnable> actions = new ArrayList<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Registers an action to run when the query is cancelled
+     * Runs it right away if the query has already been cancelled
+     */
+    public void onCancel(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(action);
+                return;
+            }
+        }
+        runQuietly(action);
+    }
+
+    /**
+     * Cancels the query and runs all registered abort actions
+     */
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = new ArrayList<>(actions);
+            actions.clear();
+        }
+        for (Runnable action : toRun) {
+            runQuietly(action);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Throws CancellationException if the query has been cancelled
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Query cancelled");
+        }
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            // Aborting is best effort; the query thread reports the outcome
+            System.err.println("Error while cancelling query: " + e.getMessage());
+        }
+    }
+}
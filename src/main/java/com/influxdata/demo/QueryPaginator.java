@@ -0,0 +1,245 @@
+package com.influxdata.demo;
+
+import java.util.Locale;
+
+/**
+ * Splits a single InfluxQL SELECT into pages of at most pageSize rows, fetched one after another
+ * Plain time-ordered selects page by time keyset: each page asks for rows at or after the last loaded
+ * timestamp and skips the rows already loaded at that timestamp, so the server never has to walk past
+ * all earlier rows the way a growing OFFSET does. Selects with another ORDER BY are paged with LIMIT/OFFSET.
+ * Selects with GROUP BY are paged with LIMIT/OFFSET too, but InfluxQL applies both per series, so every page
+ * advances each series by pageSize rows and paging stops once no series fills a page. A select from several
+ * measurements (FROM a, b or a regex) returns one series per measurement without GROUP BY; the first page shows
+ * it, and paging continues per series the same way. Not thread-safe; load one page at a time
+ */
+public class QueryPaginator {
+
+    public enum Strategy { TIME_KEYSET, LIMIT_OFFSET }
+
+    private final String query;
+    private final int pageSize;
+    // LIMIT and OFFSET count rows per series: GROUP BY, or several measurements seen in a page
+    private boolean perSeries;
+    private final boolean descending;
+    private final int limitPosition;
+    private Strategy strategy;
+
+    private long rowsLoaded;
+    private int pagesLoaded;
+    private boolean hasMore = true;
+    // Keyset cursor: timestamp of the last loaded row and how many loaded rows share it
+    private long lastTime;
+    private long rowsAtLastTime;
+
+    private QueryPaginator(String query, int pageSize, boolean groupBy, boolean descending, int limitPosition) {
+        this.query = query;
+        this.pageSize = pageSize;
+        this.perSeries = groupBy;
+        this.descending = descending;
+        this.limitPosition = limitPosition;
+        this.strategy = groupBy || orderedByOtherThanTime(query, descending) ? Strategy.LIMIT_OFFSET : Strategy.TIME_KEYSET;
+    }
+
+    /**
+     * Returns a paginator for the query, or null if it cannot be paginated
+     * Only a single SELECT without its own LIMIT, OFFSET or INTO clause qualifies
+     */
+    public static QueryPaginator create(String query, int pageSize) {
+        String trimmed = query.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        if (pageSize <= 0 || !trimmed.regionMatches(true, 0, "SELECT", 0, 6) || findKeyword(trimmed, ";", 0) >= 0) {
+            // Multiple statements are not paged
+            return null;
+        }
+        if (findKeyword(trimmed, "LIMIT", 0) >= 0 || findKeyword(trimmed, "OFFSET", 0) >= 0
+                || findKeyword(trimmed, "INTO", 0) >= 0) {
+            return null;
+        }
+        int from = findKeyword(trimmed, "FROM", 0);
+        if (from < 0) {
+            return null;
+        }
+
+        // LIMIT and OFFSET go before SLIMIT, SOFFSET and tz
+        int limitPosition = firstOf(trimmed, from, trimmed.length(), "SLIMIT", "SOFFSET", "TZ");
+        boolean groupBy = findKeyword(trimmed, "GROUP", from) >= 0;
+        int order = findKeyword(trimmed, "ORDER", from);
+        boolean descending = order >= 0
+            && trimmed.substring(order, firstOf(trimmed, order, trimmed.length(), "SLIMIT", "SOFFSET", "TZ"))
+                .toUpperCase(Locale.ROOT).matches("(?s)ORDER\\s+BY\\s+TIME\\s+DESC\\s*");
+        return new QueryPaginator(trimmed, pageSize, groupBy, descending, limitPosition);
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public long getRowsLoaded() {
+        return rowsLoaded;
+    }
+
+    public int getPagesLoaded() {
+        return pagesLoaded;
+    }
+
+    /**
+     * Returns false once a page came back short (for GROUP BY or multi-measurement queries: once no series filled the page)
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Builds the query for the next page
+     */
+    public String nextPageQuery() {
+        if (pagesLoaded == 0) {
+            return withLimit(query, limitPosition, 0);
+        }
+        if (strategy == Strategy.LIMIT_OFFSET) {
+            // The offset counts rows per series under GROUP BY or with several measurements
+            return withLimit(query, limitPosition, perSeries ? (long) pagesLoaded * pageSize : rowsLoaded);
+        }
+
+        // Rows at or after the last timestamp, skipping those already loaded
+        String paged = addCondition(query, "time " + (descending ? "<= " : ">= ") + lastTime);
+        return withLimit(paged, firstOf(paged, 0, paged.length(), "SLIMIT", "SOFFSET", "TZ"), rowsAtLastTime);
+    }
+
+    /**
+     * Records a loaded page that is known to be a single series
+     */
+    public void onPageLoaded(ColumnarResult page) {
+        onPageLoaded(page, page != null ? page.getRowCount() : 0);
+    }
+
+    /**
+     * Records a loaded page and moves the cursor past it
+     * largestSeriesRows is the row count of the page's largest series, which decides whether more pages follow;
+     * a page with more rows than that holds several series, and from then on pages advance each series by pageSize
+     */
+    public void onPageLoaded(ColumnarResult page, int largestSeriesRows) {
+        int rows = page != null ? page.getRowCount() : 0;
+        pagesLoaded++;
+        rowsLoaded += rows;
+        hasMore = largestSeriesRows >= pageSize;
+        if (!perSeries && rows > largestSeriesRows) {
+            // Several measurements: a keyset cursor from the last series would skip rows of the others.
+            // Every series is seen on the first page, which had no offset, so per-series offsets start from there
+            perSeries = true;
+            strategy = Strategy.LIMIT_OFFSET;
+        }
+        if (!hasMore || strategy != Strategy.TIME_KEYSET) {
+            return;
+        }
+
+        int timeColumn = page.indexOfColumn("time");
+        if (timeColumn < 0 || page.getColumn(timeColumn).getType() != ColumnarResult.ColumnType.TIME) {
+            // No timestamps to page by (e.g. an aggregate without GROUP BY); count rows instead
+            strategy = Strategy.LIMIT_OFFSET;
+            return;
+        }
+        ColumnarResult.Column times = page.getColumn(timeColumn);
+        long pageLastTime = times.getLong(rows - 1);
+        long ties = 0;
+        for (int row = rows - 1; row >= 0 && !times.isNull(row) && times.getLong(row) == pageLastTime; row--) {
+            ties++;
+        }
+        // A page made up entirely of the previous timestamp extends the run of loaded rows sharing it
+        rowsAtLastTime = pagesLoaded > 1 && ties == rows && pageLastTime == lastTime ? rowsAtLastTime + ties : ties;
+        lastTime = pageLastTime;
+    }
+
+    private String withLimit(String base, int position, long offset) {
+        String clause = " LIMIT " + pageSize + (offset > 0 ? " OFFSET " + offset : "") + " ";
+        return (base.substring(0, position).trim() + clause + base.substring(position).trim()).trim();
+    }
+
+    /**
+     * ANDs a condition onto the WHERE clause of a SELECT, adding the clause if there is none
+     * The WHERE clause runs up to GROUP BY, ORDER BY, LIMIT/OFFSET, SLIMIT/SOFFSET, fill or tz, whichever comes first
+     */
+    static String addCondition(String query, String condition) {
+        int from = Math.max(0, findKeyword(query, "FROM", 0));
+        int where = findKeyword(query, "WHERE", from);
+        int clauseEnd = firstOf(query, from, query.length(), "GROUP", "ORDER", "LIMIT", "OFFSET", "SLIMIT", "SOFFSET", "FILL", "TZ");
+        if (where >= 0) {
+            int bodyStart = where + "WHERE".length();
+            return (query.substring(0, bodyStart) + " (" + query.substring(bodyStart, clauseEnd).trim() + ") AND "
+                + condition + " " + query.substring(clauseEnd).trim()).trim();
+        }
+        return (query.substring(0, clauseEnd).trim() + " WHERE " + condition + " " + query.substring(clauseEnd).trim()).trim();
+    }
+
+    private static boolean orderedByOtherThanTime(String query, boolean descending) {
+        if (descending) {
+            return false;
+        }
+        int order = findKeyword(query, "ORDER", 0);
+        if (order < 0) {
+            return false;
+        }
+        String clause = query.substring(order, firstOf(query, order, query.length(), "SLIMIT", "SOFFSET", "TZ"));
+        return !clause.toUpperCase(Locale.ROOT).matches("(?s)ORDER\\s+BY\\s+TIME(\\s+ASC)?\\s*");
+    }
+
+    /**
+     * Position of the first of the keywords at or after start, or end if none occurs
+     */
+    static int firstOf(String query, int start, int end, String... keywords) {
+        int first = end;
+        for (String keyword : keywords) {
+            int position = findKeyword(query, keyword, start);
+            if (position >= 0 && position < first) {
+                first = position;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Finds a keyword (case-insensitive, whole word) outside quotes, comments and parentheses
+     * Returns its position, or -1
+     */
+    static int findKeyword(String query, String keyword, int start) {
+        int depth = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char ch = query.charAt(i);
+            if (ch == '\'' || ch == '"') {
+                // Skip the quoted string or identifier, honouring backslash escapes
+                for (i++; i < query.length() && query.charAt(i) != ch; i++) {
+                    if (query.charAt(i) == '\\') {
+                        i++;
+                    }
+                }
+                continue;
+            }
+            if (ch == '-' && query.startsWith("--", i)) {
+                int lineEnd = query.indexOf('\n', i);
+                i = lineEnd < 0 ? query.length() : lineEnd;
+                continue;
+            }
+            if (ch == '(') {
+                depth++;
+            } else if (ch == ')') {
+                depth--;
+            } else if (depth == 0 && i >= start && query.regionMatches(true, i, keyword, 0, keyword.length())
+                    && (!isWordChar(keyword.charAt(0))
+                        || ((i == 0 || !isWordChar(query.charAt(i - 1)))
+                            && (i + keyword.length() == query.length() || !isWordChar(query.charAt(i + keyword.length())))))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordChar(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_';
+    }
+}
@@ -0,0 +1,182 @@
+package com.influxdata.demo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-phase timing of one query execution, shown in the profiler tab
+ * Phases are wall-clock durations added in the order they happen (repeated phases add up, e.g. the
+ * table build of every streamed chunk). Time to first byte and download are observed by the transport, which
+ * cannot see connection setup, so TCP connect and TLS handshake are not broken out but included in the time to
+ * first byte. Bytes come from its TransferStats, and heap allocation is counted per thread on JVMs that support it
+ */
+public class QueryProfile {
+
+    public static final String TIME_TO_FIRST_BYTE = "Time to first byte";
+    public static final String DOWNLOAD = "Download";
+    public static final String PARSE = "JSON parse";
+    public static final String TABLE_BUILD = "Table build";
+    public static final String RENDER = "Render";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String query;
+    private final String mode;
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private long totalNanos;
+    private long rows;
+    private long wireBytes = -1;
+    private long decodedBytes = -1;
+    private String contentEncoding;
+    private long allocatedBytes;
+    private boolean allocationMeasured;
+
+    public QueryProfile(String query, String mode) {
+        this.query = query;
+        this.mode = mode;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    /**
+     * Adds time to a phase
+     */
+    public synchronized void addPhase(String phase, long nanos) {
+        phases.merge(phase, Math.max(0, nanos), Long::sum);
+    }
+
+    /**
+     * Phases in the order they were first recorded, in nanoseconds
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * Takes time to first byte, download and byte counts from the transport
+     * Time spent inside the download that belongs to another phase (streamed chunks parsed as they
+     * arrive) is passed as overlapNanos and taken out of the download
+     */
+    public synchronized void applyTransfer(TransferStats stats, long overlapNanos) {
+        addPhase(TIME_TO_FIRST_BYTE, stats.getTimeToFirstByteNanos());
+        addPhase(DOWNLOAD, stats.getDownloadNanos() - overlapNanos);
+        applyBytes(stats);
+    }
+
+    /**
+     * Takes only the byte counts from the transport, for executions whose requests overlap in time
+     */
+    public synchronized void applyBytes(TransferStats stats) {
+        wireBytes = stats.getWireBytes();
+        decodedBytes = stats.getDecodedBytes();
+        contentEncoding = stats.getContentEncoding();
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread, or -1 if the JVM cannot tell
+     * Take the difference of two calls on the same thread around the measured work
+     */
+    public static long threadAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds the allocation of the calling thread since the given threadAllocatedBytes() reading
+     */
+    public synchronized void addAllocatedSince(long allocatedBefore) {
+        long allocatedNow = threadAllocatedBytes();
+        if (allocatedBefore >= 0 && allocatedNow >= 0) {
+            allocatedBytes += allocatedNow - allocatedBefore;
+            allocationMeasured = true;
+        }
+    }
+
+    /**
+     * Ends the profile: the total runs from creation until now
+     */
+    public synchronized void finish(long rows) {
+        this.rows = rows;
+        this.totalNanos = System.nanoTime() - startNanos;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized double getRowsPerSecond() {
+        return totalNanos > 0 ? rows * 1e9 / totalNanos : 0;
+    }
+
+    public synchronized long getWireBytes() {
+        return wireBytes;
+    }
+
+    public synchronized long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    public synchronized String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Approximate heap allocated by the query and IDE threads, or -1 if it could not be measured
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocationMeasured ? allocatedBytes : -1;
+    }
+
+    /**
+     * Where most of the time went: the server (waiting for the first byte, including any connection setup),
+     * the network (download) or the IDE (parsing, table build and render)
+     * Other phases, such as a whole Arrow Flight stream, compete under their own name
+     */
+    public synchronized String getBottleneck() {
+        Map<String, Long> categories = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            String name = phase.getKey();
+            String category = TIME_TO_FIRST_BYTE.equals(name) ? "server"
+                : DOWNLOAD.equals(name) ? "network"
+                : PARSE.equals(name) || TABLE_BUILD.equals(name) || RENDER.equals(name) ? "IDE"
+                : name;
+            categories.merge(category, phase.getValue(), Long::sum);
+        }
+        return categories.entrySet().stream()
+            .filter(category -> category.getValue() > 0)
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .orElse("unknown");
+    }
+
+    /**
+     * One-line summary, e.g. "HTTP: 1200 ms, 50000 rows (41667 rows/s), mostly server"
+     */
+    public synchronized String describe() {
+        return mode + ": " + (totalNanos / 1_000_000) + " ms, " + rows + " rows (" + Math.round(getRowsPerSecond())
+            + " rows/s), mostly " + getBottleneck();
+    }
+}
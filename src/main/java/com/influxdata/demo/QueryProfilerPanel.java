@@ -0,0 +1,161 @@
+package com.influxdata.demo;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Profiler tab: per-phase timing of the latest query execution and a history of earlier ones
+ * Shows time to first byte, download, JSON parse, table build and render as a stacked bar
+ * and a table, plus bytes on the wire, rows/s and approximate heap allocation, so a slow query can
+ * be blamed on the server, the network or the IDE at a glance
+ */
+public class QueryProfilerPanel extends VBox {
+
+    // Profiles kept in the history list
+    static final int MAX_HISTORY = 50;
+    private static final String[] PHASE_COLORS = {"#9C27B0", "#F44336", "#FF9800", "#2196F3", "#4CAF50", "#009688"};
+
+    private final Label summaryLabel = new Label("Run a query to see where its time goes.");
+    private final Label queryLabel = new Label();
+    private final HBox phaseBar = new HBox();
+    private final GridPane phaseGrid = new GridPane();
+    private final GridPane statsGrid = new GridPane();
+    private final ObservableList<QueryProfile> history = FXCollections.observableArrayList();
+    private final ListView<QueryProfile> historyView = new ListView<>(history);
+
+    public QueryProfilerPanel() {
+        super(10);
+        setPadding(new Insets(15));
+
+        summaryLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        queryLabel.setFont(Font.font("Consolas", 12));
+        queryLabel.setStyle("-fx-text-fill: #666666;");
+
+        phaseBar.setPrefHeight(22);
+        phaseBar.setMinHeight(22);
+        phaseBar.setStyle("-fx-border-color: #cccccc;");
+
+        phaseGrid.setHgap(20);
+        phaseGrid.setVgap(4);
+        statsGrid.setHgap(20);
+        statsGrid.setVgap(4);
+
+        HBox details = new HBox(40, phaseGrid, statsGrid);
+
+        Label historyLabel = new Label("History");
+        historyLabel.setFont(Font.font("Arial", FontWeight.BOLD, 13));
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        historyView.setCellFactory(list -> new ListCell<QueryProfile>() {
+            @Override
+            protected void updateItem(QueryProfile profile, boolean empty) {
+                super.updateItem(profile, empty);
+                setText(empty || profile == null ? null
+                    : timeFormat.format(new Date(profile.getStartedAtMillis())) + "  " + profile.describe() + "  -  " + profile.getQuery());
+            }
+        });
+        historyView.getSelectionModel().selectedItemProperty().addListener((observable, oldProfile, profile) -> {
+            if (profile != null) {
+                display(profile);
+            }
+        });
+        VBox.setVgrow(historyView, Priority.ALWAYS);
+
+        getChildren().addAll(summaryLabel, queryLabel, phaseBar, details, historyLabel, historyView);
+    }
+
+    /**
+     * Shows a finished profile and adds it to the top of the history
+     */
+    public void addProfile(QueryProfile profile) {
+        history.add(0, profile);
+        if (history.size() > MAX_HISTORY) {
+            history.remove(MAX_HISTORY, history.size());
+        }
+        historyView.getSelectionModel().select(0);
+        display(profile);
+    }
+
+    private void display(QueryProfile profile) {
+        summaryLabel.setText(profile.describe());
+        queryLabel.setText(profile.getQuery());
+
+        Map<String, Long> phases = profile.getPhases();
+        long phaseTotal = Math.max(1, phases.values().stream().mapToLong(Long::longValue).sum());
+        phaseBar.getChildren().clear();
+        phaseGrid.getChildren().clear();
+        phaseGrid.add(header("Phase"), 0, 0);
+        phaseGrid.add(header("Time"), 1, 0);
+        phaseGrid.add(header("Share"), 2, 0);
+        int row = 1;
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            String color = PHASE_COLORS[(row - 1) % PHASE_COLORS.length];
+            double share = phase.getValue() / (double) phaseTotal;
+
+            Region segment = new Region();
+            segment.setStyle("-fx-background-color: " + color + ";");
+            segment.prefWidthProperty().bind(phaseBar.widthProperty().multiply(share));
+            segment.setMinWidth(0);
+            Tooltip.install(segment, new Tooltip(phase.getKey() + ": " + formatMillis(phase.getValue())));
+            phaseBar.getChildren().add(segment);
+
+            Region swatch = new Region();
+            swatch.setMinSize(12, 12);
+            swatch.setStyle("-fx-background-color: " + color + ";");
+            HBox name = new HBox(6, swatch, new Label(phase.getKey()));
+            name.setAlignment(Pos.CENTER_LEFT);
+            phaseGrid.add(name, 0, row);
+            phaseGrid.add(new Label(formatMillis(phase.getValue())), 1, row);
+            phaseGrid.add(new Label(Math.round(share * 100) + "%"), 2, row);
+            row++;
+        }
+        phaseGrid.add(header("Total"), 0, row);
+        phaseGrid.add(header(formatMillis(profile.getTotalNanos())), 1, row);
+
+        statsGrid.getChildren().clear();
+        int statsRow = 0;
+        statsRow = addStat("Rows", String.valueOf(profile.getRows()), statsRow);
+        statsRow = addStat("Rows/s", String.valueOf(Math.round(profile.getRowsPerSecond())), statsRow);
+        if (profile.getWireBytes() >= 0) {
+            statsRow = addStat("On the wire", TransferStats.formatBytes(profile.getWireBytes())
+                + " (" + profile.getContentEncoding() + ")", statsRow);
+            statsRow = addStat("Decoded", TransferStats.formatBytes(profile.getDecodedBytes()), statsRow);
+            statsRow = addStat("Connect / TLS", "not available (included in time to first byte)", statsRow);
+        }
+        long allocated = profile.getAllocatedBytes();
+        statsRow = addStat("Heap allocated", allocated >= 0 ? "~" + TransferStats.formatBytes(allocated) : "not measured", statsRow);
+        addStat("Mostly", profile.getBottleneck(), statsRow);
+    }
+
+    private int addStat(String name, String value, int row) {
+        statsGrid.add(header(name), 0, row);
+        statsGrid.add(new Label(value), 1, row);
+        return row + 1;
+    }
+
+    private static Label header(String text) {
+        Label label = new Label(text);
+        label.setStyle("-fx-font-weight: bold;");
+        return label;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.1f ms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,232 @@
+package com.influxdata.demo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side cache of query results with a memory budget, LRU eviction and a time-to-live
+ * Entries are keyed by connection, token, backend, normalized query text and time precision,
+ * so re-running a query that is still cached renders without touching the network
+ */
+public class QueryResultCache {
+
+    // Schema statements; other SHOW statements (queries, diagnostics, stats, ...) report live server state
+    private static final Pattern SCHEMA_SHOW = Pattern.compile(
+        "SHOW (DATABASES|RETENTION POLICIES|MEASUREMENTS|SERIES|FIELD KEYS|TAG KEYS|TAG VALUES)\\b.*", Pattern.DOTALL);
+    // Results that depend on when the query runs, estimates, or statements that write
+    private static final Pattern NOT_REPEATABLE = Pattern.compile(
+        ".*(\\bNOW\\s*\\(|\\bCARDINALITY\\b|\\bINTO\\b).*", Pattern.DOTALL);
+
+    /**
+     * Identifies a cached result
+     * The token is kept only as a fingerprint, so users with different permissions never share a result
+     */
+    public static final class Key {
+        private final String host;
+        private final String database;
+        private final String tokenFingerprint;
+        private final String backend;
+        private final String query;
+        private final String precision;
+
+        public Key(String host, String database, String token, String backend, String query, String precision) {
+            this.host = host;
+            this.database = database;
+            this.tokenFingerprint = fingerprint(token);
+            this.backend = backend;
+            this.query = normalizeQuery(query);
+            this.precision = precision;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return host.equals(other.host) && database.equals(other.database)
+                && tokenFingerprint.equals(other.tokenFingerprint) && backend.equals(other.backend)
+                && query.equals(other.query) && precision.equals(other.precision);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, database, tokenFingerprint, backend, query, precision);
+        }
+
+        private static String fingerprint(String token) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest((token != null ? token : "").getBytes(StandardCharsets.UTF_8));
+                StringBuilder hex = new StringBuilder();
+                for (int i = 0; i < 16; i++) {
+                    hex.append(String.format("%02x", digest[i]));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
+    /**
+     * A cached result together with the raw response it was parsed from (may be null)
+     */
+    public static final class Entry {
+        private final ColumnarResult result;
+        private final String rawResponse;
+        private final long sizeBytes;
+        private final long createdAt;
+
+        private Entry(ColumnarResult result, String rawResponse, long sizeBytes, long createdAt) {
+            this.result = result;
+            this.rawResponse = rawResponse;
+            this.sizeBytes = sizeBytes;
+            this.createdAt = createdAt;
+        }
+
+        public ColumnarResult getResult() {
+            return result;
+        }
+
+        public String getRawResponse() {
+            return rawResponse;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public long getAgeMillis() {
+            return System.currentTimeMillis() - createdAt;
+        }
+    }
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private final long ttlMillis;
+    private long currentBytes;
+    private long hits;
+    private long misses;
+
+    public QueryResultCache(long maxBytes, long ttlMillis) {
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns true for read-only statements whose results are safe to reuse: SELECTs and schema SHOWs
+     * Queries relative to now(), cardinality estimates, SELECT INTO and SHOW statements about server state
+     * (SHOW QUERIES, SHOW DIAGNOSTICS, ...) are never cached
+     */
+    public static boolean isCacheable(String query) {
+        String normalized = normalizeQuery(query).toUpperCase();
+        if (NOT_REPEATABLE.matcher(normalized).matches()) {
+            return false;
+        }
+        return normalized.startsWith("SELECT") || SCHEMA_SHOW.matcher(normalized).matches();
+    }
+
+    /**
+     * Returns the cached entry for the key, or null if it is missing or has expired
+     */
+    public synchronized Entry get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.getAgeMillis() > ttlMillis) {
+            remove(key);
+            entry = null;
+        }
+
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a result, evicting least recently used entries until it fits the budget
+     * Results larger than the whole budget, or spilled to disk, are not cached
+     */
+    public synchronized void put(Key key, ColumnarResult result, String rawResponse) {
+        if (result.isSpilled()) {
+            // Keeping a spilled result would pin its mapped segment files for the lifetime of the entry
+            System.out.println("Result spilled to disk, not cached");
+            return;
+        }
+        long size = result.estimatedBytes() + (rawResponse != null ? 40 + 2L * rawResponse.length() : 0);
+        if (size > maxBytes) {
+            System.out.println("Result of " + size + " bytes exceeds cache budget, not cached");
+            return;
+        }
+
+        remove(key);
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes + size > maxBytes && iterator.hasNext()) {
+            currentBytes -= iterator.next().getValue().getSizeBytes();
+            iterator.remove();
+        }
+
+        entries.put(key, new Entry(result, rawResponse, size, System.currentTimeMillis()));
+        currentBytes += size;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * One-line summary of cache usage for the status bar
+     */
+    public synchronized String getStats() {
+        return entries.size() + " entries, " + (currentBytes / (1024 * 1024)) + " of " + (maxBytes / (1024 * 1024))
+            + " MB, " + hits + " hits / " + misses + " misses";
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= removed.getSizeBytes();
+        }
+    }
+
+    /**
+     * Normalizes query text so formatting differences do not defeat the cache
+     * Trims, drops a trailing semicolon and collapses whitespace outside quoted literals
+     */
+    static String normalizeQuery(String query) {
+        String trimmed = query.trim();
+        if (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,465 @@
+package com.influxdata.demo;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TextField;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Paged, virtualized viewer for raw query responses
+ * The response is split into fixed-size pages and only the current page is turned into lines;
+ * the ListView then lays out just the lines on screen, so multi-megabyte responses open instantly
+ * Pretty-printing is done per page on demand, and search runs on a background thread
+ */
+public class RawResponseViewer extends VBox {
+
+    // Characters of the response per page and the longest line shown before wrapping
+    private static final int PAGE_CHARS = 256 * 1024;
+    private static final int MAX_LINE_CHARS = 1000;
+    private static final int MAX_INDENT_LEVELS = 40;
+    // Search stops recording positions beyond this many matches
+    private static final int MAX_MATCHES = 100000;
+
+    private final ListView<String> lineView = new ListView<>();
+    private final Label pageLabel = new Label();
+    private final Button previousPageButton = new Button("◀");
+    private final Button nextPageButton = new Button("▶");
+    private final CheckBox prettyPrintCheckBox = new CheckBox("Pretty print");
+    private final TextField searchField = new TextField();
+    private final Label matchLabel = new Label();
+
+    private String text = "";
+    private int pageCount = 1;
+    private int currentPage;
+    private PageLines currentLines;
+
+    // Formatter state at the start of each page, filled in lazily for pretty-printing
+    private int[] pageStartDepth = new int[1];
+    private boolean[] pageStartInString = new boolean[1];
+    private int knownPageStates = 1;
+
+    // Search results: match positions in the response and the selected match
+    private int[] matches = new int[0];
+    private int matchCount;
+    private int currentMatch = -1;
+    private String matchQuery = "";
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+
+    /**
+     * Lines of one page together with the response offset each line starts at
+     */
+    private static final class PageLines {
+        final List<String> lines = new ArrayList<>();
+        int[] sourceOffsets = new int[64];
+
+        void add(String line, int sourceOffset) {
+            if (lines.size() == sourceOffsets.length) {
+                sourceOffsets = Arrays.copyOf(sourceOffsets, sourceOffsets.length * 2);
+            }
+            sourceOffsets[lines.size()] = sourceOffset;
+            lines.add(line);
+        }
+
+        /**
+         * Returns the index of the line containing the given response offset
+         */
+        int lineAt(int offset) {
+            int low = 0;
+            int high = lines.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (sourceOffsets[mid] <= offset) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return Math.max(low, 0);
+        }
+    }
+
+    public RawResponseViewer() {
+        super(5);
+
+        lineView.setPlaceholder(new Label("Raw JSON response will appear here..."));
+        lineView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        lineView.setCellFactory(list -> {
+            ListCell<String> cell = new ListCell<String>() {
+                @Override
+                protected void updateItem(String item, boolean empty) {
+                    super.updateItem(item, empty);
+                    setText(empty ? null : item);
+                }
+            };
+            cell.setFont(Font.font("Consolas", 11));
+            return cell;
+        });
+        // Ctrl+C copies the selected lines
+        lineView.setOnKeyPressed(event -> {
+            if (event.isShortcutDown() && event.getCode() == KeyCode.C) {
+                copySelectedLines();
+            }
+        });
+        VBox.setVgrow(lineView, Priority.ALWAYS);
+
+        previousPageButton.setOnAction(e -> showPage(currentPage - 1));
+        nextPageButton.setOnAction(e -> showPage(currentPage + 1));
+        prettyPrintCheckBox.setOnAction(e -> showPage(currentPage));
+
+        searchField.setPromptText("Search response...");
+        searchField.setPrefWidth(220);
+        searchField.setOnAction(e -> findNext(true));
+        Button previousMatchButton = new Button("Previous");
+        previousMatchButton.setOnAction(e -> findNext(false));
+        Button nextMatchButton = new Button("Next");
+        nextMatchButton.setOnAction(e -> findNext(true));
+
+        HBox toolbar = new HBox(8);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(5, 0, 0, 0));
+        toolbar.getChildren().addAll(previousPageButton, pageLabel, nextPageButton, prettyPrintCheckBox,
+            searchField, previousMatchButton, nextMatchButton, matchLabel);
+
+        getChildren().addAll(toolbar, lineView);
+        setText("");
+    }
+
+    /**
+     * Replaces the displayed response; only the first page is laid out
+     */
+    public void setText(String newText) {
+        text = newText != null ? newText : "";
+        pageCount = Math.max(1, (text.length() + PAGE_CHARS - 1) / PAGE_CHARS);
+        pageStartDepth = new int[pageCount];
+        pageStartInString = new boolean[pageCount];
+        knownPageStates = 1;
+
+        // Results of a previous search no longer apply
+        searchGeneration.incrementAndGet();
+        matches = new int[0];
+        matchCount = 0;
+        currentMatch = -1;
+        matchQuery = "";
+        matchLabel.setText("");
+
+        showPage(0);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void clear() {
+        setText("");
+    }
+
+    /**
+     * Shows the given page, formatting it on demand
+     */
+    private void showPage(int page) {
+        currentPage = Math.max(0, Math.min(page, pageCount - 1));
+        currentLines = prettyPrintCheckBox.isSelected() ? prettyPrintPage(currentPage) : splitPage(currentPage);
+        // An empty response shows the placeholder instead of a single blank line
+        lineView.setItems(text.isEmpty() ? FXCollections.observableArrayList()
+            : FXCollections.observableArrayList(currentLines.lines));
+
+        pageLabel.setText("Page " + (currentPage + 1) + " of " + pageCount + " (" + TransferStats.formatBytes(text.length()) + ")");
+        previousPageButton.setDisable(currentPage == 0);
+        nextPageButton.setDisable(currentPage >= pageCount - 1);
+    }
+
+    /**
+     * Splits a page into its text lines, wrapping very long lines
+     */
+    private PageLines splitPage(int page) {
+        PageLines pageLines = new PageLines();
+        int start = page * PAGE_CHARS;
+        int end = Math.min(text.length(), start + PAGE_CHARS);
+
+        int lineStart = start;
+        for (int i = start; i <= end; i++) {
+            boolean atEnd = i == end;
+            if (atEnd || text.charAt(i) == '\n' || i - lineStart >= MAX_LINE_CHARS) {
+                if (!atEnd || i > lineStart || pageLines.lines.isEmpty()) {
+                    pageLines.add(text.substring(lineStart, i), lineStart);
+                }
+                lineStart = (!atEnd && text.charAt(i) == '\n') ? i + 1 : i;
+            }
+        }
+        return pageLines;
+    }
+
+    /**
+     * Pretty-prints one page of JSON, continuing from the nesting depth and string state at its start
+     * Works on characters only, so it never needs to parse the whole document
+     */
+    private PageLines prettyPrintPage(int page) {
+        ensurePageStates(page);
+
+        PageLines pageLines = new PageLines();
+        int start = page * PAGE_CHARS;
+        int end = Math.min(text.length(), start + PAGE_CHARS);
+        int depth = pageStartDepth[page];
+        boolean inString = pageStartInString[page];
+        boolean escaped = false;
+
+        StringBuilder line = new StringBuilder();
+        int lineSource = start;
+        indent(line, depth);
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (line.length() >= MAX_LINE_CHARS) {
+                pageLines.add(line.toString(), lineSource);
+                line.setLength(0);
+                lineSource = i;
+            }
+
+            if (inString) {
+                line.append(c);
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"':
+                    inString = true;
+                    line.append(c);
+                    break;
+                case '{':
+                case '[':
+                    line.append(c);
+                    depth++;
+                    pageLines.add(line.toString(), lineSource);
+                    line.setLength(0);
+                    lineSource = i + 1;
+                    indent(line, depth);
+                    break;
+                case '}':
+                case ']':
+                    depth = Math.max(0, depth - 1);
+                    if (line.toString().trim().length() > 0) {
+                        pageLines.add(line.toString(), lineSource);
+                        lineSource = i;
+                    }
+                    line.setLength(0);
+                    indent(line, depth);
+                    line.append(c);
+                    break;
+                case ',':
+                    line.append(c);
+                    pageLines.add(line.toString(), lineSource);
+                    line.setLength(0);
+                    lineSource = i + 1;
+                    indent(line, depth);
+                    break;
+                case ':':
+                    line.append(c);
+                    if (i + 1 < end && !Character.isWhitespace(text.charAt(i + 1))) {
+                        line.append(' ');
+                    }
+                    break;
+                case '\n':
+                case '\r':
+                    if (line.toString().trim().length() > 0) {
+                        pageLines.add(line.toString(), lineSource);
+                    }
+                    line.setLength(0);
+                    lineSource = i + 1;
+                    indent(line, depth);
+                    break;
+                default:
+                    line.append(c);
+                    break;
+            }
+        }
+
+        if (line.toString().trim().length() > 0 || pageLines.lines.isEmpty()) {
+            pageLines.add(line.toString(), lineSource);
+        }
+        return pageLines;
+    }
+
+    /**
+     * Computes the formatter state at the start of every page up to the given one
+     * Each page is scanned once; later calls reuse the stored states
+     */
+    private void ensurePageStates(int page) {
+        while (knownPageStates <= page) {
+            int previous = knownPageStates - 1;
+            int depth = pageStartDepth[previous];
+            boolean inString = pageStartInString[previous];
+            boolean escaped = false;
+
+            int end = Math.min(text.length(), (previous + 1) * PAGE_CHARS);
+            for (int i = previous * PAGE_CHARS; i < end; i++) {
+                char c = text.charAt(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth = Math.max(0, depth - 1);
+                }
+            }
+
+            pageStartDepth[knownPageStates] = depth;
+            pageStartInString[knownPageStates] = inString;
+            knownPageStates++;
+        }
+    }
+
+    private static void indent(StringBuilder line, int depth) {
+        for (int i = 0; i < Math.min(depth, MAX_INDENT_LEVELS); i++) {
+            line.append("  ");
+        }
+    }
+
+    /**
+     * Moves to the next (or previous) match of the search text
+     * A new search text starts a background scan of the whole response; navigation within known matches is instant
+     */
+    private void findNext(boolean forward) {
+        String query = searchField.getText();
+        if (query == null || query.isEmpty()) {
+            matchLabel.setText("");
+            return;
+        }
+
+        if (!query.equals(matchQuery)) {
+            startSearch(query, forward);
+            return;
+        }
+        if (matchCount == 0) {
+            return;
+        }
+
+        currentMatch = forward ? (currentMatch + 1) % matchCount : (currentMatch - 1 + matchCount) % matchCount;
+        jumpToMatch();
+    }
+
+    /**
+     * Scans the response for the search text (case-insensitive) on a background thread
+     * Superseded searches stop as soon as they notice a newer one has started
+     */
+    private void startSearch(String query, boolean forward) {
+        int generation = searchGeneration.incrementAndGet();
+        String searchText = text;
+        int fromOffset = currentLines != null && !currentLines.lines.isEmpty()
+            ? currentLines.sourceOffsets[Math.max(0, lineView.getSelectionModel().getSelectedIndex())] : 0;
+        matchLabel.setText("Searching...");
+
+        CompletableFuture.supplyAsync(() -> {
+            int[] found = new int[16];
+            int count = 0;
+            int length = query.length();
+            char first = query.charAt(0);
+            char firstLower = Character.toLowerCase(first);
+            char firstUpper = Character.toUpperCase(first);
+
+            int last = searchText.length() - length;
+            for (int i = 0; i <= last; i++) {
+                char c = searchText.charAt(i);
+                if (c != firstLower && c != firstUpper && c != first) {
+                    continue;
+                }
+                if (searchText.regionMatches(true, i, query, 0, length)) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, found.length * 2);
+                    }
+                    found[count++] = i;
+                    if (count >= MAX_MATCHES) {
+                        break;
+                    }
+                }
+                // Check for a newer search every 1M characters
+                if ((i & 0xFFFFF) == 0 && searchGeneration.get() != generation) {
+                    return null;
+                }
+            }
+            return Arrays.copyOf(found, count);
+        }).thenAccept(found -> Platform.runLater(() -> {
+            if (found == null || searchGeneration.get() != generation) {
+                return;
+            }
+            matches = found;
+            matchCount = found.length;
+            matchQuery = query;
+            if (matchCount == 0) {
+                currentMatch = -1;
+                matchLabel.setText("No matches");
+                return;
+            }
+
+            // Start at the first match after the current position (or before it when searching backwards)
+            currentMatch = forward ? 0 : matchCount - 1;
+            for (int i = 0; i < matchCount; i++) {
+                if (matches[i] >= fromOffset) {
+                    currentMatch = forward ? i : Math.max(0, i - 1);
+                    break;
+                }
+            }
+            jumpToMatch();
+        }));
+    }
+
+    /**
+     * Shows the page containing the current match and selects its line
+     */
+    private void jumpToMatch() {
+        int position = matches[currentMatch];
+        int page = position / PAGE_CHARS;
+        if (page != currentPage) {
+            showPage(page);
+        }
+
+        int line = currentLines.lineAt(position);
+        lineView.getSelectionModel().clearAndSelect(line);
+        lineView.scrollTo(Math.max(0, line - 3));
+        matchLabel.setText((currentMatch + 1) + " of " + matchCount + (matchCount >= MAX_MATCHES ? "+" : "") + " matches");
+    }
+
+    private void copySelectedLines() {
+        List<String> selected = lineView.getSelectionModel().getSelectedItems();
+        if (selected.isEmpty()) {
+            return;
+        }
+        ClipboardContent content = new ClipboardContent();
+        content.putString(String.join("\n", selected));
+        Clipboard.getSystemClipboard().setContent(content);
+    }
+}
@@ -0,0 +1,47 @@
+package com.influxdata.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Writes a snapshot of result rows to a file in one export format, meant to run off the JavaFX thread
+ * The format follows the file name: .parquet, .arrow / .feather (Arrow IPC), .jsonl[.gz] (JSON Lines), .csv.gz, or plain CSV
+ */
+public interface ResultExporter {
+
+    /**
+     * Receives progress after every written batch of rows
+     */
+    interface ProgressListener {
+        void onProgress(long rowsWritten, long bytesWritten);
+    }
+
+    /**
+     * Writes all rows to the file, replacing it, and returns the number of bytes written
+     */
+    long export(File file, ProgressListener listener) throws IOException;
+
+    /**
+     * Name of the format, for status messages
+     */
+    String getFormatName();
+
+    /**
+     * Creates the exporter matching the file extension for the given rows of a result, in the given order
+     * Line protocol needs a column mapping and is created as a LineProtocolExporter directly
+     */
+    static ResultExporter forFile(File file, ColumnarResult result, int[] rows) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".parquet")) {
+            return new ParquetExporter(result, rows);
+        }
+        if (name.endsWith(".arrow") || name.endsWith(".feather")) {
+            return new ArrowExporter(result, rows);
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".jsonl.gz")) {
+            return new JsonLinesExporter(result, rows, name.endsWith(".gz"));
+        }
+        return new CsvExporter(result, rows, name.endsWith(".gz"));
+    }
+}
@@ -0,0 +1,194 @@
+package com.influxdata.demo;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Filter state of one result: a row bitmap per filtered column plus one for the global filter
+ * The visible rows are the AND of all bitmaps, so adding, changing or removing one predicate
+ * only re-evaluates that column and never copies rows. Rows appended after a column filter was applied are
+ * evaluated on their own by extendColumnFilters()
+ */
+public class ResultFilters {
+
+    public static final String CONTAINS = "Contains";
+    public static final String STARTS_WITH = "Starts with";
+    public static final String ENDS_WITH = "Ends with";
+    public static final String EQUALS = "Equals";
+    public static final String NOT_EQUALS = "Not equals";
+
+    /**
+     * Predicate of one column filter, its matches and the column type they were evaluated with
+     */
+    private static final class ColumnFilter {
+        final String filterType;
+        final String filterValue;
+        final ColumnarResult.ColumnType type;
+        final RowBitmap bitmap;
+
+        ColumnFilter(String filterType, String filterValue, ColumnarResult.ColumnType type, RowBitmap bitmap) {
+            this.filterType = filterType;
+            this.filterValue = filterValue;
+            this.type = type;
+            this.bitmap = bitmap;
+        }
+    }
+
+    private final ColumnarResult result;
+    private final Map<Integer, ColumnFilter> columnFilters = new LinkedHashMap<>();
+    private RowBitmap globalBitmap;
+
+    public ResultFilters(ColumnarResult result) {
+        this.result = result;
+    }
+
+    public ColumnarResult getResult() {
+        return result;
+    }
+
+    /**
+     * Evaluates a predicate on one column and returns the matching rows as a bitmap
+     * Comparisons are case-insensitive on the displayed text; null cells compare as empty text.
+     * String columns evaluate each distinct value once and then match rows by dictionary code
+     */
+    public static RowBitmap evaluate(ColumnarResult result, int columnIndex, String filterType, String filterValue) {
+        return evaluate(result, columnIndex, filterType, filterValue, new RowBitmap(result.getRowCount()), 0);
+    }
+
+    /**
+     * Evaluates the predicate on the rows from fromRow on and sets the matches in the given bitmap,
+     * which must cover every row of the result
+     */
+    private static RowBitmap evaluate(ColumnarResult result, int columnIndex, String filterType, String filterValue,
+                                      RowBitmap bitmap, int fromRow) {
+        ColumnarResult.Column column = result.getColumn(columnIndex);
+        String searchValue = filterValue.toLowerCase(Locale.ROOT);
+        int rowCount = result.getRowCount();
+        boolean nullMatches = matches("", filterType, searchValue);
+
+        if (column.getType() == ColumnarResult.ColumnType.STRING) {
+            List<String> dictionary = column.getDictionary();
+            boolean[] codeMatches = new boolean[dictionary.size()];
+            for (int code = 0; code < codeMatches.length; code++) {
+                codeMatches[code] = matches(dictionary.get(code).toLowerCase(Locale.ROOT), filterType, searchValue);
+            }
+            for (int row = fromRow; row < rowCount; row++) {
+                if (column.isNull(row) ? nullMatches : codeMatches[column.getStringCode(row)]) {
+                    bitmap.set(row);
+                }
+            }
+            return bitmap;
+        }
+
+        for (int row = fromRow; row < rowCount; row++) {
+            boolean matched = column.isNull(row)
+                ? nullMatches
+                : matches(column.getDisplayValue(row).toLowerCase(Locale.ROOT), filterType, searchValue);
+            if (matched) {
+                bitmap.set(row);
+            }
+        }
+        return bitmap;
+    }
+
+    private static boolean matches(String cellValue, String filterType, String searchValue) {
+        switch (filterType) {
+            case CONTAINS:
+                return cellValue.contains(searchValue);
+            case STARTS_WITH:
+                return cellValue.startsWith(searchValue);
+            case ENDS_WITH:
+                return cellValue.endsWith(searchValue);
+            case EQUALS:
+                return cellValue.equals(searchValue);
+            case NOT_EQUALS:
+                return !cellValue.equals(searchValue);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Sets (or replaces) the filter of a column with the bitmap evaluate() returned for its predicate
+     * The result must not have been appended to since that evaluation
+     */
+    public void setColumnFilter(int columnIndex, String filterType, String filterValue, RowBitmap bitmap) {
+        columnFilters.put(columnIndex, new ColumnFilter(filterType, filterValue, result.getColumn(columnIndex).getType(), bitmap));
+    }
+
+    public void clearColumnFilter(int columnIndex) {
+        columnFilters.remove(columnIndex);
+    }
+
+    public boolean hasColumnFilter(int columnIndex) {
+        return columnFilters.containsKey(columnIndex);
+    }
+
+    /**
+     * Evaluates every column filter on the rows appended since it was last evaluated
+     * A column whose type was widened meanwhile changes its display text, so it is evaluated again in full
+     */
+    public void extendColumnFilters() {
+        int rowCount = result.getRowCount();
+        for (Map.Entry<Integer, ColumnFilter> entry : columnFilters.entrySet()) {
+            ColumnFilter filter = entry.getValue();
+            int columnIndex = entry.getKey();
+            ColumnarResult.ColumnType type = result.getColumn(columnIndex).getType();
+            if (filter.bitmap.size() == rowCount && filter.type == type) {
+                continue;
+            }
+            RowBitmap bitmap = filter.type == type
+                ? evaluate(result, columnIndex, filter.filterType, filter.filterValue, filter.bitmap.withSize(rowCount), filter.bitmap.size())
+                : evaluate(result, columnIndex, filter.filterType, filter.filterValue);
+            entry.setValue(new ColumnFilter(filter.filterType, filter.filterValue, type, bitmap));
+        }
+    }
+
+    /**
+     * Returns true if the global filter has not seen every row yet and has to run again
+     */
+    public boolean isGlobalFilterBehind() {
+        return globalBitmap != null && globalBitmap.size() < result.getRowCount();
+    }
+
+    /**
+     * Sets the rows matched by the global filter, or clears it when rows is null
+     */
+    public void setGlobalMatches(int[] rows) {
+        globalBitmap = rows != null ? RowBitmap.fromRows(rows, result.getRowCount()) : null;
+    }
+
+    public void clearAll() {
+        columnFilters.clear();
+        globalBitmap = null;
+    }
+
+    /**
+     * Number of active filters, counting the global filter as one
+     */
+    public int getActiveCount() {
+        return columnFilters.size() + (globalBitmap != null ? 1 : 0);
+    }
+
+    /**
+     * Returns the rows passing every active filter as a bitmap, or null if no filter is active
+     * Rows a filter has not evaluated yet are not included
+     */
+    public RowBitmap visibleBitmap() {
+        RowBitmap combined = globalBitmap;
+        for (ColumnFilter filter : columnFilters.values()) {
+            combined = combined == null ? filter.bitmap : combined.and(filter.bitmap);
+        }
+        return combined;
+    }
+
+    /**
+     * Returns the rows passing every active filter in row order, or null if no filter is active
+     */
+    public int[] visibleRows() {
+        RowBitmap combined = visibleBitmap();
+        return combined != null ? combined.toRows() : null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.influxdata.demo;
+
+/**
+ * Fixed-size bitmap with one bit per result row
+ * Filters produce bitmaps that are AND-ed together, so combining them costs one pass over
+ * rowCount / 64 words instead of a pass over the rows
+ */
+public final class RowBitmap {
+
+    private final long[] words;
+    private final int size;
+
+    public RowBitmap(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Creates a bitmap with the given rows set
+     */
+    public static RowBitmap fromRows(int[] rows, int size) {
+        RowBitmap bitmap = new RowBitmap(size);
+        for (int row : rows) {
+            if (row < size) {
+                bitmap.set(row);
+            }
+        }
+        return bitmap;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void set(int row) {
+        words[row >>> 6] |= 1L << row;
+    }
+
+    public boolean get(int row) {
+        return row < size && (words[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Returns a copy covering newSize rows; the rows added at the end are not set
+     */
+    public RowBitmap withSize(int newSize) {
+        RowBitmap grown = new RowBitmap(Math.max(size, newSize));
+        System.arraycopy(words, 0, grown.words, 0, words.length);
+        return grown;
+    }
+
+    /**
+     * Returns a new bitmap with the bits set in both; the result is as long as the shorter one,
+     * so rows one of them has not evaluated yet are left out
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap(Math.min(size, other.size));
+        for (int i = 0; i < result.words.length; i++) {
+            result.words[i] = words[i] & other.words[i];
+        }
+        result.clearTail();
+        return result;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the set rows in ascending order
+     */
+    public int[] toRows() {
+        int[] rows = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                rows[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Clears the unused bits of the last word so they never count as rows
+     */
+    private void clearTail() {
+        int tailBits = size & 63;
+        if (tailBits != 0 && words.length > 0) {
+            words[words.length - 1] &= (1L << tailBits) - 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RowBitmap[" + cardinality() + " of " + size + "]";
+    }
+}
@@ -0,0 +1,84 @@
+package com.influxdata.demo;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Observable list of row indices into a ColumnarResult, used as the TableView items
+ * Backed by a primitive int[] (or by nothing at all for the unfiltered identity view),
+ * so filtering and sorting produce index arrays instead of copying rows
+ */
+public class RowIndexList extends ObservableListBase<Integer> {
+
+    // Null means identity: position i shows row i
+    private final int[] indices;
+    private int size;
+
+    private RowIndexList(int[] indices, int size) {
+        this.indices = indices;
+        this.size = size;
+    }
+
+    /**
+     * Creates the unfiltered view showing rows 0..rowCount-1 in storage order
+     */
+    public static RowIndexList identity(int rowCount) {
+        return new RowIndexList(null, rowCount);
+    }
+
+    /**
+     * Creates a view over the first count entries of the given row indices
+     * The array is used as-is and must not be modified afterwards
+     */
+    public static RowIndexList of(int[] indices, int count) {
+        return new RowIndexList(indices, count);
+    }
+
+    /**
+     * Returns the result row shown at the given position
+     */
+    public int getRow(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + size);
+        }
+        return indices != null ? indices[position] : position;
+    }
+
+    @Override
+    public Integer get(int position) {
+        return getRow(position);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the visible row indices into a new array
+     */
+    public int[] toRowArray() {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = indices != null ? indices[i] : i;
+        }
+        return rows;
+    }
+
+    /**
+     * Extends an identity view to cover newly appended rows and notifies listeners
+     */
+    public void growIdentity(int newSize) {
+        if (indices != null) {
+            throw new IllegalStateException("Only identity views can grow");
+        }
+        if (newSize <= size) {
+            return;
+        }
+
+        int oldSize = size;
+        size = newSize;
+        beginChange();
+        nextAdd(oldSize, newSize);
+        endChange();
+    }
+}
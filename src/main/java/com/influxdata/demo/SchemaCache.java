@@ -0,0 +1,431 @@
+package com.influxdata.demo;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Measurements, field keys with their types and tag keys of one host and database, for autocomplete
+ * Persisted as JSON under the settings directory so a new session starts with the last known schema, and
+ * refreshed incrementally: SHOW MEASUREMENTS finds added and dropped measurements, and field and tag keys are
+ * only read again for measurements that are new or older than the maximum age
+ * Readers get immutable snapshots without locking, so the JavaFX thread can complete while a refresh runs
+ */
+public class SchemaCache {
+
+    // Above this many measurements to load, one SHOW FIELD KEYS / SHOW TAG KEYS over the whole database is cheaper
+    private static final int BULK_LOAD_THRESHOLD = 10;
+
+    public static final String KIND_MEASUREMENT = "measurement";
+    public static final String KIND_TAG = "tag";
+    public static final String KIND_KEYWORD = "keyword";
+
+    private static final List<String> KEYWORDS = Arrays.asList(
+        "SELECT", "FROM", "WHERE", "AND", "OR", "GROUP BY", "ORDER BY", "DESC", "LIMIT", "OFFSET", "time", "now()",
+        "fill(", "SHOW MEASUREMENTS", "SHOW FIELD KEYS", "SHOW TAG KEYS", "SHOW TAG VALUES");
+
+    private static final Pattern PLAIN_IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * Field keys with their types and tag keys of one measurement, and when they were read
+     */
+    public static final class Measurement {
+        private final String name;
+        private final Map<String, String> fieldTypes;
+        private final Set<String> tagKeys;
+        private final long loadedAt;
+
+        private Measurement(String name, Map<String, String> fieldTypes, Set<String> tagKeys, long loadedAt) {
+            this.name = name;
+            this.fieldTypes = Collections.unmodifiableMap(new TreeMap<>(fieldTypes));
+            this.tagKeys = Collections.unmodifiableSet(new TreeSet<>(tagKeys));
+            this.loadedAt = loadedAt;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Field keys in name order, mapped to their InfluxDB type (float, integer, string, boolean, ...)
+         */
+        public Map<String, String> getFieldTypes() {
+            return fieldTypes;
+        }
+
+        public Set<String> getTagKeys() {
+            return tagKeys;
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+
+    /**
+     * Completion candidates for the word at the caret: the text range they replace and, per candidate,
+     * its kind (measurement, tag, keyword or the field type)
+     */
+    public static final class Completion {
+        private final int start;
+        private final int end;
+        private final Map<String, String> candidates;
+
+        private Completion(int start, int end, Map<String, String> candidates) {
+            this.start = start;
+            this.end = end;
+            this.candidates = Collections.unmodifiableMap(candidates);
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public Map<String, String> getCandidates() {
+            return candidates;
+        }
+    }
+
+    private final File file;
+    private final String host;
+    private final String database;
+
+    // Replaced as a whole on every refresh, never modified in place
+    private volatile Map<String, Measurement> measurements;
+    private volatile long refreshedAt;
+
+    private SchemaCache(File file, String host, String database, Map<String, Measurement> measurements, long refreshedAt) {
+        this.file = file;
+        this.host = host;
+        this.database = database;
+        this.measurements = Collections.unmodifiableMap(measurements);
+        this.refreshedAt = refreshedAt;
+    }
+
+    /**
+     * Opens the cache of a host and database, starting from the saved schema if there is one
+     * An unreadable or mismatching file is ignored and overwritten by the next refresh
+     */
+    public static SchemaCache load(File directory, String host, String database) {
+        File file = new File(directory, fileName(host, database));
+        Map<String, Measurement> measurements = new TreeMap<>();
+        long refreshedAt = 0;
+        if (file.isFile()) {
+            try {
+                JSONObject json = new JSONObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+                if (host.equals(json.optString("host")) && database.equals(json.optString("database"))) {
+                    refreshedAt = json.optLong("refreshedAt");
+                    JSONObject saved = json.getJSONObject("measurements");
+                    for (String name : saved.keySet()) {
+                        measurements.put(name, readMeasurement(name, saved.getJSONObject(name)));
+                    }
+                    System.out.println("Schema cache loaded from: " + file + " (" + measurements.size() + " measurements)");
+                }
+            } catch (IOException | JSONException e) {
+                System.out.println("Ignoring unreadable schema cache " + file + ": " + e.getMessage());
+                measurements.clear();
+                refreshedAt = 0;
+            }
+        }
+        return new SchemaCache(file, host, database, measurements, refreshedAt);
+    }
+
+    /**
+     * File name of a host and database, reduced to characters every file system accepts
+     */
+    static String fileName(String host, String database) {
+        return (host + "_" + database).replaceAll("[^A-Za-z0-9._-]", "_") + ".json";
+    }
+
+    public Map<String, Measurement> getMeasurements() {
+        return measurements;
+    }
+
+    /**
+     * When the last refresh finished, or 0 if the cache has never been refreshed
+     */
+    public long getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * Brings the cache up to date with the server and saves it
+     * measurementsResponse is a SHOW MEASUREMENTS response the caller already has, or null to run the query
+     * Returns a summary for the status bar, e.g. "42 measurements (2 new, 1 dropped, 3 reloaded)"
+     */
+    public synchronized String refresh(InfluxHttpClient client, String token, String measurementsResponse, long maxAgeMillis)
+            throws IOException, InterruptedException {
+        String response = measurementsResponse != null ? measurementsResponse : query(client, token, "SHOW MEASUREMENTS");
+        Set<String> names = new TreeSet<>();
+        for (JSONObject series : readSeries(response)) {
+            int nameColumn = Math.max(0, indexOf(series, "name"));
+            for (JSONArray row : rows(series)) {
+                names.add(row.getString(nameColumn));
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, Measurement> current = measurements;
+        Set<String> stale = new HashSet<>();
+        int added = 0;
+        for (String name : names) {
+            Measurement cached = current.get(name);
+            if (cached == null) {
+                added++;
+            }
+            if (cached == null || now - cached.loadedAt > maxAgeMillis) {
+                stale.add(name);
+            }
+        }
+        int dropped = 0;
+        for (String name : current.keySet()) {
+            if (!names.contains(name)) {
+                dropped++;
+            }
+        }
+
+        // Keys of the stale measurements; a bulk load also brings every other measurement up to date
+        Map<String, Map<String, String>> fieldTypes = new HashMap<>();
+        Map<String, Set<String>> tagKeys = new HashMap<>();
+        if (stale.size() > BULK_LOAD_THRESHOLD) {
+            readKeys(query(client, token, "SHOW FIELD KEYS"), fieldTypes, tagKeys);
+            readKeys(query(client, token, "SHOW TAG KEYS"), fieldTypes, tagKeys);
+        } else {
+            for (String name : stale) {
+                readKeys(query(client, token, "SHOW FIELD KEYS FROM " + quoteIdentifier(name)), fieldTypes, tagKeys);
+                readKeys(query(client, token, "SHOW TAG KEYS FROM " + quoteIdentifier(name)), fieldTypes, tagKeys);
+            }
+        }
+
+        Map<String, Measurement> updated = new TreeMap<>();
+        int reloaded = 0;
+        for (String name : names) {
+            if (stale.contains(name) || fieldTypes.containsKey(name) || tagKeys.containsKey(name)) {
+                updated.put(name, new Measurement(name, fieldTypes.getOrDefault(name, Collections.emptyMap()),
+                    tagKeys.getOrDefault(name, Collections.emptySet()), now));
+                if (current.containsKey(name)) {
+                    reloaded++;
+                }
+            } else {
+                updated.put(name, current.get(name));
+            }
+        }
+        measurements = Collections.unmodifiableMap(updated);
+        refreshedAt = now;
+        save();
+        return names.size() + " measurements (" + added + " new, " + dropped + " dropped, " + reloaded + " reloaded)";
+    }
+
+    /**
+     * Candidates for the word ending at the caret: measurement names right after FROM, otherwise the fields and
+     * tags of the measurement the query reads from (of all measurements while there is no FROM yet) and keywords
+     * Names that are not plain identifiers come back double-quoted, ready to insert
+     */
+    public Completion complete(String text, int caret) {
+        int start = caret;
+        while (start > 0 && isIdentifierPart(text.charAt(start - 1))) {
+            start--;
+        }
+        int prefixStart = start;
+        if (start > 0 && text.charAt(start - 1) == '"') {
+            start--;
+        }
+        String prefix = text.substring(prefixStart, caret).toLowerCase(Locale.ROOT);
+
+        Map<String, Measurement> schema = measurements;
+        Map<String, String> names = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        boolean afterFrom = "FROM".equalsIgnoreCase(previousWord(text, start));
+        if (afterFrom) {
+            for (String name : schema.keySet()) {
+                names.put(name, KIND_MEASUREMENT);
+            }
+        } else {
+            Measurement target = schema.get(LineProtocolExporter.measurementFromQuery(text));
+            Collection<Measurement> sources = target != null ? Collections.singleton(target) : schema.values();
+            for (Measurement measurement : sources) {
+                names.putAll(measurement.fieldTypes);
+                for (String tag : measurement.tagKeys) {
+                    names.put(tag, KIND_TAG);
+                }
+            }
+        }
+
+        Map<String, String> candidates = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : names.entrySet()) {
+            if (entry.getKey().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                candidates.put(quoteIfNeeded(entry.getKey()), entry.getValue());
+            }
+        }
+        if (!afterFrom && start == prefixStart) {
+            for (String keyword : KEYWORDS) {
+                if (keyword.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                    candidates.putIfAbsent(keyword, KIND_KEYWORD);
+                }
+            }
+        }
+        return new Completion(start, caret, candidates);
+    }
+
+    private void save() {
+        JSONObject saved = new JSONObject();
+        for (Measurement measurement : measurements.values()) {
+            saved.put(measurement.name, new JSONObject()
+                .put("fields", new JSONObject(measurement.fieldTypes))
+                .put("tags", new JSONArray(measurement.tagKeys))
+                .put("loadedAt", measurement.loadedAt));
+        }
+        JSONObject json = new JSONObject()
+            .put("host", host)
+            .put("database", database)
+            .put("refreshedAt", refreshedAt)
+            .put("measurements", saved);
+
+        // Write a temporary file and move it into place, so a crash never leaves a truncated cache behind
+        try {
+            Path directory = file.getParentFile().toPath();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getName(), ".tmp");
+            Files.write(temp, json.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Could not save schema cache " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Measurement readMeasurement(String name, JSONObject json) {
+        Map<String, String> fieldTypes = new TreeMap<>();
+        JSONObject fields = json.optJSONObject("fields");
+        if (fields != null) {
+            for (String field : fields.keySet()) {
+                fieldTypes.put(field, fields.getString(field));
+            }
+        }
+        Set<String> tagKeys = new TreeSet<>();
+        JSONArray tags = json.optJSONArray("tags");
+        if (tags != null) {
+            for (int i = 0; i < tags.length(); i++) {
+                tagKeys.add(tags.getString(i));
+            }
+        }
+        return new Measurement(name, fieldTypes, tagKeys, json.optLong("loadedAt"));
+    }
+
+    private String query(InfluxHttpClient client, String token, String query) throws IOException, InterruptedException {
+        return client.query(token, database, query);
+    }
+
+    /**
+     * Adds the keys of a SHOW FIELD KEYS or SHOW TAG KEYS response, one series per measurement
+     */
+    private static void readKeys(String response, Map<String, Map<String, String>> fieldTypes, Map<String, Set<String>> tagKeys)
+            throws IOException {
+        for (JSONObject series : readSeries(response)) {
+            String measurement = series.optString("name");
+            int fieldColumn = indexOf(series, "fieldKey");
+            int typeColumn = indexOf(series, "fieldType");
+            int tagColumn = indexOf(series, "tagKey");
+            for (JSONArray row : rows(series)) {
+                if (fieldColumn >= 0) {
+                    fieldTypes.computeIfAbsent(measurement, key -> new TreeMap<>())
+                        .put(row.getString(fieldColumn), typeColumn >= 0 ? row.optString(typeColumn) : "");
+                } else if (tagColumn >= 0) {
+                    tagKeys.computeIfAbsent(measurement, key -> new TreeSet<>()).add(row.getString(tagColumn));
+                }
+            }
+        }
+    }
+
+    /**
+     * All series of a response, failing on HTTP and statement errors
+     */
+    private static List<JSONObject> readSeries(String response) throws IOException {
+        if (response.startsWith("ERROR")) {
+            throw new IOException(response);
+        }
+        List<JSONObject> seriesList = new ArrayList<>();
+        try {
+            JSONArray results = new JSONObject(response).optJSONArray("results");
+            for (int r = 0; results != null && r < results.length(); r++) {
+                JSONObject result = results.getJSONObject(r);
+                if (result.has("error")) {
+                    throw new IOException(result.getString("error"));
+                }
+                JSONArray series = result.optJSONArray("series");
+                for (int s = 0; series != null && s < series.length(); s++) {
+                    seriesList.add(series.getJSONObject(s));
+                }
+            }
+        } catch (JSONException e) {
+            throw new IOException("Unexpected schema response: " + e.getMessage(), e);
+        }
+        return seriesList;
+    }
+
+    private static List<JSONArray> rows(JSONObject series) {
+        List<JSONArray> rows = new ArrayList<>();
+        JSONArray values = series.optJSONArray("values");
+        for (int i = 0; values != null && i < values.length(); i++) {
+            rows.add(values.getJSONArray(i));
+        }
+        return rows;
+    }
+
+    private static int indexOf(JSONObject series, String column) {
+        JSONArray columns = series.optJSONArray("columns");
+        for (int i = 0; columns != null && i < columns.length(); i++) {
+            if (column.equals(columns.optString(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String previousWord(String text, int end) {
+        int wordEnd = end;
+        while (wordEnd > 0 && Character.isWhitespace(text.charAt(wordEnd - 1))) {
+            wordEnd--;
+        }
+        int wordStart = wordEnd;
+        while (wordStart > 0 && isIdentifierPart(text.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        return text.substring(wordStart, wordEnd);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static String quoteIfNeeded(String name) {
+        return PLAIN_IDENTIFIER.matcher(name).matches() ? name : quoteIdentifier(name);
+    }
+
+    static String quoteIdentifier(String name) {
+        return "\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
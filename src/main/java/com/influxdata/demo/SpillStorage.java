@@ -0,0 +1,139 @@
+package com.influxdata.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap, memory-mapped storage for results that outgrow the heap
+ * Each result tracks the heap used by its primitive vectors; once that passes the spill threshold,
+ * vectors move into fixed-size segment files under ~/.influxdb-ide/spill that the OS pages in and out,
+ * so a result can be far larger than the JVM heap. String dictionaries and bitmaps stay on the heap
+ */
+public final class SpillStorage {
+
+    // Size of one mapped segment file
+    static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    private static final File SPILL_DIR = new File(System.getProperty("user.home"),
+        ".influxdb-ide" + File.separator + "spill");
+
+    public static final long DEFAULT_THRESHOLD_BYTES = 256L * 1024 * 1024;
+
+    private static volatile long thresholdBytes = DEFAULT_THRESHOLD_BYTES;
+    private static final AtomicLong mappedBytes = new AtomicLong();
+    // Takes unmapped segments off mappedBytes once the garbage collector has dropped their buffer
+    private static final Cleaner UNMAP_TRACKER = Cleaner.create();
+    private static final AtomicLong segmentCounter = new AtomicLong();
+
+    private SpillStorage() {
+    }
+
+    /**
+     * Heap accounting for the vectors of one result
+     * Not thread-safe; a result is only ever appended to by one thread at a time
+     */
+    static final class Budget {
+        private long heapBytes;
+        private boolean spilled;
+
+        /**
+         * Reserves heap for a vector that wants to grow
+         * Returns false if the result would pass the spill threshold, in which case the vector should spill
+         */
+        boolean tryReserve(long bytes) {
+            if (heapBytes + bytes > thresholdBytes) {
+                return false;
+            }
+            heapBytes += bytes;
+            return true;
+        }
+
+        void release(long bytes) {
+            heapBytes -= bytes;
+        }
+
+        void markSpilled() {
+            spilled = true;
+        }
+
+        boolean isSpilled() {
+            return spilled;
+        }
+    }
+
+    /**
+     * Sets the per-result heap threshold beyond which vectors are moved off-heap
+     */
+    public static void setThresholdBytes(long bytes) {
+        thresholdBytes = bytes;
+    }
+
+    public static long getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    /**
+     * Total size of all segments currently mapped by this process
+     */
+    public static long getMappedBytes() {
+        return mappedBytes.get();
+    }
+
+    /**
+     * Maps a new zero-filled segment file
+     * The file is deleted right after mapping where the OS allows it (the mapping stays valid),
+     * otherwise when the JVM exits; segments are released when the garbage collector drops the buffer
+     */
+    static ByteBuffer allocateSegment() {
+        if (!SPILL_DIR.exists() && !SPILL_DIR.mkdirs()) {
+            throw new UncheckedIOException(new IOException("Cannot create spill directory " + SPILL_DIR));
+        }
+
+        File file = new File(SPILL_DIR, "segment-" + ProcessHandle.current().pid() + "-"
+            + segmentCounter.incrementAndGet() + ".bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(SEGMENT_BYTES);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+            buffer.order(ByteOrder.nativeOrder());
+            mappedBytes.addAndGet(SEGMENT_BYTES);
+            // Views such as asLongBuffer() keep the buffer reachable, so this runs when the last of them is dropped
+            UNMAP_TRACKER.register(buffer, () -> mappedBytes.addAndGet(-SEGMENT_BYTES));
+            System.out.println("Spilled result segment to " + file + " (" + (mappedBytes.get() / (1024 * 1024)) + " MB mapped)");
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map spill segment " + file + ": " + e.getMessage(), e);
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Deletes segment files left behind by earlier runs
+     * Files that are still mapped by another running instance cannot be deleted on Windows and are skipped
+     */
+    public static void cleanUpStaleSegments() {
+        File[] files = SPILL_DIR.listFiles((dir, name) -> name.startsWith("segment-") && name.endsWith(".bin"));
+        if (files == null) {
+            return;
+        }
+        int deleted = 0;
+        for (File file : files) {
+            if (file.delete()) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("Removed " + deleted + " stale spill segments from " + SPILL_DIR);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.influxdata.demo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Durations of the startup phases, each measured from the end of the previous one
+ * The first phase runs from the process start (JVM boot and class loading); time spent waiting for the user
+ * is reported but left out of the total, and work that overlaps other phases is listed on its own
+ * The summary is printed and appended to a log file, one line per launch, so regressions show up over time;
+ * marks after the report are ignored
+ */
+public final class StartupTimings {
+
+    private static final class Phase {
+        final String name;
+        final long millis;
+        final boolean counted;
+
+        Phase(String name, long millis, boolean counted) {
+            this.name = name;
+            this.millis = millis;
+            this.counted = counted;
+        }
+    }
+
+    private final List<Phase> phases = new ArrayList<>();
+    private final List<Phase> overlapped = new ArrayList<>();
+    private long lastMark;
+    private boolean reported;
+
+    /**
+     * Starts timing; the time from the process start until now becomes the phase "JVM start"
+     */
+    public StartupTimings() {
+        lastMark = System.nanoTime();
+        long jvmMillis = ProcessHandle.current().info().startInstant()
+            .map(start -> Math.max(0, Instant.now().toEpochMilli() - start.toEpochMilli()))
+            .orElse(-1L);
+        if (jvmMillis >= 0) {
+            phases.add(new Phase("JVM start", jvmMillis, true));
+        }
+    }
+
+    /**
+     * Ends a phase that counts towards the startup time
+     */
+    public synchronized void mark(String phase) {
+        if (!reported) {
+            phases.add(new Phase(phase, elapsedSinceMark(), true));
+        }
+    }
+
+    /**
+     * Ends a phase spent waiting for the user, which does not count towards the startup time
+     */
+    public synchronized void markWaiting(String phase) {
+        if (!reported) {
+            phases.add(new Phase(phase, elapsedSinceMark(), false));
+        }
+    }
+
+    /**
+     * Records work that ran in parallel with the other phases, e.g. a network round trip
+     */
+    public synchronized void addOverlapped(String phase, long nanos) {
+        overlapped.add(new Phase(phase, nanos / 1_000_000, false));
+    }
+
+    public synchronized long getTotalMillis() {
+        long total = 0;
+        for (Phase phase : phases) {
+            if (phase.counted) {
+                total += phase.millis;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * One-line summary, e.g. "JVM start 310 ms, JavaFX toolkit 420 ms, [waiting for Connect 5200 ms], ... = 1200 ms"
+     */
+    public synchronized String describe() {
+        StringBuilder text = new StringBuilder();
+        for (Phase phase : phases) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(phase.counted ? "" : "[").append(phase.name).append(' ').append(phase.millis).append(" ms")
+                .append(phase.counted ? "" : "]");
+        }
+        text.append(" = ").append(getTotalMillis()).append(" ms");
+        for (Phase phase : overlapped) {
+            text.append("; ").append(phase.name).append(' ').append(phase.millis).append(" ms overlapped");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Prints the summary and appends it to the log file, only the first time it is called
+     */
+    public synchronized void report(File logFile) {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        System.out.println("Startup: " + describe());
+        try {
+            File directory = logFile.getParentFile();
+            if (directory != null && !directory.exists()) {
+                directory.mkdirs();
+            }
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(logFile, true), StandardCharsets.UTF_8)) {
+                writer.write(Instant.now() + " java " + System.getProperty("java.version") + ": " + describe()
+                    + System.lineSeparator());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write startup log " + logFile + ": " + e.getMessage());
+        }
+    }
+
+    private long elapsedSinceMark() {
+        long now = System.nanoTime();
+        long millis = (now - lastMark) / 1_000_000;
+        lastMark = now;
+        return millis;
+    }
+}
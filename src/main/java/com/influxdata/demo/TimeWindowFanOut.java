@@ -0,0 +1,275 @@
+package com.influxdata.demo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the time range of a SELECT into sub-windows that run as separate queries in parallel
+ * Each window query ANDs its own [start, end) bounds onto the original WHERE clause (the first and last
+ * windows stay open towards the original bounds), so the windows partition the result exactly even if
+ * the range was estimated from now(). Window boundaries are aligned to the GROUP BY time() interval, so
+ * no bucket is split. Results are handed over in window order, which is time order
+ */
+public class TimeWindowFanOut {
+
+    /**
+     * Runs one window query and returns its rows, or null if it returned none
+     */
+    public interface WindowRunner {
+        ColumnarResult run(String query) throws Exception;
+    }
+
+    /**
+     * Receives progress from the worker threads and the window results in order
+     */
+    public interface Listener {
+        void onWindowFinished(int window, long rows, int windowsDone, int windowsRunning);
+
+        void onWindowResult(int window, ColumnarResult result);
+    }
+
+    private static final Pattern TIME_CONDITION = Pattern.compile(
+        "(?i)\\btime\\s*(>=|>|<=|<|=)\\s*(now\\(\\)(?:\\s*([+-])\\s*(\\d+)(ns|us|u|µ|ms|s|m|h|d|w))?|'([^']*)'|(-?\\d+)(ns|us|u|µ|ms|s|m|h|d|w)?)");
+    private static final Pattern GROUP_BY_TIME = Pattern.compile(
+        "(?i)\\btime\\s*\\(\\s*(\\d+)(ns|us|u|µ|ms|s|m|h|d|w)\\s*(?:,\\s*(-?)(\\d+)(ns|us|u|µ|ms|s|m|h|d|w)\\s*)?\\)");
+
+    private final List<String> windowQueries;
+    private final long[] boundaries;
+
+    private TimeWindowFanOut(List<String> windowQueries, long[] boundaries) {
+        this.windowQueries = windowQueries;
+        this.boundaries = boundaries;
+    }
+
+    /**
+     * Returns a fan-out of the query into at most the given number of windows, or null if it cannot be split
+     * The query needs a lower time bound; without an upper bound the range ends at nowNanos. Aggregates are
+     * only split with GROUP BY time(), and queries with LIMIT, OFFSET, SLIMIT, SOFFSET or INTO are not split
+     */
+    public static TimeWindowFanOut create(String query, int windows, long nowNanos) {
+        String trimmed = query.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        int from = QueryPaginator.findKeyword(trimmed, "FROM", 0);
+        if (windows < 2 || from < 0 || !trimmed.regionMatches(true, 0, "SELECT", 0, 6)
+                || QueryPaginator.findKeyword(trimmed, ";", 0) >= 0) {
+            return null;
+        }
+        for (String keyword : new String[] {"LIMIT", "OFFSET", "SLIMIT", "SOFFSET", "INTO"}) {
+            if (QueryPaginator.findKeyword(trimmed, keyword, 0) >= 0) {
+                return null;
+            }
+        }
+
+        // GROUP BY time(interval[, offset]) sets the bucket grid; other aggregates cannot be merged
+        long interval = 0;
+        long offset = 0;
+        int group = QueryPaginator.findKeyword(trimmed, "GROUP", from);
+        if (group >= 0) {
+            Matcher groupByTime = GROUP_BY_TIME.matcher(trimmed.substring(group));
+            if (groupByTime.find()) {
+                interval = duration(Long.parseLong(groupByTime.group(1)), groupByTime.group(2));
+                if (groupByTime.group(4) != null) {
+                    offset = duration(Long.parseLong(groupByTime.group(4)), groupByTime.group(5));
+                    offset = "-".equals(groupByTime.group(3)) ? -offset : offset;
+                }
+            }
+        }
+        if (interval == 0 && trimmed.substring(6, from).indexOf('(') >= 0) {
+            return null;
+        }
+
+        // Estimate the range from the time conditions of the WHERE clause
+        int where = QueryPaginator.findKeyword(trimmed, "WHERE", from);
+        if (where < 0) {
+            return null;
+        }
+        int whereEnd = QueryPaginator.firstOf(trimmed, where, trimmed.length(), "GROUP", "ORDER", "FILL", "TZ");
+        long start = Long.MIN_VALUE;
+        long end = Long.MAX_VALUE;
+        Matcher condition = TIME_CONDITION.matcher(trimmed.substring(where, whereEnd));
+        while (condition.find()) {
+            Long value = timeValue(condition, nowNanos);
+            if (value == null) {
+                continue;
+            }
+            String operator = condition.group(1);
+            if (operator.startsWith(">") || operator.equals("=")) {
+                start = Math.max(start, value);
+            }
+            if (operator.startsWith("<") || operator.equals("=")) {
+                end = Math.min(end, value);
+            }
+        }
+        if (start == Long.MIN_VALUE) {
+            return null;
+        }
+        if (end == Long.MAX_VALUE) {
+            end = nowNanos;
+        }
+
+        // Evenly spaced inner boundaries, snapped to the bucket grid
+        List<Long> inner = new ArrayList<>();
+        for (int i = 1; i < windows; i++) {
+            long boundary = start + (long) ((double) (end - start) * i / windows);
+            if (interval > 0) {
+                boundary = Math.floorDiv(boundary - offset, interval) * interval + offset;
+            }
+            if (boundary > start && boundary < end && (inner.isEmpty() || boundary > inner.get(inner.size() - 1))) {
+                inner.add(boundary);
+            }
+        }
+        if (inner.isEmpty()) {
+            return null;
+        }
+
+        // ORDER BY time DESC returns the newest window first
+        int order = QueryPaginator.findKeyword(trimmed, "ORDER", from);
+        boolean descending = order >= 0 && trimmed.substring(order).toUpperCase(Locale.ROOT).matches("(?s)ORDER\\s+BY\\s+TIME\\s+DESC\\b.*");
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i <= inner.size(); i++) {
+            String lower = i > 0 ? "time >= " + inner.get(i - 1) : null;
+            String upper = i < inner.size() ? "time < " + inner.get(i) : null;
+            String bounds = lower != null && upper != null ? lower + " AND " + upper : lower != null ? lower : upper;
+            queries.add(QueryPaginator.addCondition(trimmed, bounds));
+        }
+        long[] boundaries = new long[inner.size() + 2];
+        boundaries[0] = start;
+        for (int i = 0; i < inner.size(); i++) {
+            boundaries[i + 1] = inner.get(i);
+        }
+        boundaries[boundaries.length - 1] = end;
+        if (descending) {
+            Collections.reverse(queries);
+        }
+        return new TimeWindowFanOut(queries, boundaries);
+    }
+
+    public List<String> getWindowQueries() {
+        return windowQueries;
+    }
+
+    public int getWindowCount() {
+        return windowQueries.size();
+    }
+
+    /**
+     * Estimated window boundaries in epoch nanoseconds, from the range start to its end
+     */
+    public long[] getBoundaries() {
+        return boundaries.clone();
+    }
+
+    /**
+     * Runs the window queries with at most parallelism of them at once and hands the results to the
+     * listener in window order as soon as all earlier windows are in
+     * Returns the total number of rows; the first failing window cancels the rest and its error is thrown
+     */
+    public long execute(WindowRunner runner, int parallelism, QueryCancellation cancellation, Listener listener) throws Exception {
+        int windowCount = windowQueries.size();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, windowCount)), task -> {
+            Thread thread = new Thread(task, "time-window-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        try {
+            List<Future<ColumnarResult>> futures = new ArrayList<>();
+            for (int i = 0; i < windowCount; i++) {
+                int window = i;
+                futures.add(pool.submit(() -> {
+                    cancellation.throwIfCancelled();
+                    running.incrementAndGet();
+                    ColumnarResult result;
+                    try {
+                        result = runner.run(windowQueries.get(window));
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    listener.onWindowFinished(window, result != null ? result.getRowCount() : 0,
+                        done.incrementAndGet(), running.get());
+                    return result;
+                }));
+            }
+            // Cancelling also fails the windows still waiting for a thread
+            cancellation.onCancel(() -> futures.forEach(future -> future.cancel(true)));
+
+            long totalRows = 0;
+            for (int window = 0; window < windowCount; window++) {
+                ColumnarResult result;
+                try {
+                    result = futures.get(window).get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                } catch (CancellationException | InterruptedException e) {
+                    cancellation.throwIfCancelled();
+                    throw e;
+                }
+                if (result != null) {
+                    totalRows += result.getRowCount();
+                    listener.onWindowResult(window, result);
+                }
+            }
+            return totalRows;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Absolute time of a matched condition value, or null if it is not understood
+     */
+    private static Long timeValue(Matcher condition, long nowNanos) {
+        if (condition.group(2).toLowerCase(Locale.ROOT).startsWith("now()")) {
+            if (condition.group(3) == null) {
+                return nowNanos;
+            }
+            long amount = duration(Long.parseLong(condition.group(4)), condition.group(5));
+            return "-".equals(condition.group(3)) ? nowNanos - amount : nowNanos + amount;
+        }
+        if (condition.group(6) != null) {
+            return ColumnarResult.parseTime(condition.group(6));
+        }
+        long number = Long.parseLong(condition.group(7));
+        return condition.group(8) != null ? duration(number, condition.group(8)) : number;
+    }
+
+    /**
+     * Nanoseconds of an InfluxQL duration literal
+     */
+    static long duration(long amount, String unit) {
+        switch (unit.toLowerCase(Locale.ROOT)) {
+            case "ns":
+                return amount;
+            case "u":
+            case "us":
+            case "µ":
+                return amount * 1_000L;
+            case "ms":
+                return amount * 1_000_000L;
+            case "s":
+                return amount * 1_000_000_000L;
+            case "m":
+                return amount * 60_000_000_000L;
+            case "h":
+                return amount * 3_600_000_000_000L;
+            case "d":
+                return amount * 86_400_000_000_000L;
+            default:
+                return amount * 604_800_000_000_000L;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.influxdata.demo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte counters and timings for one HTTP response
+ * Wire bytes are counted before decompression, decoded bytes after, so the difference is the saving from gzip
+ * Times are System.nanoTime marks set by the transport; a query split over several requests keeps the first
+ * request and the last body. The JDK client does not expose connection setup, so any TCP connect and TLS
+ * handshake are part of the time to first byte
+ */
+public class TransferStats {
+
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private volatile String contentEncoding = "identity";
+    private volatile long requestNanos;
+    private volatile long headersNanos;
+    private volatile long bodyEndNanos;
+
+    void addWireBytes(long count) {
+        wireBytes.addAndGet(count);
+    }
+
+    void addDecodedBytes(long count) {
+        decodedBytes.addAndGet(count);
+    }
+
+    void setContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    synchronized void markRequestSent() {
+        if (requestNanos == 0) {
+            requestNanos = System.nanoTime();
+        }
+    }
+
+    synchronized void markHeadersReceived() {
+        if (headersNanos == 0) {
+            headersNanos = System.nanoTime();
+        }
+    }
+
+    void markBodyRead() {
+        bodyEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Time from sending the request to the response headers: connection setup (if any) plus server evaluation
+     */
+    public long getTimeToFirstByteNanos() {
+        return headersNanos > 0 ? headersNanos - requestNanos : 0;
+    }
+
+    /**
+     * Time from the response headers to the end of the body
+     */
+    public long getDownloadNanos() {
+        return bodyEndNanos > 0 && headersNanos > 0 ? bodyEndNanos - headersNanos : 0;
+    }
+
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Short summary for the status bar, e.g. "1.2 MB on the wire (gzip), 9.8 MB decoded, 88% saved"
+     */
+    public String describe() {
+        long wire = getWireBytes();
+        long decoded = getDecodedBytes();
+        if ("identity".equals(contentEncoding)) {
+            return formatBytes(wire) + " on the wire (uncompressed)";
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(formatBytes(wire)).append(" on the wire (").append(contentEncoding).append("), ")
+            .append(formatBytes(decoded)).append(" decoded");
+        if (decoded > 0) {
+            text.append(", ").append(Math.round(100.0 * (decoded - wire) / decoded)).append("% saved");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Formats a byte count as B, KB, MB or GB with one decimal place
+     */
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+}